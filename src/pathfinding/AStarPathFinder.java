@@ -2,6 +2,7 @@ package pathfinding;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -71,6 +72,9 @@ public abstract class AStarPathFinder<T> implements IPathFinder<T> {
         }
     }
 
+    private volatile ISearchListener mySearchListener;
+    private volatile ConnectivityIndex<T> myConnectivityIndex;
+
     /**
      * Gets the h(x) heuristic value from node to destination. If no heuristic is to be defined,
      * then simply return 0 every time (becomes Djikstra's algorithm then). Heuristics must be
@@ -82,81 +86,173 @@ public abstract class AStarPathFinder<T> implements IPathFinder<T> {
      */
     public abstract Number getHeuristicValue (T node, T destination);
 
+    /**
+     * Sets the listener told about every search this finder finishes, or null for none. Searches
+     * only read the clock and build statistics while a listener is set.
+     */
+    public void setSearchListener (ISearchListener listener) {
+        mySearchListener = listener;
+    }
+
+    public ISearchListener getSearchListener () {
+        return mySearchListener;
+    }
+
+    /**
+     * Sets the index checked before every search, so a destination in another component is
+     * rejected at once, or null to always search. Every finder in this package that extends this
+     * class checks it, as do searches from IndexedAStarPathFinder.startSearch. Only valid while
+     * isDestination means equals.
+     */
+    public void setConnectivityIndex (ConnectivityIndex<T> index) {
+        myConnectivityIndex = index;
+    }
+
+    public ConnectivityIndex<T> getConnectivityIndex () {
+        return myConnectivityIndex;
+    }
+
+    /**
+     * @return False if the connectivity index shows that no path leads from start to
+     *         destination; true if there is no index or a path may exist.
+     */
+    protected boolean canReach (T start, T destination) {
+        ConnectivityIndex<T> index = myConnectivityIndex;
+        return index == null || index.canReach(start, destination);
+    }
+
     @Override
     public boolean isDestination (T node, T destinationNode) {
         return node.equals(destinationNode);
     }
 
-    private Number getAndCheckCost (T beginningNode, T endingNode) throws InvalidCostException {
-        Number cost = getCost(beginningNode, endingNode);
-        if (!isPositive(cost)) { throw new InvalidCostException(); }
-        return cost;
+    /**
+     * Gets the cost of traveling between the nodes as a double, rejecting negative costs. Uses
+     * the IPrimitiveCosts hooks when the finder implements them, so nothing is boxed.
+     */
+    protected double getCheckedCost (T beginningNode, T endingNode) throws InvalidCostException {
+        return CheckedCosts.getCost(this, beginningNode, endingNode);
     }
 
-    private Number getAndCheckHeuristicValue (T node, T destination) throws InvalidCostException {
-        Number heuristicValue = getHeuristicValue(node, destination);
-        if (!isPositive(heuristicValue)) { throw new InvalidCostException(); }
-        return heuristicValue;
+    /**
+     * Gets the heuristic value from node to destination as a double, rejecting negative values.
+     * Uses the IPrimitiveCosts hooks when the finder implements them, so nothing is boxed.
+     */
+    protected double getCheckedHeuristicValue (T node, T destination)
+            throws InvalidCostException {
+        return CheckedCosts.getHeuristicValue(this, node, destination);
     }
 
     @Override
     public List<T> findPath (T start, T destination) throws InvalidCostException {
+        return findWeightedPath(start, destination, 1);
+    }
+
+    /**
+     * Runs this class's search as weighted A*, which multiplies every heuristic value by epsilon.
+     * Subclasses that keep this search can offer weighted queries by implementing
+     * IWeightedPathFinder with a findPath that calls this method.
+     *
+     * @param start Starting node
+     * @param destination Ending node
+     * @param epsilon Heuristic inflation factor, at least 1. A value of 1 gives plain A*.
+     * @return Path from start to destination in order, or null if there is none.
+     */
+    protected List<T> findWeightedPath (T start, T destination, double epsilon)
+            throws InvalidCostException {
+        checkEpsilon(epsilon);
+        ISearchListener listener = mySearchListener;
+        long startTime = listener == null ? 0 : System.nanoTime();
+        if (!canReach(start, destination)) {
+            return reportSearch(listener, startTime, null, 0, 0, 0, 0);
+        }
+        int expandedNodes = 0;
+        int generatedNodes = 1;
+        int peakFrontierSize = 1;
         PQ frontierQueue = new PQ();
         HashSet<T> visitedNodes = new HashSet<>();
-        HashMap<T, Number> nodeToValueMap = new HashMap<>();
-        HashMap<T, ArrayList<T>> nodeToCurrentPathMap = new HashMap<>();
+        HashMap<T, Double> nodeToValueMap = new HashMap<>();
+        HashMap<T, T> nodeToParentMap = new HashMap<>();
 
-        PQTuple startTuple = new PQTuple(start, getHeuristicValue(start, destination));
+        PQTuple startTuple = new PQTuple(start, epsilon * getCheckedHeuristicValue(start,
+                                                                                   destination));
         frontierQueue.add(startTuple);
-        ArrayList<T> beginningRoute = new ArrayList<>();
-        nodeToCurrentPathMap.put(start, beginningRoute);
 
-        nodeToValueMap.put(start, 0);
+        nodeToValueMap.put(start, 0.0);
 
         while (!frontierQueue.isEmpty()) {
             PQTuple tupleToCheck = frontierQueue.poll();
             T currentNode = tupleToCheck.getNode();
             if (isDestination(currentNode, destination)) {
-                ArrayList<T> pathUpToDestination = nodeToCurrentPathMap.get(currentNode);
-                pathUpToDestination.add(currentNode);
-                return pathUpToDestination;
+                return reportSearch(listener, startTime, buildPath(nodeToParentMap, currentNode),
+                                    expandedNodes, generatedNodes, peakFrontierSize, 0);
             }
             visitedNodes.add(currentNode);
-            Number valueSoFar = nodeToValueMap.get(currentNode);
-            ArrayList<T> pathSoFar = nodeToCurrentPathMap.get(currentNode);
+            expandedNodes++;
+            double valueSoFar = nodeToValueMap.get(currentNode);
             Iterable<T> nextNodes = getNeighbors(currentNode);
             for (T neighboringNextNode : nextNodes) {
                 if (!visitedNodes.contains(neighboringNextNode)) {
-                    Number traversalCost = getAndCheckCost(currentNode, neighboringNextNode);
-                    Number gScore = addNumbers(valueSoFar, traversalCost);
-                    Number currentRecordedValue = nodeToValueMap.get(neighboringNextNode);
-                    if (currentRecordedValue == null ||
-                        gScore.doubleValue() < currentRecordedValue.doubleValue()) {
+                    double gScore =
+                            valueSoFar + getCheckedCost(currentNode, neighboringNextNode);
+                    Double currentRecordedValue = nodeToValueMap.get(neighboringNextNode);
+                    if (currentRecordedValue == null || gScore < currentRecordedValue) {
                         nodeToValueMap.put(neighboringNextNode, gScore);
-                        ArrayList<T> pathSoFarCopy = new ArrayList<>(pathSoFar);
-                        pathSoFarCopy.add(currentNode);
-                        nodeToCurrentPathMap.put(neighboringNextNode, pathSoFarCopy);
-                        Number hScore = getAndCheckHeuristicValue(neighboringNextNode, destination);
-                        Number totalScore = addNumbers(gScore, hScore);
+                        nodeToParentMap.put(neighboringNextNode, currentNode);
+                        double hScore = getCheckedHeuristicValue(neighboringNextNode, destination);
+                        double totalScore = gScore + epsilon * hScore;
                         PQTuple tuple = new PQTuple(neighboringNextNode, totalScore);
                         frontierQueue.add(tuple);
+                        generatedNodes++;
+                        peakFrontierSize = Math.max(peakFrontierSize, frontierQueue.size());
                     }
                 }
             }
 
         }
-        return null;
+        return reportSearch(listener, startTime, null, expandedNodes, generatedNodes,
+                            peakFrontierSize, 0);
+    }
+
+    /**
+     * Tells the listener, if there is one, what a finished search did.
+     *
+     * @param listener Listener read when the search started, or null
+     * @param startTime System.nanoTime when the search started; unused without a listener
+     * @param path Path the search found, or null
+     * @return The path, so searches can return the result of this method.
+     */
+    protected List<T> reportSearch (ISearchListener listener, long startTime, List<T> path,
+                                    long expandedNodes, long generatedNodes,
+                                    long peakFrontierSize, long reopenedNodes) {
+        if (listener != null) {
+            listener.searchFinished(new SearchStatistics(expandedNodes, generatedNodes,
+                                                         peakFrontierSize, reopenedNodes,
+                                                         System.nanoTime() - startTime,
+                                                         path == null ? 0 : path.size()));
+        }
+        return path;
     }
 
-    private boolean isPositive (Number number) {
-        return number.doubleValue() >= 0;
+    /**
+     * Rejects heuristic inflation factors below 1, which would no longer bound the path cost.
+     */
+    protected void checkEpsilon (double epsilon) {
+        if (!(epsilon >= 1)) {
+            throw new IllegalArgumentException("Heuristic weight must be at least 1: " + epsilon);
+        }
     }
 
-    private Number addNumbers (Number ... numbers) {
-        Double total = 0.0;
-        for (Number number : numbers) {
-            total += number.doubleValue();
+    /**
+     * Rebuilds the path by following parent links back from the reached node. The start node is
+     * the only node without a parent.
+     */
+    private List<T> buildPath (HashMap<T, T> nodeToParentMap, T reachedNode) {
+        ArrayList<T> path = new ArrayList<>();
+        for (T node = reachedNode; node != null; node = nodeToParentMap.get(node)) {
+            path.add(node);
         }
-        return total;
+        Collections.reverse(path);
+        return path;
     }
 }
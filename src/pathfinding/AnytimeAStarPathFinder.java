@@ -0,0 +1,290 @@
+package pathfinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Path finder that returns a usable path quickly and improves it over later calls, using the
+ * ARA* algorithm. The first pass runs weighted A* with a large heuristic weight epsilon, which
+ * finds a path that costs at most epsilon times the least cost after few expansions. Each
+ * following pass lowers epsilon and reuses the work already done, until a pass with epsilon 1
+ * has found a least cost path.
+ *
+ * Calls with a SearchBudget stop once the budget runs out and return the best path found so far,
+ * or null if the first pass has not finished yet. Asking again for the same start and
+ * destination continues where the last call stopped; asking for another pair starts over. Call
+ * reset after the map changes. Without a budget, findPath runs until the path is optimal.
+ *
+ * The heuristic must be consistent for the cost bound to hold. All methods are synchronized on
+ * the finder.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public abstract class AnytimeAStarPathFinder<T> extends AStarPathFinder<T> {
+
+    private static final double DEFAULT_INITIAL_EPSILON = 3;
+    private static final double DEFAULT_EPSILON_STEP = 0.5;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int NO_PARENT = -1;
+
+    private final double myInitialEpsilon;
+    private final double myEpsilonStep;
+    private final NodeIndexer<T> myIds = new NodeIndexer<>();
+    private final IndexedMinHeap myOpen = new IndexedMinHeap(4, new IndexedMinHeap.TieBreaker() {
+        @Override
+        public int compare (int id, int otherId) {
+            return breakTie(myIds.getNode(id), myIds.getNode(otherId));
+        }
+    });
+    private double[] myScores = new double[INITIAL_CAPACITY];
+    private double[] myHeuristics = new double[INITIAL_CAPACITY];
+    private int[] myParents = new int[INITIAL_CAPACITY];
+    private int[] myClosedPasses = new int[INITIAL_CAPACITY];
+    private boolean[] myInconsistent = new boolean[INITIAL_CAPACITY];
+    private int[] myInconsistentIds = new int[INITIAL_CAPACITY];
+    private int myInconsistentCount;
+    private T myStart;
+    private T myDestination;
+    private int myDestinationId;
+    private int myPass;
+    private double myEpsilon;
+    private double mySolutionEpsilon;
+    private List<T> mySolution;
+    private boolean myFinished;
+    private int myExpandedNodes;
+    private int myGeneratedNodes;
+    private int myReopenedNodes;
+    private int myPeakFrontierSize;
+
+    public AnytimeAStarPathFinder () {
+        this(DEFAULT_INITIAL_EPSILON, DEFAULT_EPSILON_STEP);
+    }
+
+    /**
+     * @param initialEpsilon Heuristic weight of the first pass, at least 1
+     * @param epsilonStep Amount the weight is lowered by after each pass
+     */
+    public AnytimeAStarPathFinder (double initialEpsilon, double epsilonStep) {
+        checkEpsilon(initialEpsilon);
+        if (!(epsilonStep > 0)) {
+            throw new IllegalArgumentException("Heuristic weight step must be positive");
+        }
+        myInitialEpsilon = initialEpsilon;
+        myEpsilonStep = epsilonStep;
+    }
+
+    /**
+     * Runs until a least cost path is found.
+     */
+    @Override
+    public List<T> findPath (T start, T destination) throws InvalidCostException {
+        return findPath(start, destination, SearchBudget.UNLIMITED);
+    }
+
+    /**
+     * Continues improving the path between start and destination until it is optimal or the
+     * budget runs out.
+     *
+     * @param start Starting node
+     * @param destination Ending node
+     * @param budget Most work this call may do
+     * @return Best path found so far, or null if there is none or none has been found yet. Use
+     *         isFinished to tell the two apart.
+     */
+    public synchronized List<T> findPath (T start, T destination, SearchBudget budget)
+            throws InvalidCostException {
+        myExpandedNodes = 0;
+        myGeneratedNodes = 0;
+        myReopenedNodes = 0;
+        myPeakFrontierSize = myOpen.size();
+        long startTime = System.nanoTime();
+        if (!canReach(start, destination)) {
+            reset();
+            mySolutionEpsilon = Double.POSITIVE_INFINITY;
+            myFinished = true;
+            return reportSearch(getSearchListener(), startTime, null, 0, 0, 0, 0);
+        }
+        if (myStart == null || !myStart.equals(start) || !myDestination.equals(destination)) {
+            initialize(start, destination);
+        }
+        while (!myFinished) {
+            if (!improvePath(budget, startTime)) {
+                break;
+            }
+            finishPass();
+        }
+        List<T> path = mySolution == null ? null : new ArrayList<>(mySolution);
+        return reportSearch(getSearchListener(), startTime, path, myExpandedNodes,
+                            myGeneratedNodes, myPeakFrontierSize, myReopenedNodes);
+    }
+
+    /**
+     * @return Bound on how many times the least cost the returned path may cost: 1 once the path
+     *         is optimal, and infinity while no path has been found.
+     */
+    public synchronized double getSolutionEpsilon () {
+        return mySolutionEpsilon;
+    }
+
+    /**
+     * @return Whether the last search can improve no further, either because its path is optimal
+     *         or because no path exists.
+     */
+    public synchronized boolean isFinished () {
+        return myFinished;
+    }
+
+    /**
+     * @return Number of nodes expanded by the last call to findPath.
+     */
+    public synchronized int getExpandedNodeCount () {
+        return myExpandedNodes;
+    }
+
+    /**
+     * Discards the kept search, so the next call starts over. Must be called after the map
+     * changes.
+     */
+    public synchronized void reset () {
+        myStart = null;
+        myDestination = null;
+        mySolution = null;
+        myIds.clear();
+        myOpen.clear();
+    }
+
+    private void initialize (T start, T destination) {
+        reset();
+        myStart = start;
+        myDestination = destination;
+        myEpsilon = myInitialEpsilon;
+        mySolutionEpsilon = Double.POSITIVE_INFINITY;
+        myFinished = false;
+        myPass = 1;
+        myInconsistentCount = 0;
+        int startId = getId(start);
+        myDestinationId = getId(destination);
+        myScores[startId] = 0;
+        myOpen.offer(startId, getFValue(startId));
+        countGeneration();
+    }
+
+    /**
+     * Expands nodes until no open node can lead to a cheaper path to the destination under the
+     * current weight.
+     *
+     * @return Whether the pass finished before the budget ran out.
+     */
+    private boolean improvePath (SearchBudget budget, long startTime) {
+        while (!myOpen.isEmpty() &&
+               myScores[myDestinationId] > myOpen.getKey(myOpen.peek())) {
+            if (budget.isExhausted(myExpandedNodes, System.nanoTime() - startTime)) {
+                return false;
+            }
+            int id = myOpen.poll();
+            myClosedPasses[id] = myPass;
+            myExpandedNodes++;
+            T node = myIds.getNode(id);
+            for (T neighbor : getNeighbors(node)) {
+                int neighborId = getId(neighbor);
+                double gScore = myScores[id] + getCheckedCost(node, neighbor);
+                if (gScore >= myScores[neighborId]) {
+                    continue;
+                }
+                myScores[neighborId] = gScore;
+                myParents[neighborId] = id;
+                if (myClosedPasses[neighborId] != myPass) {
+                    myOpen.offer(neighborId, getFValue(neighborId));
+                    countGeneration();
+                }
+                else if (!myInconsistent[neighborId]) {
+                    addInconsistent(neighborId);
+                    myReopenedNodes++;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records the pass's path, lowers the weight and prepares the next pass: nodes improved after
+     * they were closed are reopened, and every open node is queued under the new weight.
+     */
+    private void finishPass () {
+        if (myScores[myDestinationId] < Double.POSITIVE_INFINITY) {
+            mySolution = buildPath(myDestinationId);
+            mySolutionEpsilon = myEpsilon;
+        }
+        if (mySolution == null || myEpsilon == 1) {
+            myFinished = true;
+            myOpen.clear();
+            return;
+        }
+        myEpsilon = Math.max(1, myEpsilon - myEpsilonStep);
+        int[] openIds = new int[myOpen.size() + myInconsistentCount];
+        int count = 0;
+        while (!myOpen.isEmpty()) {
+            openIds[count++] = myOpen.poll();
+        }
+        for (int i = 0; i < myInconsistentCount; i++) {
+            int id = myInconsistentIds[i];
+            myInconsistent[id] = false;
+            openIds[count++] = id;
+        }
+        myInconsistentCount = 0;
+        for (int i = 0; i < count; i++) {
+            myOpen.offer(openIds[i], getFValue(openIds[i]));
+        }
+        myPass++;
+    }
+
+    private void countGeneration () {
+        myGeneratedNodes++;
+        myPeakFrontierSize = Math.max(myPeakFrontierSize, myOpen.size() + myInconsistentCount);
+    }
+
+    private double getFValue (int id) {
+        return myScores[id] + myEpsilon * myHeuristics[id];
+    }
+
+    private void addInconsistent (int id) {
+        if (myInconsistentCount == myInconsistentIds.length) {
+            myInconsistentIds = Arrays.copyOf(myInconsistentIds, myInconsistentCount * 2);
+        }
+        myInconsistentIds[myInconsistentCount++] = id;
+        myInconsistent[id] = true;
+    }
+
+    private List<T> buildPath (int id) {
+        List<T> path = new ArrayList<>();
+        for (int current = id; current != NO_PARENT; current = myParents[current]) {
+            path.add(myIds.getNode(current));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private int getId (T node) {
+        int knownNodes = myIds.size();
+        int id = myIds.getId(node);
+        if (id == knownNodes) {
+            if (id == myScores.length) {
+                int newLength = id * 2;
+                myScores = Arrays.copyOf(myScores, newLength);
+                myHeuristics = Arrays.copyOf(myHeuristics, newLength);
+                myParents = Arrays.copyOf(myParents, newLength);
+                myClosedPasses = Arrays.copyOf(myClosedPasses, newLength);
+                myInconsistent = Arrays.copyOf(myInconsistent, newLength);
+            }
+            myScores[id] = Double.POSITIVE_INFINITY;
+            myHeuristics[id] = getCheckedHeuristicValue(node, myDestination);
+            myParents[id] = NO_PARENT;
+            myClosedPasses[id] = 0;
+            myInconsistent[id] = false;
+        }
+        return id;
+    }
+}
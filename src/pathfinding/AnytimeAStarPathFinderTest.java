@@ -0,0 +1,173 @@
+package pathfinding;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import pathfinding.example.LinkedNode;
+import pathfinding.example.LinkedNodeAStarFinder;
+
+
+/**
+ * Checks weighted and anytime searches against the least cost paths of AStarPathFinder on a map
+ * with random walls, where greedy searches take detours.
+ */
+public class AnytimeAStarPathFinderTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    public void testWeightedPathsWithinBound () {
+        Random rand = new Random(23);
+        List<LinkedNode> nodes = createWalledMap(60, 60, 0.3, rand);
+        LinkedNodeAStarFinder finder = new LinkedNodeAStarFinder();
+        IWeightedPathFinder<LinkedNode> weightedFinder = new TestIndexedAStarFinder<>(finder);
+        for (int i = 0; i < 50; i++) {
+            LinkedNode start = nodes.get(rand.nextInt(nodes.size()));
+            LinkedNode destination = nodes.get(rand.nextInt(nodes.size()));
+            List<LinkedNode> expected = finder.findPath(start, destination);
+            if (expected == null) {
+                assertNull(weightedFinder.findPath(start, destination, 2.5));
+                continue;
+            }
+            double leastCost = pathCost(finder, expected);
+            assertEquals(leastCost,
+                         pathCost(finder, weightedFinder.findPath(start, destination, 1)),
+                         TOLERANCE);
+            for (double epsilon : new double[] { 1.5, 2.5 }) {
+                List<LinkedNode> result = weightedFinder.findPath(start, destination, epsilon);
+                checkPath(start, destination, result);
+                assertTrue(pathCost(finder, result) <= epsilon * leastCost + TOLERANCE);
+            }
+        }
+    }
+
+    @Test
+    public void testRejectsDeflatedHeuristic () {
+        LinkedNode node = new LinkedNode(0, 0);
+        try {
+            new TestIndexedAStarFinder<>(new LinkedNodeAStarFinder()).findPath(node, node, 0.5);
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("0.5"));
+        }
+    }
+
+    @Test
+    public void testAnytimePathsImproveToOptimal () {
+        Random rand = new Random(29);
+        List<LinkedNode> nodes = createWalledMap(60, 60, 0.3, rand);
+        LinkedNodeAStarFinder finder = new LinkedNodeAStarFinder();
+        TestAnytimeFinder anytimeFinder = new TestAnytimeFinder(finder);
+        SearchBudget budget = SearchBudget.ofExpansions(50);
+        for (int i = 0; i < 30; i++) {
+            LinkedNode start = nodes.get(rand.nextInt(nodes.size()));
+            LinkedNode destination = nodes.get(rand.nextInt(nodes.size()));
+            List<LinkedNode> expected = finder.findPath(start, destination);
+            double leastCost = expected == null ? 0 : pathCost(finder, expected);
+            double lastCost = Double.POSITIVE_INFINITY;
+            List<LinkedNode> result = null;
+            do {
+                result = anytimeFinder.findPath(start, destination, budget);
+                assertTrue(anytimeFinder.getExpandedNodeCount() <= 50);
+                if (result != null) {
+                    checkPath(start, destination, result);
+                    double cost = pathCost(finder, result);
+                    assertTrue(cost <= lastCost);
+                    assertTrue(cost <= anytimeFinder.getSolutionEpsilon() * leastCost + TOLERANCE);
+                    lastCost = cost;
+                }
+            }
+            while (!anytimeFinder.isFinished());
+            if (expected == null) {
+                assertNull(result);
+                continue;
+            }
+            assertEquals(1, anytimeFinder.getSolutionEpsilon(), 0);
+            assertEquals(leastCost, lastCost, TOLERANCE);
+            anytimeFinder.reset();
+            List<LinkedNode> unbudgeted = anytimeFinder.findPath(start, destination);
+            assertEquals(leastCost, pathCost(finder, unbudgeted), TOLERANCE);
+        }
+    }
+
+    /**
+     * Grid of two-way links between adjacent nodes, leaving out the given share of nodes as walls.
+     */
+    private static List<LinkedNode> createWalledMap (int xMax, int yMax, double wallShare,
+                                                     Random rand) {
+        LinkedNode[][] grid = new LinkedNode[xMax][yMax];
+        List<LinkedNode> nodes = new ArrayList<>();
+        for (int i = 0; i < xMax; i++) {
+            for (int j = 0; j < yMax; j++) {
+                if (rand.nextDouble() >= wallShare) {
+                    grid[i][j] = new LinkedNode(i, j);
+                    nodes.add(grid[i][j]);
+                }
+            }
+        }
+        for (int i = 0; i < xMax; i++) {
+            for (int j = 0; j < yMax; j++) {
+                if (grid[i][j] == null) {
+                    continue;
+                }
+                if (i + 1 < xMax && grid[i + 1][j] != null) {
+                    grid[i][j].addNeighbor(grid[i + 1][j]);
+                    grid[i + 1][j].addNeighbor(grid[i][j]);
+                }
+                if (j + 1 < yMax && grid[i][j + 1] != null) {
+                    grid[i][j].addNeighbor(grid[i][j + 1]);
+                    grid[i][j + 1].addNeighbor(grid[i][j]);
+                }
+            }
+        }
+        return nodes;
+    }
+
+    private static void checkPath (LinkedNode start, LinkedNode destination,
+                                   List<LinkedNode> path) {
+        assertEquals(start, path.get(0));
+        assertEquals(destination, path.get(path.size() - 1));
+        for (int i = 1; i < path.size(); i++) {
+            assertTrue(path.get(i - 1).getNeighbors().contains(path.get(i)));
+        }
+    }
+
+    private static double pathCost (LinkedNodeAStarFinder finder, List<LinkedNode> path) {
+        double cost = 0;
+        for (int i = 1; i < path.size(); i++) {
+            cost += finder.getCost(path.get(i - 1), path.get(i)).doubleValue();
+        }
+        return cost;
+    }
+
+    private static class TestAnytimeFinder extends AnytimeAStarPathFinder<LinkedNode> {
+        private LinkedNodeAStarFinder myHooks;
+
+        public TestAnytimeFinder (LinkedNodeAStarFinder hooks) {
+            myHooks = hooks;
+        }
+
+        @Override
+        public Number getCost (LinkedNode beginningNode, LinkedNode endingNode) {
+            return myHooks.getCost(beginningNode, endingNode);
+        }
+
+        @Override
+        public Iterable<LinkedNode> getNeighbors (LinkedNode node) {
+            return node.getNeighbors();
+        }
+
+        @Override
+        public Number getHeuristicValue (LinkedNode node, LinkedNode destination) {
+            return myHooks.getHeuristicValue(node, destination);
+        }
+
+        @Override
+        public int breakTie (LinkedNode node, LinkedNode other) {
+            return myHooks.breakTie(node, other);
+        }
+    }
+}
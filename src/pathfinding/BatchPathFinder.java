@@ -0,0 +1,163 @@
+package pathfinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * Runs many path queries against one IPathFinder in parallel, for example all the units that
+ * need a path on a given tick. On a ForkJoinPool the batch is split recursively so idle workers
+ * can steal halves of it; on any other ExecutorService (such as a virtual-thread-per-task
+ * executor) it is cut into contiguous chunks. Either way results come back in request order.
+ *
+ * The finder is called from several threads at once, so its hooks must be safe to call
+ * concurrently. Queries to an IndexedAStarPathFinder go through its findPath overload that takes
+ * a SearchWorkspace, with a workspace taken from a pool kept by the batch finder and given back
+ * when the task ends, so workspaces are reused on any executor, even one that starts a new
+ * thread for every task. Other finders, GridPathFinder among them, keep their search storage
+ * per thread; on such an executor every task allocates its own.
+ *
+ * @param <T> Any object type.
+ */
+public class BatchPathFinder<T> {
+
+    private static final int DEFAULT_REQUESTS_PER_TASK = 4;
+
+    private final IPathFinder<T> myFinder;
+    private final IndexedAStarPathFinder<T> myIndexedFinder;
+    private final ExecutorService myExecutor;
+    private final int myRequestsPerTask;
+    private final Queue<SearchWorkspace<T>> myWorkspaces = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a batch finder that runs on the common ForkJoinPool.
+     */
+    public BatchPathFinder (IPathFinder<T> finder) {
+        this(finder, ForkJoinPool.commonPool(), DEFAULT_REQUESTS_PER_TASK);
+    }
+
+    /**
+     * @param finder Finder that answers each query
+     * @param executor Executor to run the queries on
+     * @param requestsPerTask Most queries a single task answers before the batch is split further
+     */
+    public BatchPathFinder (IPathFinder<T> finder, ExecutorService executor, int requestsPerTask) {
+        if (requestsPerTask < 1) {
+            throw new IllegalArgumentException("Each task must answer at least one request");
+        }
+        myFinder = finder;
+        myIndexedFinder = finder instanceof IndexedAStarPathFinder ?
+                          (IndexedAStarPathFinder<T>) finder : null;
+        myExecutor = executor;
+        myRequestsPerTask = requestsPerTask;
+    }
+
+    /**
+     * Finds a path for every request.
+     *
+     * @param requests Queries to answer
+     * @return Paths in the same order as the requests; an entry is null when its destination
+     *         cannot be reached
+     * @throws CancellationException If the calling thread is interrupted while waiting
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public List<List<T>> findPaths (List<PathRequest<T>> requests) {
+        List<T>[] results = new List[requests.size()];
+        if (myExecutor instanceof ForkJoinPool) {
+            ((ForkJoinPool) myExecutor).invoke(new BatchTask(requests, results, 0, results.length));
+        }
+        else {
+            runInChunks(requests, results);
+        }
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    private void runInChunks (List<PathRequest<T>> requests, List<T>[] results) {
+        List<Callable<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < results.length; from += myRequestsPerTask) {
+            final int chunkStart = from;
+            final int chunkEnd = Math.min(from + myRequestsPerTask, results.length);
+            chunks.add(new Callable<Void>() {
+                @Override
+                public Void call () {
+                    answer(requests, results, chunkStart, chunkEnd);
+                    return null;
+                }
+            });
+        }
+        try {
+            for (Future<Void> future : myExecutor.invokeAll(chunks)) {
+                future.get();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for paths");
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) { throw (RuntimeException) e.getCause(); }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void answer (List<PathRequest<T>> requests, List<T>[] results, int from, int to) {
+        if (myIndexedFinder == null) {
+            for (int i = from; i < to; i++) {
+                PathRequest<T> request = requests.get(i);
+                results[i] = myFinder.findPath(request.getStart(), request.getDestination());
+            }
+            return;
+        }
+        SearchWorkspace<T> workspace = myWorkspaces.poll();
+        if (workspace == null) {
+            workspace = new SearchWorkspace<>();
+        }
+        try {
+            for (int i = from; i < to; i++) {
+                PathRequest<T> request = requests.get(i);
+                results[i] = myIndexedFinder.findPath(request.getStart(),
+                                                      request.getDestination(), workspace);
+            }
+        }
+        finally {
+            myWorkspaces.add(workspace);
+        }
+    }
+
+    private class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<PathRequest<T>> myRequests;
+        private final List<T>[] myResults;
+        private final int myFrom;
+        private final int myTo;
+
+        public BatchTask (List<PathRequest<T>> requests, List<T>[] results, int from, int to) {
+            myRequests = requests;
+            myResults = results;
+            myFrom = from;
+            myTo = to;
+        }
+
+        @Override
+        protected void compute () {
+            if (myTo - myFrom <= myRequestsPerTask) {
+                answer(myRequests, myResults, myFrom, myTo);
+                return;
+            }
+            int middle = (myFrom + myTo) >>> 1;
+            invokeAll(new BatchTask(myRequests, myResults, myFrom, middle),
+                      new BatchTask(myRequests, myResults, middle, myTo));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package pathfinding;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Test;
+
+
+/**
+ * Checks that batches of searches return the same paths as running them one at a time.
+ */
+public class BatchPathFinderTest {
+
+    @Test
+    public void testBatchMatchesSerialSearches () {
+        int xMax = 50;
+        int yMax = 39;
+        TestNode[][] nodeMap = TestNode.createNodeMap(xMax, yMax);
+        TestIndexedAStarFinder<TestNode> finder =
+                new TestIndexedAStarFinder<>(new TestAStarFinder(nodeMap));
+        Random rand = new Random();
+        List<PathRequest<TestNode>> requests = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            requests.add(new PathRequest<>(nodeMap[rand.nextInt(xMax)][rand.nextInt(yMax)],
+                                           nodeMap[rand.nextInt(xMax)][rand.nextInt(yMax)]));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<List<TestNode>> forkJoinPaths =
+                    new BatchPathFinder<>(finder).findPaths(requests);
+            List<List<TestNode>> pooledPaths =
+                    new BatchPathFinder<>(finder, pool, 3).findPaths(requests);
+            for (int i = 0; i < requests.size(); i++) {
+                PathRequest<TestNode> request = requests.get(i);
+                List<TestNode> expected = finder.findPath(request.getStart(),
+                                                          request.getDestination());
+                assertEquals(expected, forkJoinPaths.get(i));
+                assertEquals(expected, pooledPaths.get(i));
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package pathfinding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * A* path finder that searches forwards from the start and backwards from the destination at the
+ * same time, always advancing the side with the smaller frontier, and stops once no path through
+ * the unexplored part of the map can beat the best meeting found so far. On large maps where a
+ * single search would grow one wide frontier around the start, the two frontiers usually meet
+ * after far fewer expansions.
+ *
+ * Both searches share one potential, the average of the forward estimate
+ * getHeuristicValue(node, destination) and the negated backward estimate
+ * getHeuristicValue(start, node). This keeps the two searches consistent with each other, so the
+ * first meeting that passes the stopping test is a least cost path. Both estimates must be
+ * consistent. The backward search follows getPredecessors, which must be overridden for maps with
+ * one-way moves.
+ *
+ * Like IndexedAStarPathFinder, search storage is kept per thread and reused between searches.
+ * Paths have the least cost but may differ from AStarPathFinder's where several paths tie.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public abstract class BidirectionalAStarPathFinder<T> extends AStarPathFinder<T> {
+
+    private final ThreadLocal<Search<T>> mySearches = new ThreadLocal<Search<T>>() {
+        @Override
+        protected Search<T> initialValue () {
+            return new Search<>();
+        }
+    };
+
+    /**
+     * @return Number of nodes taken off either frontier during the calling thread's last search.
+     */
+    public int getExpandedNodeCount () {
+        return mySearches.get().myExpandedNodes;
+    }
+
+    @Override
+    public List<T> findPath (T start, T destination) throws InvalidCostException {
+        Search<T> search = mySearches.get();
+        search.myForward.reset(this);
+        search.myReverse.reset(this);
+        search.myExpandedNodes = 0;
+        search.myPeakFrontierSize = 0;
+        search.myBestCost = Double.POSITIVE_INFINITY;
+        search.myMeetingNode = null;
+        search.myStart = start;
+        search.myDestination = destination;
+        ISearchListener listener = getSearchListener();
+        long startTime = listener == null ? 0 : System.nanoTime();
+        if (isDestination(start, destination)) {
+            List<T> path = new ArrayList<>();
+            path.add(start);
+            return reportSearch(listener, startTime, path, 0, 1, 1, 0);
+        }
+        if (!canReach(start, destination)) {
+            return reportSearch(listener, startTime, null, 0, 0, 0, 0);
+        }
+
+        IndexedMinHeap forwardFrontier = search.myForward.getFrontier();
+        IndexedMinHeap reverseFrontier = search.myReverse.getFrontier();
+        int startId = search.myForward.getId(start);
+        search.myForward.discover(startId, 0, SearchWorkspace.NO_PARENT);
+        forwardFrontier.offer(startId, getPotential(search, start));
+        int destinationId = search.myReverse.getId(destination);
+        search.myReverse.discover(destinationId, 0, SearchWorkspace.NO_PARENT);
+        reverseFrontier.offer(destinationId, -getPotential(search, destination));
+        search.myPeakFrontierSize = 2;
+
+        while (!forwardFrontier.isEmpty() && !reverseFrontier.isEmpty()) {
+            double bound = forwardFrontier.getKey(forwardFrontier.peek()) +
+                           reverseFrontier.getKey(reverseFrontier.peek());
+            if (bound >= search.myBestCost) {
+                break;
+            }
+            if (forwardFrontier.size() <= reverseFrontier.size()) {
+                expand(search, search.myForward, search.myReverse, true);
+            }
+            else {
+                expand(search, search.myReverse, search.myForward, false);
+            }
+        }
+        List<T> path = search.myMeetingNode == null ? null : buildPath(search);
+        if (listener == null) { return path; }
+        long generatedNodes = search.myForward.getGeneratedNodeCount() +
+                              search.myReverse.getGeneratedNodeCount() + 2;
+        return reportSearch(listener, startTime, path, search.myExpandedNodes, generatedNodes,
+                            search.myPeakFrontierSize, 0);
+    }
+
+    /**
+     * Expands the best node of one side. Keys on the forward side are g plus the potential and on
+     * the reverse side g minus it, so the sum of the two smallest keys bounds the cost of any
+     * path not yet found.
+     */
+    private void expand (Search<T> search, SearchWorkspace<T> side, SearchWorkspace<T> otherSide,
+                         boolean forward) {
+        int id = side.getFrontier().poll();
+        side.close(id);
+        search.myExpandedNodes++;
+        T node = side.getNode(id);
+        double valueSoFar = side.getScore(id);
+        Iterable<T> nextNodes = forward ? getNeighbors(node) : getPredecessors(node);
+        for (T nextNode : nextNodes) {
+            int nextId = side.getId(nextNode);
+            if (side.isClosed(nextId)) {
+                continue;
+            }
+            double traversalCost = forward ? getCheckedCost(node, nextNode)
+                                           : getCheckedCost(nextNode, node);
+            double gScore = valueSoFar + traversalCost;
+            if (side.isDiscovered(nextId) && gScore >= side.getScore(nextId)) {
+                continue;
+            }
+            side.discover(nextId, gScore, id);
+            double potential = getPotential(search, nextNode);
+            side.getFrontier().offer(nextId, forward ? gScore + potential : gScore - potential);
+            side.countGeneration();
+            search.myPeakFrontierSize =
+                    Math.max(search.myPeakFrontierSize,
+                             side.getFrontier().size() + otherSide.getFrontier().size());
+            int otherId = otherSide.findId(nextNode);
+            if (otherId != NodeIndexer.ABSENT && otherSide.isDiscovered(otherId)) {
+                double pathCost = gScore + otherSide.getScore(otherId);
+                if (pathCost < search.myBestCost) {
+                    search.myBestCost = pathCost;
+                    search.myMeetingNode = nextNode;
+                }
+            }
+        }
+    }
+
+    private double getPotential (Search<T> search, T node) {
+        double toDestination = getCheckedHeuristicValue(node, search.myDestination);
+        double fromStart = getCheckedHeuristicValue(search.myStart, node);
+        return (toDestination - fromStart) / 2;
+    }
+
+    private List<T> buildPath (Search<T> search) {
+        T meetingNode = search.myMeetingNode;
+        List<T> path = search.myForward.buildPath(search.myForward.findId(meetingNode));
+        List<T> rest = search.myReverse.buildPath(search.myReverse.findId(meetingNode));
+        Collections.reverse(rest);
+        path.addAll(rest.subList(1, rest.size()));
+        return path;
+    }
+
+    /**
+     * Storage for both sides of one thread's searches.
+     */
+    private static class Search<T> {
+        private final SearchWorkspace<T> myForward = new SearchWorkspace<>();
+        private final SearchWorkspace<T> myReverse = new SearchWorkspace<>();
+        private T myStart;
+        private T myDestination;
+        private double myBestCost;
+        private T myMeetingNode;
+        private int myExpandedNodes;
+        private int myPeakFrontierSize;
+    }
+}
@@ -0,0 +1,190 @@
+package pathfinding;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import pathfinding.example.LinkedNode;
+import pathfinding.example.LinkedNodeAStarFinder;
+
+
+/**
+ * Checks bidirectional searches against AStarPathFinder on a road-like map with one-way streets.
+ */
+public class BidirectionalAStarPathFinderTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    public void testMatchesAStarWithOneWayMoves () {
+        runQueries(new CountingAStarFinder(true), new Random(17));
+    }
+
+    @Test
+    public void testFewerExpansionsWithoutHeuristic () {
+        CountingAStarFinder finder = new CountingAStarFinder(false);
+        long[] expansions = runQueries(finder, new Random(19));
+        assertTrue(expansions[1] < expansions[0] * 0.8);
+    }
+
+    @Test
+    public void testConnectivityIndexSkipsSearch () {
+        LinkedNode start = new LinkedNode(0, 0);
+        LinkedNode destination = new LinkedNode(3, 0);
+        link(start, new LinkedNode(1, 0));
+        link(destination, new LinkedNode(2, 0));
+        TestBidirectionalFinder finder =
+                new TestBidirectionalFinder(new CountingAStarFinder(true));
+        assertNull(finder.findPath(start, destination));
+        assertTrue(finder.getExpandedNodeCount() > 0);
+        List<LinkedNode> seeds = new ArrayList<>();
+        seeds.add(start);
+        seeds.add(destination);
+        finder.setConnectivityIndex(new ConnectivityIndex<>(finder, seeds));
+        assertNull(finder.findPath(start, destination));
+        assertEquals(0, finder.getExpandedNodeCount());
+    }
+
+    /**
+     * Runs random queries with both finders, checking that the paths cost the same.
+     *
+     * @return Total expansions of the forward finder and of the bidirectional finder
+     */
+    private long[] runQueries (CountingAStarFinder finder, Random rand) {
+        List<LinkedNode> nodes = createOneWayMap(70, 70, 0.3, rand);
+        TestBidirectionalFinder bidirectionalFinder = new TestBidirectionalFinder(finder);
+        long[] expansions = new long[2];
+        for (int i = 0; i < 100; i++) {
+            LinkedNode start = nodes.get(rand.nextInt(nodes.size()));
+            LinkedNode destination = nodes.get(rand.nextInt(nodes.size()));
+            finder.myExpandedNodes = 0;
+            List<LinkedNode> expected = finder.findPath(start, destination);
+            List<LinkedNode> result = bidirectionalFinder.findPath(start, destination);
+            if (expected == null) {
+                assertNull(result);
+                continue;
+            }
+            expansions[0] += finder.myExpandedNodes;
+            expansions[1] += bidirectionalFinder.getExpandedNodeCount();
+            assertEquals(start, result.get(0));
+            assertEquals(destination, result.get(result.size() - 1));
+            for (int j = 1; j < result.size(); j++) {
+                assertTrue(result.get(j - 1).getNeighbors().contains(result.get(j)));
+            }
+            assertEquals(pathCost(finder, expected), pathCost(finder, result), TOLERANCE);
+        }
+        return expansions;
+    }
+
+    /**
+     * Grid of nodes where each street between adjacent nodes is one-way with the given
+     * probability, in a random direction, and two-way otherwise.
+     */
+    private static List<LinkedNode> createOneWayMap (int xMax, int yMax, double oneWayShare,
+                                                     Random rand) {
+        LinkedNode[][] grid = new LinkedNode[xMax][yMax];
+        List<LinkedNode> nodes = new ArrayList<>();
+        for (int i = 0; i < xMax; i++) {
+            for (int j = 0; j < yMax; j++) {
+                grid[i][j] = new LinkedNode(i, j);
+                nodes.add(grid[i][j]);
+            }
+        }
+        for (int i = 0; i < xMax; i++) {
+            for (int j = 0; j < yMax; j++) {
+                if (i + 1 < xMax) {
+                    connect(grid[i][j], grid[i + 1][j], oneWayShare, rand);
+                }
+                if (j + 1 < yMax) {
+                    connect(grid[i][j], grid[i][j + 1], oneWayShare, rand);
+                }
+            }
+        }
+        return nodes;
+    }
+
+    private static void connect (LinkedNode node, LinkedNode other, double oneWayShare,
+                                 Random rand) {
+        if (rand.nextDouble() >= oneWayShare) {
+            node.addNeighbor(other);
+            other.addNeighbor(node);
+        }
+        else if (rand.nextBoolean()) {
+            node.addNeighbor(other);
+        }
+        else {
+            other.addNeighbor(node);
+        }
+    }
+
+    private static void link (LinkedNode node, LinkedNode other) {
+        node.addNeighbor(other);
+        other.addNeighbor(node);
+    }
+
+    private static double pathCost (LinkedNodeAStarFinder finder, List<LinkedNode> path) {
+        double cost = 0;
+        for (int i = 1; i < path.size(); i++) {
+            cost += finder.getCost(path.get(i - 1), path.get(i)).doubleValue();
+        }
+        return cost;
+    }
+
+    /**
+     * Counts expansions through the neighbor hook, which AStarPathFinder calls once per node.
+     * Without the heuristic, both finders run Dijkstra's algorithm.
+     */
+    private static class CountingAStarFinder extends LinkedNodeAStarFinder {
+        private boolean myUsesHeuristic;
+        private int myExpandedNodes;
+
+        public CountingAStarFinder (boolean usesHeuristic) {
+            myUsesHeuristic = usesHeuristic;
+        }
+
+        @Override
+        public Number getHeuristicValue (LinkedNode node, LinkedNode destination) {
+            return myUsesHeuristic ? super.getHeuristicValue(node, destination) : 0;
+        }
+
+        @Override
+        public Iterable<LinkedNode> getNeighbors (LinkedNode node) {
+            myExpandedNodes++;
+            return super.getNeighbors(node);
+        }
+    }
+
+    private static class TestBidirectionalFinder extends BidirectionalAStarPathFinder<LinkedNode> {
+        private LinkedNodeAStarFinder myHooks;
+
+        public TestBidirectionalFinder (LinkedNodeAStarFinder hooks) {
+            myHooks = hooks;
+        }
+
+        @Override
+        public Number getCost (LinkedNode beginningNode, LinkedNode endingNode) {
+            return myHooks.getCost(beginningNode, endingNode);
+        }
+
+        @Override
+        public Iterable<LinkedNode> getNeighbors (LinkedNode node) {
+            return node.getNeighbors();
+        }
+
+        @Override
+        public Iterable<LinkedNode> getPredecessors (LinkedNode node) {
+            return node.getPredecessors();
+        }
+
+        @Override
+        public Number getHeuristicValue (LinkedNode node, LinkedNode destination) {
+            return myHooks.getHeuristicValue(node, destination);
+        }
+
+        @Override
+        public int breakTie (LinkedNode node, LinkedNode other) {
+            return myHooks.breakTie(node, other);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package pathfinding;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Remembers the paths another IPathFinder returns so repeated queries are answered without
+ * searching. Since every suffix of a least cost path is itself a least cost path, a cached path
+ * also answers queries that start anywhere along it and head to the same destination.
+ *
+ * The cache is bounded by its weight, the total number of nodes in the cached paths, and evicts
+ * the least recently used paths first. When a map version is supplied, every cached path is
+ * dropped as soon as the version changes. Queries that find no path are cached too, with a
+ * weight of one.
+ *
+ * Callers get their own copy of each path. A path answered from a suffix has the same cost as
+ * the one the wrapped finder would return but may differ from it where several paths tie. All
+ * methods may be called from several threads; searches run outside the cache's lock.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public class CachingPathFinder<T> implements IPathFinder<T> {
+
+    private static final long DEFAULT_MAX_WEIGHT = 100000;
+
+    private final IPathFinder<T> myFinder;
+    private final IMapVersion myMapVersion;
+    private final long myMaxWeight;
+    private final LinkedHashMap<PathRequest<T>, CachedPath<T>> myPaths =
+            new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<T, Map<T, SuffixStart<T>>> mySuffixIndex = new HashMap<>();
+    private long myWeight;
+    private long myVersion;
+    private long myHits;
+    private long mySuffixHits;
+    private long myMisses;
+    private long myEvictions;
+
+    /**
+     * Creates a cache that is never invalidated, for maps that do not change.
+     */
+    public CachingPathFinder (IPathFinder<T> finder) {
+        this(finder, null, DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * @param finder Finder that answers queries the cache cannot
+     * @param mapVersion Version of the map, or null if it never changes
+     * @param maxWeight Most nodes the cached paths may hold in total
+     */
+    public CachingPathFinder (IPathFinder<T> finder, IMapVersion mapVersion, long maxWeight) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Cache weight must be positive");
+        }
+        myFinder = finder;
+        myMapVersion = mapVersion;
+        myMaxWeight = maxWeight;
+        myVersion = getCurrentVersion();
+    }
+
+    @Override
+    public List<T> findPath (T start, T destination) {
+        PathRequest<T> request = new PathRequest<>(start, destination);
+        long version;
+        synchronized (this) {
+            invalidateIfChanged();
+            CachedPath<T> cached = myPaths.get(request);
+            if (cached != null) {
+                myHits++;
+                return cached.copyFrom(0);
+            }
+            Map<T, SuffixStart<T>> suffixes = mySuffixIndex.get(destination);
+            SuffixStart<T> suffix = suffixes == null ? null : suffixes.get(start);
+            if (suffix != null) {
+                mySuffixHits++;
+                myPaths.get(suffix.myPath.myRequest);
+                return suffix.myPath.copyFrom(suffix.myPosition);
+            }
+            myMisses++;
+            version = myVersion;
+        }
+        List<T> path = myFinder.findPath(start, destination);
+        synchronized (this) {
+            invalidateIfChanged();
+            if (version == myVersion && !myPaths.containsKey(request)) {
+                store(new CachedPath<>(request, path));
+            }
+        }
+        return path == null ? null : new ArrayList<>(path);
+    }
+
+    /**
+     * Drops every cached path. The counters are kept.
+     */
+    public synchronized void clear () {
+        myPaths.clear();
+        mySuffixIndex.clear();
+        myWeight = 0;
+    }
+
+    /**
+     * @return Number of queries answered with a path cached for the same start and destination.
+     */
+    public synchronized long getHitCount () {
+        return myHits;
+    }
+
+    /**
+     * @return Number of queries answered with the suffix of a path cached for another start.
+     */
+    public synchronized long getSuffixHitCount () {
+        return mySuffixHits;
+    }
+
+    /**
+     * @return Number of queries passed on to the wrapped finder.
+     */
+    public synchronized long getMissCount () {
+        return myMisses;
+    }
+
+    /**
+     * @return Number of paths dropped to keep the cache within its weight.
+     */
+    public synchronized long getEvictionCount () {
+        return myEvictions;
+    }
+
+    /**
+     * @return Number of paths currently cached.
+     */
+    public synchronized int getSize () {
+        return myPaths.size();
+    }
+
+    /**
+     * @return Total number of nodes in the cached paths.
+     */
+    public synchronized long getWeight () {
+        return myWeight;
+    }
+
+    @Override
+    public Number getCost (T beginningNode, T endingNode) {
+        return myFinder.getCost(beginningNode, endingNode);
+    }
+
+    @Override
+    public Iterable<T> getNeighbors (T node) {
+        return myFinder.getNeighbors(node);
+    }
+
+    @Override
+    public Iterable<T> getPredecessors (T node) {
+        return myFinder.getPredecessors(node);
+    }
+
+    @Override
+    public boolean isDestination (T node, T destinationNode) {
+        return myFinder.isDestination(node, destinationNode);
+    }
+
+    @Override
+    public int breakTie (T node, T other) {
+        return myFinder.breakTie(node, other);
+    }
+
+    private long getCurrentVersion () {
+        return myMapVersion == null ? 0 : myMapVersion.getMapVersion();
+    }
+
+    private void invalidateIfChanged () {
+        long version = getCurrentVersion();
+        if (version != myVersion) {
+            clear();
+            myVersion = version;
+        }
+    }
+
+    private void store (CachedPath<T> cached) {
+        if (cached.getWeight() > myMaxWeight) { return; }
+        myPaths.put(cached.myRequest, cached);
+        myWeight += cached.getWeight();
+        if (cached.myPath != null && cached.myPath.size() > 1) {
+            T destination = cached.myRequest.getDestination();
+            Map<T, SuffixStart<T>> suffixes = mySuffixIndex.get(destination);
+            if (suffixes == null) {
+                suffixes = new HashMap<>();
+                mySuffixIndex.put(destination, suffixes);
+            }
+            for (int i = 0; i < cached.myPath.size() - 1; i++) {
+                T node = cached.myPath.get(i);
+                if (!suffixes.containsKey(node)) {
+                    suffixes.put(node, new SuffixStart<>(cached, i));
+                }
+            }
+        }
+        Iterator<CachedPath<T>> eldest = myPaths.values().iterator();
+        while (myWeight > myMaxWeight) {
+            CachedPath<T> evicted = eldest.next();
+            eldest.remove();
+            myWeight -= evicted.getWeight();
+            myEvictions++;
+            removeSuffixes(evicted);
+        }
+    }
+
+    private void removeSuffixes (CachedPath<T> evicted) {
+        if (evicted.myPath == null) { return; }
+        T destination = evicted.myRequest.getDestination();
+        Map<T, SuffixStart<T>> suffixes = mySuffixIndex.get(destination);
+        if (suffixes == null) { return; }
+        for (T node : evicted.myPath) {
+            SuffixStart<T> suffix = suffixes.get(node);
+            if (suffix != null && suffix.myPath == evicted) {
+                suffixes.remove(node);
+            }
+        }
+        if (suffixes.isEmpty()) {
+            mySuffixIndex.remove(destination);
+        }
+    }
+
+    private static class CachedPath<T> {
+        private final PathRequest<T> myRequest;
+        private final List<T> myPath;
+
+        public CachedPath (PathRequest<T> request, List<T> path) {
+            myRequest = request;
+            myPath = path == null ? null : new ArrayList<>(path);
+        }
+
+        public int getWeight () {
+            return myPath == null ? 1 : myPath.size();
+        }
+
+        public List<T> copyFrom (int position) {
+            return myPath == null ? null : new ArrayList<>(myPath.subList(position, myPath.size()));
+        }
+    }
+
+    /**
+     * Position of a node along a cached path, from which the rest of the path can be reused.
+     */
+    private static class SuffixStart<T> {
+        private final CachedPath<T> myPath;
+        private final int myPosition;
+
+        public SuffixStart (CachedPath<T> path, int position) {
+            myPath = path;
+            myPosition = position;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package pathfinding;
+
+import static org.junit.Assert.*;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+
+/**
+ * Checks cache hits, suffix hits, eviction by weight and invalidation when the map changes.
+ */
+public class CachingPathFinderTest {
+
+    @Test
+    public void testCachingFinderReusesPaths () {
+        int xMax = 50;
+        int yMax = 39;
+        TestNode[][] nodeMap = TestNode.createNodeMap(xMax, yMax);
+        TestAStarFinder finder = new TestAStarFinder(nodeMap);
+        MapVersion version = new MapVersion();
+        CachingPathFinder<TestNode> cache = new CachingPathFinder<>(finder, version, 200);
+        TestNode start = nodeMap[0][0];
+        TestNode destination = nodeMap[xMax - 1][yMax - 1];
+        List<TestNode> path = cache.findPath(start, destination);
+        assertEquals(path, cache.findPath(start, destination));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+
+        TestNode middle = path.get(path.size() / 2);
+        assertEquals(path.subList(path.size() / 2, path.size()),
+                     cache.findPath(middle, destination));
+        assertEquals(1, cache.getSuffixHitCount());
+
+        Random rand = new Random();
+        for (int i = 0; i < 20; i++) {
+            TestNode otherStart = nodeMap[rand.nextInt(xMax)][rand.nextInt(yMax)];
+            TestNode otherDestination = nodeMap[rand.nextInt(xMax)][rand.nextInt(yMax)];
+            assertEquals(finder.findPath(otherStart, otherDestination).size(),
+                         cache.findPath(otherStart, otherDestination).size());
+            assertTrue(cache.getWeight() <= 200);
+        }
+        assertTrue(cache.getEvictionCount() > 0);
+
+        version.increment();
+        long misses = cache.getMissCount();
+        cache.findPath(start, destination);
+        assertEquals(misses + 1, cache.getMissCount());
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    public void testCachingFinderEvictsSingleNodePaths () {
+        TestGraphFinder finder = new TestGraphFinder();
+        for (int i = 0; i < 60; i++) {
+            finder.link(i, i + 1);
+        }
+        CachingPathFinder<Integer> cache = new CachingPathFinder<>(finder, null, 4);
+        assertEquals(3, cache.findPath(0, 2).size());
+        assertEquals(1, cache.findPath(2, 2).size());
+        assertEquals(4, cache.findPath(50, 53).size());
+        assertEquals(1, cache.getSize());
+        assertEquals(4, cache.getWeight());
+        assertEquals(2, cache.getEvictionCount());
+        assertEquals(3, cache.findPath(51, 53).size());
+        assertEquals(1, cache.getSuffixHitCount());
+    }
+}
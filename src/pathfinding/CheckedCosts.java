@@ -0,0 +1,46 @@
+package pathfinding;
+
+/**
+ * Reads costs and heuristic values from a finder's hooks as doubles, rejecting values that are
+ * negative or not a number. When the finder implements IPrimitiveCosts, its primitive hooks are
+ * used instead of getCost and getHeuristicValue, so nothing is boxed per relaxed move. Searches
+ * and preprocessing passes over another finder's hooks should read costs through this class.
+ */
+public final class CheckedCosts {
+
+    private CheckedCosts () {
+    }
+
+    /**
+     * @return Cost of traveling from beginningNode to endingNode.
+     * @throws InvalidCostException If the cost is negative or not a number
+     */
+    public static <T> double getCost (IPathFinder<T> finder, T beginningNode, T endingNode)
+            throws InvalidCostException {
+        IPrimitiveCosts<T> primitiveCosts = asPrimitiveCosts(finder);
+        double cost = primitiveCosts != null ?
+                      primitiveCosts.getPrimitiveCost(beginningNode, endingNode) :
+                      finder.getCost(beginningNode, endingNode).doubleValue();
+        if (!(cost >= 0)) { throw new InvalidCostException(); }
+        return cost;
+    }
+
+    /**
+     * @return Heuristic value from node to destination.
+     * @throws InvalidCostException If the value is negative or not a number
+     */
+    public static <T> double getHeuristicValue (AStarPathFinder<T> finder, T node, T destination)
+            throws InvalidCostException {
+        IPrimitiveCosts<T> primitiveCosts = asPrimitiveCosts(finder);
+        double heuristicValue = primitiveCosts != null ?
+                                primitiveCosts.getPrimitiveHeuristicValue(node, destination) :
+                                finder.getHeuristicValue(node, destination).doubleValue();
+        if (!(heuristicValue >= 0)) { throw new InvalidCostException(); }
+        return heuristicValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> IPrimitiveCosts<T> asPrimitiveCosts (IPathFinder<T> finder) {
+        return finder instanceof IPrimitiveCosts ? (IPrimitiveCosts<T>) finder : null;
+    }
+}
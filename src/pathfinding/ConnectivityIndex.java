@@ -0,0 +1,226 @@
+package pathfinding;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Connected components of a map, so a path finder can reject a query whose destination is in
+ * another component in constant time instead of exhausting the start's whole component first.
+ * Edges are treated as two-way, so on maps with one-way moves the index can only tell that a
+ * destination is unreachable, never that it is reachable.
+ *
+ * Changes are tracked in a union-find structure, and after each one the component of every node
+ * is published as an immutable array. canReach only reads that array, without locking, so any
+ * number of searching threads can query the index while the map is being changed. The methods
+ * that change the index are synchronized and take time linear in the number of known nodes.
+ *
+ * Adding an edge merges two components immediately. Removing one may split a component, which
+ * union-find cannot undo, so removeEdge only marks the index stale. Until rebuild is called, the
+ * index answers as if the removed edges still existed, which never rejects a reachable
+ * destination. Callers choose when to pay for the rebuild, for example once after a batch of
+ * removals, off the thread that runs searches.
+ *
+ * To use with a finder, pass the index to AStarPathFinder.setConnectivityIndex and report every
+ * change to the map's edges to it, before the next search.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public class ConnectivityIndex<T> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final IPathFinder<T> myFinder;
+    private final List<T> myNodes = new ArrayList<>();
+    private final ConcurrentHashMap<T, Integer> myIds = new ConcurrentHashMap<>();
+    private int[] myParents = new int[INITIAL_CAPACITY];
+    private int[] mySizes = new int[INITIAL_CAPACITY];
+    private int myComponentCount;
+    private boolean myStale;
+    private volatile int[] myComponents = new int[0];
+
+    /**
+     * Creates an index that knows no nodes yet.
+     *
+     * @param finder Finder whose getNeighbors hook defines the map's edges
+     */
+    public ConnectivityIndex (IPathFinder<T> finder) {
+        myFinder = finder;
+    }
+
+    /**
+     * Creates an index over every node reachable from the given ones.
+     */
+    public ConnectivityIndex (IPathFinder<T> finder, Iterable<T> nodes) {
+        this(finder);
+        addNodes(nodes);
+    }
+
+    /**
+     * Adds the given nodes, every node reachable from them and every edge between them. Nodes
+     * the index already knows are not explored again.
+     */
+    public synchronized void addNodes (Iterable<T> nodes) {
+        Deque<Integer> open = new ArrayDeque<>();
+        for (T node : nodes) {
+            if (!myIds.containsKey(node)) {
+                open.add(add(node));
+            }
+        }
+        explore(open);
+        publish();
+    }
+
+    /**
+     * Records a new edge, adding its ends if they are not known yet.
+     */
+    public synchronized void addEdge (T node, T neighbor) {
+        int nodeCount = myNodes.size();
+        if (union(getOrAdd(node), getOrAdd(neighbor)) || myNodes.size() != nodeCount) {
+            publish();
+        }
+    }
+
+    /**
+     * Records that an edge was removed. The finder's getNeighbors hook must no longer report it.
+     * Queries keep treating the edge as present until the next rebuild.
+     */
+    public synchronized void removeEdge (T node, T neighbor) {
+        if (myIds.containsKey(node) && myIds.containsKey(neighbor)) {
+            myStale = true;
+        }
+    }
+
+    /**
+     * Recomputes the components from the finder's getNeighbors hook if an edge was removed since
+     * the last rebuild. Queries on other threads keep reading the previous components meanwhile.
+     */
+    public synchronized void rebuild () {
+        if (!myStale) { return; }
+        myStale = false;
+        Deque<Integer> open = new ArrayDeque<>();
+        for (int id = 0; id < myNodes.size(); id++) {
+            myParents[id] = id;
+            mySizes[id] = 1;
+            open.add(id);
+        }
+        myComponentCount = myNodes.size();
+        explore(open);
+        publish();
+    }
+
+    /**
+     * @return Whether an edge was removed since the last rebuild.
+     */
+    public synchronized boolean isStale () {
+        return myStale;
+    }
+
+    /**
+     * @return False if no path can lead from start to destination, true if one may. Nodes the
+     *         index does not know may be reachable.
+     */
+    public boolean canReach (T start, T destination) {
+        int[] components = myComponents;
+        Integer startId = myIds.get(start);
+        Integer destinationId = myIds.get(destination);
+        if (startId == null || destinationId == null || startId >= components.length ||
+            destinationId >= components.length) {
+            return true;
+        }
+        return components[startId] == components[destinationId];
+    }
+
+    /**
+     * @return Number of components among the known nodes, as of the last rebuild.
+     */
+    public synchronized int getComponentCount () {
+        return myComponentCount;
+    }
+
+    public synchronized int getNodeCount () {
+        return myNodes.size();
+    }
+
+    /**
+     * Publishes the root of every known node's component for canReach to read.
+     */
+    private void publish () {
+        int[] components = new int[myNodes.size()];
+        for (int id = 0; id < components.length; id++) {
+            components[id] = find(id);
+        }
+        myComponents = components;
+    }
+
+    /**
+     * Unions every queued node with its neighbors, queueing neighbors seen for the first time.
+     */
+    private void explore (Deque<Integer> open) {
+        while (!open.isEmpty()) {
+            int id = open.poll();
+            for (T neighbor : myFinder.getNeighbors(myNodes.get(id))) {
+                Integer neighborId = myIds.get(neighbor);
+                if (neighborId == null) {
+                    neighborId = add(neighbor);
+                    open.add(neighborId);
+                }
+                union(id, neighborId);
+            }
+        }
+    }
+
+    private int getOrAdd (T node) {
+        Integer id = myIds.get(node);
+        return id == null ? add(node) : id;
+    }
+
+    private int add (T node) {
+        int id = myNodes.size();
+        if (id == myParents.length) {
+            myParents = Arrays.copyOf(myParents, id * 2);
+            mySizes = Arrays.copyOf(mySizes, id * 2);
+        }
+        myIds.put(node, id);
+        myNodes.add(node);
+        myParents[id] = id;
+        mySizes[id] = 1;
+        myComponentCount++;
+        return id;
+    }
+
+    /**
+     * @return Root of the node's component, halving the path to it along the way.
+     */
+    private int find (int id) {
+        while (myParents[id] != id) {
+            myParents[id] = myParents[myParents[id]];
+            id = myParents[id];
+        }
+        return id;
+    }
+
+    /**
+     * Merges two components, hanging the smaller under the larger.
+     *
+     * @return Whether the nodes were in different components.
+     */
+    private boolean union (int id, int otherId) {
+        int root = find(id);
+        int otherRoot = find(otherId);
+        if (root == otherRoot) { return false; }
+        if (mySizes[root] < mySizes[otherRoot]) {
+            int swap = root;
+            root = otherRoot;
+            otherRoot = swap;
+        }
+        myParents[otherRoot] = root;
+        mySizes[root] += mySizes[otherRoot];
+        myComponentCount--;
+        return true;
+    }
+}
@@ -0,0 +1,87 @@
+package pathfinding;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+
+/**
+ * Checks that components follow added and removed edges, and that finders with an index reject
+ * destinations in another component without expanding a node.
+ */
+public class ConnectivityIndexTest {
+
+    private static final int SIZE = 20;
+
+    @Test
+    public void testConnectivityIndexRejectsUnreachableDestinations () {
+        TestGraphFinder finder = createSplittableGrid();
+        TestIndexedAStarFinder<Integer> indexedFinder = new TestIndexedAStarFinder<>(finder);
+        ConnectivityIndex<Integer> index =
+                new ConnectivityIndex<>(finder, Collections.singletonList(0));
+        assertEquals(SIZE * SIZE, index.getNodeCount());
+        assertEquals(1, index.getComponentCount());
+        SearchStatisticsAggregator statistics = new SearchStatisticsAggregator();
+        List<AStarPathFinder<Integer>> finders = new ArrayList<>();
+        finders.add(finder);
+        finders.add(indexedFinder);
+        for (AStarPathFinder<Integer> searcher : finders) {
+            searcher.setConnectivityIndex(index);
+            searcher.setSearchListener(statistics);
+        }
+        int left = (SIZE - 1) * SIZE;
+        int right = SIZE * SIZE - 1;
+        for (AStarPathFinder<Integer> searcher : finders) {
+            assertNotNull(searcher.findPath(left, right));
+        }
+
+        finder.unlink(SIZE / 2 - 1, SIZE / 2);
+        index.removeEdge(SIZE / 2 - 1, SIZE / 2);
+        index.removeEdge(SIZE / 2, SIZE / 2 - 1);
+        // until the rebuild the index still answers as if the edge were there
+        assertTrue(index.isStale());
+        assertTrue(index.canReach(left, right));
+        index.rebuild();
+        assertFalse(index.isStale());
+        assertEquals(2, index.getComponentCount());
+        assertFalse(index.canReach(left, right));
+        statistics.clear();
+        for (AStarPathFinder<Integer> searcher : finders) {
+            assertNull(searcher.findPath(left, right));
+        }
+        PathSearch<Integer> search = indexedFinder.startSearch(left, right);
+        assertTrue(search.isComplete());
+        assertNull(search.getPath());
+        assertEquals(finders.size() + 1, statistics.getSearchCount());
+        assertEquals(0, statistics.getExpandedNodes().getMaximum());
+
+        finder.link(left + SIZE / 2 - 1, left + SIZE / 2);
+        index.addEdge(left + SIZE / 2 - 1, left + SIZE / 2);
+        assertEquals(1, index.getComponentCount());
+        for (AStarPathFinder<Integer> searcher : finders) {
+            assertEquals(SIZE, searcher.findPath(left, right).size());
+        }
+        assertTrue(index.canReach(left, -1));
+    }
+
+    /**
+     * @return Open grid of SIZE by SIZE nodes, numbered by row, whose left and right halves are
+     *         joined only through the middle edge of row 0.
+     */
+    private static TestGraphFinder createSplittableGrid () {
+        TestGraphFinder finder = new TestGraphFinder();
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                if (i + 1 < SIZE) {
+                    finder.link(i * SIZE + j, (i + 1) * SIZE + j);
+                }
+                if (j + 1 < SIZE && (j + 1 != SIZE / 2 || i == 0)) {
+                    finder.link(i * SIZE + j, i * SIZE + j + 1);
+                }
+            }
+        }
+        return finder;
+    }
+}
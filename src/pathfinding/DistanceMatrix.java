@@ -0,0 +1,87 @@
+package pathfinding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Least costs from each of a list of sources to each of a list of targets, built by
+ * DistanceMatrixFinder. Row i holds the costs from source i, column j the costs to target j, and
+ * an unreachable target costs positive infinity. When the search trees were kept, the path
+ * behind any entry can be built on demand; the matrix builds none itself. A matrix can be read by
+ * any number of threads at once.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public class DistanceMatrix<T> {
+
+    private final List<T> mySources;
+    private final List<T> myTargets;
+    private final double[][] myDistances;
+    private final NodeIndexer<T>[] myIds;
+    private final int[][] myParents;
+
+    /**
+     * @param ids Node ids of each source's search, or null if its tree was not kept
+     * @param parents Came-from links of each source's search, by id, or null if not kept
+     */
+    DistanceMatrix (List<T> sources, List<T> targets, double[][] distances, NodeIndexer<T>[] ids,
+                    int[][] parents) {
+        mySources = Collections.unmodifiableList(new ArrayList<>(sources));
+        myTargets = Collections.unmodifiableList(new ArrayList<>(targets));
+        myDistances = distances;
+        myIds = ids;
+        myParents = parents;
+    }
+
+    public List<T> getSources () {
+        return mySources;
+    }
+
+    public List<T> getTargets () {
+        return myTargets;
+    }
+
+    /**
+     * @return Least cost from the source at row to the target at column, or positive infinity if
+     *         the target cannot be reached.
+     */
+    public double getDistance (int row, int column) {
+        return myDistances[row][column];
+    }
+
+    /**
+     * @return The matrix itself, one row per source. Callers must not modify it.
+     */
+    public double[][] getDistances () {
+        return myDistances;
+    }
+
+    /**
+     * @return Whether getPath can be called.
+     */
+    public boolean hasPaths () {
+        return myParents != null;
+    }
+
+    /**
+     * Builds the least cost path from the source at row to the target at column.
+     *
+     * @return Path in order, or null if the target cannot be reached.
+     * @throws IllegalStateException if the matrix was built without keeping its search trees
+     */
+    public List<T> getPath (int row, int column) {
+        if (!hasPaths()) { throw new IllegalStateException("Search trees were not kept"); }
+        if (myDistances[row][column] == Double.POSITIVE_INFINITY) { return null; }
+        NodeIndexer<T> ids = myIds[row];
+        int[] parents = myParents[row];
+        List<T> path = new ArrayList<>();
+        for (int id = ids.findId(myTargets.get(column)); id != SearchWorkspace.NO_PARENT;
+             id = parents[id]) {
+            path.add(ids.getNode(id));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+}
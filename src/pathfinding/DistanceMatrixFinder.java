@@ -0,0 +1,184 @@
+package pathfinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+
+/**
+ * Computes least costs from many sources to many targets, for example from every unit to every
+ * resource. Instead of one findPath call per pair, it runs Dijkstra's algorithm once per source
+ * over the wrapped finder's getNeighbors and getCost hooks and stops as soon as every target is
+ * settled. Sources are searched in parallel, one task each.
+ *
+ * The hooks are called from several threads at once, so they must be safe to call concurrently.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public class DistanceMatrixFinder<T> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final IPathFinder<T> myFinder;
+    private final ExecutorService myExecutor;
+
+    /**
+     * Creates a finder that searches on the common ForkJoinPool.
+     */
+    public DistanceMatrixFinder (IPathFinder<T> finder) {
+        this(finder, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param finder Finder whose hooks define the map
+     * @param executor Executor to run the searches on
+     */
+    public DistanceMatrixFinder (IPathFinder<T> finder, ExecutorService executor) {
+        myFinder = finder;
+        myExecutor = executor;
+    }
+
+    /**
+     * Finds the least costs from one source to every target, keeping the search tree.
+     */
+    public DistanceMatrix<T> findDistancesFrom (T source, List<T> targets)
+            throws InvalidCostException {
+        return findDistances(Collections.singletonList(source), targets, true);
+    }
+
+    /**
+     * Finds the least costs from every source to every target, keeping the search trees.
+     */
+    public DistanceMatrix<T> findDistances (List<T> sources, List<T> targets)
+            throws InvalidCostException {
+        return findDistances(sources, targets, true);
+    }
+
+    /**
+     * Finds the least costs from every source to every target.
+     *
+     * @param sources Nodes the searches start from, one matrix row each
+     * @param targets Nodes to find costs to, one matrix column each
+     * @param keepPaths Whether to keep each source's search tree so the matrix can build paths;
+     *        without them the matrix holds only its distances
+     * @throws CancellationException If the calling thread is interrupted while waiting
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public DistanceMatrix<T> findDistances (final List<T> sources, final List<T> targets,
+                                            final boolean keepPaths)
+            throws InvalidCostException {
+        final double[][] distances = new double[sources.size()][];
+        final NodeIndexer<T>[] ids = keepPaths ? new NodeIndexer[sources.size()] : null;
+        final int[][] parents = keepPaths ? new int[sources.size()][] : null;
+        List<Callable<Void>> searches = new ArrayList<>();
+        for (int i = 0; i < sources.size(); i++) {
+            final int row = i;
+            searches.add(new Callable<Void>() {
+                @Override
+                public Void call () {
+                    search(sources.get(row), targets, row, distances, ids, parents);
+                    return null;
+                }
+            });
+        }
+        if (searches.size() == 1) {
+            search(sources.get(0), targets, 0, distances, ids, parents);
+        }
+        else {
+            runAll(searches);
+        }
+        return new DistanceMatrix<>(sources, targets, distances, ids, parents);
+    }
+
+    private void runAll (List<Callable<Void>> searches) {
+        try {
+            for (Future<Void> future : myExecutor.invokeAll(searches)) {
+                future.get();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for distances");
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) { throw (RuntimeException) e.getCause(); }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Dijkstra's algorithm from one source. The targets get the first ids, so a settled node is
+     * a target exactly when its id is below the number of distinct targets. Fills in the row's
+     * distances and, if ids is not null, its search tree.
+     */
+    private void search (T source, List<T> targets, int row, double[][] distances,
+                         NodeIndexer<T>[] ids, int[][] parents) {
+        final NodeIndexer<T> nodeIds = new NodeIndexer<>();
+        for (T target : targets) {
+            nodeIds.getId(target);
+        }
+        int targetCount = nodeIds.size();
+        int capacity = Math.max(INITIAL_CAPACITY, 2 * targetCount);
+        double[] scores = new double[capacity];
+        int[] parentIds = new int[capacity];
+        boolean[] settled = new boolean[capacity];
+        Arrays.fill(scores, Double.POSITIVE_INFINITY);
+        IndexedMinHeap frontier = new IndexedMinHeap(4, new IndexedMinHeap.TieBreaker() {
+            @Override
+            public int compare (int id, int otherId) {
+                return myFinder.breakTie(nodeIds.getNode(id), nodeIds.getNode(otherId));
+            }
+        });
+        int sourceId = nodeIds.getId(source);
+        scores[sourceId] = 0;
+        parentIds[sourceId] = SearchWorkspace.NO_PARENT;
+        frontier.offer(sourceId, 0);
+        int unsettledTargets = targetCount;
+        while (!frontier.isEmpty()) {
+            int id = frontier.poll();
+            settled[id] = true;
+            if (id < targetCount && --unsettledTargets == 0) {
+                break;
+            }
+            T node = nodeIds.getNode(id);
+            for (T neighbor : myFinder.getNeighbors(node)) {
+                int knownNodes = nodeIds.size();
+                int neighborId = nodeIds.getId(neighbor);
+                if (neighborId == knownNodes && neighborId == scores.length) {
+                    int newLength = neighborId * 2;
+                    scores = Arrays.copyOf(scores, newLength);
+                    parentIds = Arrays.copyOf(parentIds, newLength);
+                    settled = Arrays.copyOf(settled, newLength);
+                    Arrays.fill(scores, neighborId, newLength, Double.POSITIVE_INFINITY);
+                }
+                if (settled[neighborId]) {
+                    continue;
+                }
+                double cost = CheckedCosts.getCost(myFinder, node, neighbor);
+                double score = scores[id] + cost;
+                if (score < scores[neighborId]) {
+                    scores[neighborId] = score;
+                    parentIds[neighborId] = id;
+                    frontier.offer(neighborId, score);
+                }
+            }
+        }
+        double[] rowDistances = new double[targets.size()];
+        for (int column = 0; column < rowDistances.length; column++) {
+            int id = nodeIds.findId(targets.get(column));
+            rowDistances[column] = settled[id] ? scores[id] : Double.POSITIVE_INFINITY;
+        }
+        distances[row] = rowDistances;
+        if (ids != null) {
+            ids[row] = nodeIds;
+            parents[row] = Arrays.copyOf(parentIds, nodeIds.size());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package pathfinding;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+
+/**
+ * Checks every distance and path of a matrix against a separate A* search.
+ */
+public class DistanceMatrixFinderTest {
+
+    @Test
+    public void testDistanceMatrixMatchesAStar () {
+        int xMax = 50;
+        int yMax = 39;
+        TestNode[][] nodeMap = TestNode.createNodeMap(xMax, yMax);
+        TestAStarFinder finder = new TestAStarFinder(nodeMap);
+        Random rand = new Random();
+        List<TestNode> sources = new ArrayList<>();
+        List<TestNode> targets = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            sources.add(nodeMap[rand.nextInt(xMax)][rand.nextInt(yMax)]);
+            targets.add(nodeMap[rand.nextInt(xMax)][rand.nextInt(yMax)]);
+        }
+        targets.add(targets.get(0));
+        targets.add(sources.get(0));
+        DistanceMatrixFinder<TestNode> matrixFinder = new DistanceMatrixFinder<>(finder);
+        DistanceMatrix<TestNode> matrix = matrixFinder.findDistances(sources, targets);
+        double[][] distances = matrix.getDistances();
+        assertEquals(sources.size(), distances.length);
+        for (int row = 0; row < sources.size(); row++) {
+            assertEquals(targets.size(), distances[row].length);
+            for (int column = 0; column < targets.size(); column++) {
+                List<TestNode> expected = finder.findPath(sources.get(row), targets.get(column));
+                assertEquals(expected.size() - 1, matrix.getDistance(row, column), 0);
+                List<TestNode> path = matrix.getPath(row, column);
+                assertEquals(expected.size(), path.size());
+                assertEquals(sources.get(row), path.get(0));
+                assertEquals(targets.get(column), path.get(path.size() - 1));
+            }
+        }
+        assertEquals(0, matrix.getDistance(0, targets.size() - 1), 0);
+
+        DistanceMatrix<TestNode> oneToMany =
+                matrixFinder.findDistancesFrom(sources.get(1), targets);
+        assertArrayEquals(distances[1], oneToMany.getDistances()[0], 0);
+        DistanceMatrix<TestNode> withoutPaths =
+                matrixFinder.findDistances(sources, targets, false);
+        assertFalse(withoutPaths.hasPaths());
+        try {
+            withoutPaths.getPath(0, 0);
+            fail();
+        }
+        catch (IllegalStateException e) {
+            assertArrayEquals(distances[0], withoutPaths.getDistances()[0], 0);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package pathfinding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Least costs from every reachable node to one destination, with the next node to move to from
+ * each of them. Built once by FlowFieldPathFinder, a field answers any number of path queries
+ * towards its destination in time proportional to the length of the path, and can be read by
+ * any number of threads at once.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public class FlowField<T> {
+
+    private final T myDestination;
+    private final long myMapVersion;
+    private final NodeIndexer<T> myIds;
+    private final double[] myDistances;
+    private final int[] myNextHops;
+
+    FlowField (T destination, long mapVersion, NodeIndexer<T> ids, double[] distances,
+               int[] nextHops) {
+        myDestination = destination;
+        myMapVersion = mapVersion;
+        myIds = ids;
+        myDistances = distances;
+        myNextHops = nextHops;
+    }
+
+    public T getDestination () {
+        return myDestination;
+    }
+
+    /**
+     * @return Map version the field was computed at.
+     */
+    public long getMapVersion () {
+        return myMapVersion;
+    }
+
+    /**
+     * @return Number of nodes that can reach the destination.
+     */
+    public int getReachableNodeCount () {
+        return myIds.size();
+    }
+
+    public boolean isReachable (T node) {
+        return myIds.findId(node) != NodeIndexer.ABSENT;
+    }
+
+    /**
+     * @return Least cost from node to the destination, or positive infinity if it cannot reach it.
+     */
+    public double getDistance (T node) {
+        int id = myIds.findId(node);
+        return id == NodeIndexer.ABSENT ? Double.POSITIVE_INFINITY : myDistances[id];
+    }
+
+    /**
+     * @return Node to move to from node on a least cost path to the destination, or null if node
+     *         is the destination or cannot reach it.
+     */
+    public T getNextHop (T node) {
+        int id = myIds.findId(node);
+        if (id == NodeIndexer.ABSENT) { return null; }
+        int nextId = myNextHops[id];
+        return nextId == SearchWorkspace.NO_PARENT ? null : myIds.getNode(nextId);
+    }
+
+    /**
+     * @return Path from start to the destination in order, or null if start cannot reach it.
+     */
+    public List<T> getPath (T start) {
+        int id = myIds.findId(start);
+        if (id == NodeIndexer.ABSENT) { return null; }
+        List<T> path = new ArrayList<>();
+        for (; id != SearchWorkspace.NO_PARENT; id = myNextHops[id]) {
+            path.add(myIds.getNode(id));
+        }
+        return path;
+    }
+}
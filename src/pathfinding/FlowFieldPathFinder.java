@@ -0,0 +1,161 @@
+package pathfinding;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Path finder for many units heading to the same few destinations. The first query towards a
+ * destination runs Dijkstra's algorithm backwards from it over the wrapped finder's hooks and
+ * keeps the result as a FlowField; every later query towards that destination, from any start,
+ * just follows the field's next hops. Fields are kept for the most recently used destinations
+ * and recomputed once the map version changes.
+ *
+ * The backward search follows the wrapped finder's getPredecessors, so maps with one-way moves
+ * need that hook overridden. Costs are always taken in the direction of travel. Paths have the
+ * least cost but may differ from the wrapped finder's when several paths tie.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public class FlowFieldPathFinder<T> implements IPathFinder<T> {
+
+    private static final int DEFAULT_MAX_FIELDS = 16;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final IPathFinder<T> myFinder;
+    private final IMapVersion myMapVersion;
+    private final Map<T, FlowField<T>> myFields;
+
+    /**
+     * Creates a finder whose fields never go out of date, for maps that do not change.
+     */
+    public FlowFieldPathFinder (IPathFinder<T> finder) {
+        this(finder, null, DEFAULT_MAX_FIELDS);
+    }
+
+    /**
+     * @param finder Finder whose hooks define the map
+     * @param mapVersion Version of the map, or null if it never changes
+     * @param maxFields Number of destinations to keep fields for
+     */
+    public FlowFieldPathFinder (IPathFinder<T> finder, IMapVersion mapVersion,
+                                final int maxFields) {
+        if (maxFields <= 0) {
+            throw new IllegalArgumentException("Must keep at least one field");
+        }
+        myFinder = finder;
+        myMapVersion = mapVersion;
+        myFields = new LinkedHashMap<T, FlowField<T>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry (Map.Entry<T, FlowField<T>> eldest) {
+                return size() > maxFields;
+            }
+        };
+    }
+
+    /**
+     * Gets the field towards a destination, computing it if none is kept for the current map
+     * version.
+     */
+    public synchronized FlowField<T> getFlowField (T destination) throws InvalidCostException {
+        long version = getCurrentVersion();
+        FlowField<T> field = myFields.get(destination);
+        if (field == null || field.getMapVersion() != version) {
+            field = computeFlowField(destination, version);
+            myFields.put(destination, field);
+        }
+        return field;
+    }
+
+    /**
+     * Drops every kept field.
+     */
+    public synchronized void clear () {
+        myFields.clear();
+    }
+
+    @Override
+    public List<T> findPath (T start, T destination) throws InvalidCostException {
+        return getFlowField(destination).getPath(start);
+    }
+
+    @Override
+    public Number getCost (T beginningNode, T endingNode) {
+        return myFinder.getCost(beginningNode, endingNode);
+    }
+
+    @Override
+    public Iterable<T> getNeighbors (T node) {
+        return myFinder.getNeighbors(node);
+    }
+
+    @Override
+    public Iterable<T> getPredecessors (T node) {
+        return myFinder.getPredecessors(node);
+    }
+
+    @Override
+    public boolean isDestination (T node, T destinationNode) {
+        return myFinder.isDestination(node, destinationNode);
+    }
+
+    @Override
+    public int breakTie (T node, T other) {
+        return myFinder.breakTie(node, other);
+    }
+
+    private long getCurrentVersion () {
+        return myMapVersion == null ? 0 : myMapVersion.getMapVersion();
+    }
+
+    /**
+     * Dijkstra's algorithm from the destination, moving from each settled node to the nodes
+     * that can move onto it.
+     */
+    private FlowField<T> computeFlowField (T destination, long version) {
+        final NodeIndexer<T> ids = new NodeIndexer<>();
+        double[] distances = new double[INITIAL_CAPACITY];
+        int[] nextHops = new int[INITIAL_CAPACITY];
+        boolean[] settled = new boolean[INITIAL_CAPACITY];
+        IndexedMinHeap frontier = new IndexedMinHeap(4, new IndexedMinHeap.TieBreaker() {
+            @Override
+            public int compare (int id, int otherId) {
+                return myFinder.breakTie(ids.getNode(id), ids.getNode(otherId));
+            }
+        });
+        int destinationId = ids.getId(destination);
+        distances[destinationId] = 0;
+        nextHops[destinationId] = SearchWorkspace.NO_PARENT;
+        frontier.offer(destinationId, 0);
+        while (!frontier.isEmpty()) {
+            int id = frontier.poll();
+            settled[id] = true;
+            T node = ids.getNode(id);
+            for (T predecessor : myFinder.getPredecessors(node)) {
+                int knownNodes = ids.size();
+                int predecessorId = ids.getId(predecessor);
+                if (predecessorId == knownNodes && predecessorId == distances.length) {
+                    int newLength = predecessorId * 2;
+                    distances = Arrays.copyOf(distances, newLength);
+                    nextHops = Arrays.copyOf(nextHops, newLength);
+                    settled = Arrays.copyOf(settled, newLength);
+                }
+                if (settled[predecessorId]) {
+                    continue;
+                }
+                double cost = CheckedCosts.getCost(myFinder, predecessor, node);
+                double distance = distances[id] + cost;
+                if (predecessorId == knownNodes || distance < distances[predecessorId]) {
+                    distances[predecessorId] = distance;
+                    nextHops[predecessorId] = id;
+                    frontier.offer(predecessorId, distance);
+                }
+            }
+        }
+        return new FlowField<>(destination, version, ids, distances, nextHops);
+    }
+}
@@ -0,0 +1,37 @@
+package pathfinding;
+
+import static org.junit.Assert.*;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+
+/**
+ * Checks flow field paths against A* and that fields are cached until the map changes.
+ */
+public class FlowFieldPathFinderTest {
+
+    @Test
+    public void testFlowFieldMatchesAStar () {
+        int xMax = 50;
+        int yMax = 39;
+        TestNode[][] nodeMap = TestNode.createNodeMap(xMax, yMax);
+        TestAStarFinder finder = new TestAStarFinder(nodeMap);
+        MapVersion version = new MapVersion();
+        FlowFieldPathFinder<TestNode> flowFinder = new FlowFieldPathFinder<>(finder, version, 2);
+        Random rand = new Random();
+        TestNode destination = nodeMap[rand.nextInt(xMax)][rand.nextInt(yMax)];
+        FlowField<TestNode> field = flowFinder.getFlowField(destination);
+        assertEquals(xMax * yMax, field.getReachableNodeCount());
+        for (int i = 0; i < 50; i++) {
+            TestNode start = nodeMap[rand.nextInt(xMax)][rand.nextInt(yMax)];
+            List<TestNode> expected = finder.findPath(start, destination);
+            List<TestNode> result = flowFinder.findPath(start, destination);
+            assertEquals(expected.size(), result.size());
+            assertEquals(expected.size() - 1, field.getDistance(start), 0);
+        }
+        assertTrue(field == flowFinder.getFlowField(destination));
+        version.increment();
+        assertTrue(field != flowFinder.getFlowField(destination));
+    }
+}
@@ -0,0 +1,127 @@
+package pathfinding;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Lock-free histogram of non-negative long values. Values below 8 are counted exactly; larger
+ * values share a bucket with values that differ from them by less than one eighth, so
+ * percentiles are accurate to within 12.5%. The count, sum, minimum and maximum are exact.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray myBuckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong myCount = new AtomicLong();
+    private final AtomicLong mySum = new AtomicLong();
+    private final AtomicLong myMinimum = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong myMaximum = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Counts one occurrence of the value. Negative values are counted as 0.
+     */
+    public void record (long value) {
+        long recorded = Math.max(0, value);
+        myBuckets.incrementAndGet(getBucket(recorded));
+        myCount.incrementAndGet();
+        mySum.addAndGet(recorded);
+        long minimum = myMinimum.get();
+        while (recorded < minimum && !myMinimum.compareAndSet(minimum, recorded)) {
+            minimum = myMinimum.get();
+        }
+        long maximum = myMaximum.get();
+        while (recorded > maximum && !myMaximum.compareAndSet(maximum, recorded)) {
+            maximum = myMaximum.get();
+        }
+    }
+
+    public long getCount () {
+        return myCount.get();
+    }
+
+    /**
+     * @return Smallest value recorded, or 0 if none was.
+     */
+    public long getMinimum () {
+        return getCount() == 0 ? 0 : myMinimum.get();
+    }
+
+    /**
+     * @return Largest value recorded, or 0 if none was.
+     */
+    public long getMaximum () {
+        return getCount() == 0 ? 0 : myMaximum.get();
+    }
+
+    /**
+     * @return Average of the values recorded, or 0 if none was.
+     */
+    public double getMean () {
+        long count = getCount();
+        return count == 0 ? 0 : 1.0 * mySum.get() / count;
+    }
+
+    /**
+     * @param percentile Share of values, from 0 to 1, such as 0.99
+     * @return Value that the given share of recorded values do not exceed, rounded up to the end
+     *         of its bucket and capped at the maximum; 0 if nothing was recorded.
+     */
+    public long getPercentile (double percentile) {
+        if (percentile < 0 || percentile > 1) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 1");
+        }
+        long count = getCount();
+        if (count == 0) { return 0; }
+        long target = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += myBuckets.get(bucket);
+            if (seen >= target) {
+                return Math.min(getBucketEnd(bucket), getMaximum());
+            }
+        }
+        return getMaximum();
+    }
+
+    /**
+     * Forgets every recorded value.
+     */
+    public void clear () {
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            myBuckets.set(bucket, 0);
+        }
+        myCount.set(0);
+        mySum.set(0);
+        myMinimum.set(Long.MAX_VALUE);
+        myMaximum.set(Long.MIN_VALUE);
+    }
+
+    private static int getBucket (long value) {
+        if (value < SUB_BUCKETS) { return (int) value; }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return Largest value that falls into the bucket.
+     */
+    private static long getBucketEnd (int bucket) {
+        if (bucket < SUB_BUCKETS) { return bucket; }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        long subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        long start = (SUB_BUCKETS + subBucket) << shift;
+        long end = start + (1L << shift) - 1;
+        return end < 0 ? Long.MAX_VALUE : end;
+    }
+
+    @Override
+    public String toString () {
+        return String.format("count %d, mean %.1f, p50 %d, p99 %d, max %d", getCount(), getMean(),
+                             getPercentile(0.5), getPercentile(0.99), getMaximum());
+    }
+}
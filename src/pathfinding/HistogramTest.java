@@ -0,0 +1,29 @@
+package pathfinding;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+
+/**
+ * Checks histogram summaries and that percentiles stay within the bucket error.
+ */
+public class HistogramTest {
+
+    @Test
+    public void testHistogramPercentiles () {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getPercentile(0.5));
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1, histogram.getMinimum());
+        assertEquals(1000, histogram.getMaximum());
+        assertEquals(500.5, histogram.getMean(), 1e-9);
+        assertEquals(500, histogram.getPercentile(0.5), 500 / 8);
+        assertEquals(990, histogram.getPercentile(0.99), 990 / 8);
+        assertEquals(1000, histogram.getPercentile(1));
+        histogram.clear();
+        assertEquals(0, histogram.getCount());
+    }
+}
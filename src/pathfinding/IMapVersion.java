@@ -0,0 +1,14 @@
+package pathfinding;
+
+/**
+ * Source of a version number that changes whenever the costs or neighbors reported by a path
+ * finder's hooks may have changed. Anything computed from the hooks, such as a cached path or a
+ * flow field, is out of date once the version differs from the one it was computed at.
+ */
+public interface IMapVersion {
+
+    /**
+     * @return Current version of the map.
+     */
+    public long getMapVersion ();
+}
@@ -29,6 +29,19 @@ public interface IPathFinder<T>{
      */
     public Iterable<T> getNeighbors (T node);
 
+    /**
+     * Gets the nodes from which one can move to the node specified in the parameter, that is,
+     * every node whose neighbors include it. Searches that run backwards from the destination use
+     * this. The default returns getNeighbors, which is correct when the neighbor relation is
+     * symmetric; maps with one-way moves must override it.
+     * 
+     * @param node Node in question
+     * @return A collection of predecessor nodes
+     */
+    public default Iterable<T> getPredecessors (T node) {
+        return getNeighbors(node);
+    }
+
     /**
      * Indicates whether a node is the destination node. In most cases, this method should use the
      * equals method specified in the generic type
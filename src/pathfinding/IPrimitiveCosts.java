@@ -0,0 +1,24 @@
+package pathfinding;
+
+/**
+ * Cost and heuristic hooks that return primitive doubles. A finder that also implements this
+ * interface is asked for its costs and heuristic values through these methods instead of getCost
+ * and getHeuristicValue, by its own searches and by every class that reads its hooks through
+ * CheckedCosts, so no Number is boxed per relaxed move.
+ * getCost and getHeuristicValue must still return the same values for callers that use the
+ * Number API; PrimitiveAStarPathFinder defines them on top of these methods.
+ *
+ * @param <T> Any object type.
+ */
+public interface IPrimitiveCosts<T> {
+
+    /**
+     * @return Cost of traveling from beginningNode to endingNode, as getCost.
+     */
+    public double getPrimitiveCost (T beginningNode, T endingNode);
+
+    /**
+     * @return Heuristic value from node to destination, as getHeuristicValue.
+     */
+    public double getPrimitiveHeuristicValue (T node, T destination);
+}
@@ -0,0 +1,14 @@
+package pathfinding;
+
+/**
+ * Receives the statistics of every search a finder runs, once the search finishes. Set one with
+ * AStarPathFinder.setSearchListener. Listeners are called on the searching thread, so they must
+ * be quick and, if the finder is shared between threads, thread-safe.
+ */
+public interface ISearchListener {
+
+    /**
+     * @param statistics What the finished search did
+     */
+    public void searchFinished (SearchStatistics statistics);
+}
@@ -0,0 +1,15 @@
+package pathfinding;
+
+/**
+ * Decides whether an agent can move in a straight line between two nodes, used by PathSmoother
+ * to skip the waypoints in between.
+ *
+ * @param <T> Any object type.
+ */
+public interface IVisibilityTest<T> {
+
+    /**
+     * @return Whether the straight line from one node to the other is clear.
+     */
+    public boolean isVisible (T from, T to);
+}
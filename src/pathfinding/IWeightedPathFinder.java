@@ -0,0 +1,26 @@
+package pathfinding;
+
+import java.util.List;
+
+
+/**
+ * Path finder that can run weighted A*, which multiplies every heuristic value by a factor
+ * epsilon. Larger values of epsilon head more greedily towards the destination and usually expand
+ * far fewer nodes, and the path found costs at most epsilon times the least cost.
+ *
+ * @param <T> Any object type.
+ */
+public interface IWeightedPathFinder<T> extends IPathFinder<T> {
+
+    /**
+     * Finds a path with weighted A*.
+     *
+     * @param start Starting node
+     * @param destination Ending node
+     * @param epsilon Heuristic inflation factor, at least 1. A value of 1 gives a least cost
+     *        path, as findPath(start, destination) does.
+     * @return Path from start to destination in order, or null if there is none.
+     * @throws IllegalArgumentException If epsilon is below 1
+     */
+    public List<T> findPath (T start, T destination, double epsilon);
+}
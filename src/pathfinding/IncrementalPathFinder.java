@@ -0,0 +1,248 @@
+package pathfinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * Path finder that keeps its search between calls and repairs it when costs change, using the
+ * D* Lite algorithm. The search runs backwards from the destination, so the start may move
+ * along the path between calls (as a walking unit does) without starting over. After
+ * edgeCostChanged or nodeChanged, the next findPath only revisits the nodes whose distance to
+ * the destination the change can affect, which is usually a small part of the map when the
+ * change is local.
+ *
+ * Subclasses define the same hooks as for AStarPathFinder, and must override getPredecessors if
+ * the map has one-way moves. The heuristic is evaluated as getHeuristicValue(start, node), an
+ * estimate of the cost from the start to the node, and must be consistent. Asking for a
+ * different destination discards the kept search. All methods are synchronized on the finder.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public abstract class IncrementalPathFinder<T> extends AStarPathFinder<T> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final NodeIndexer<T> myIds = new NodeIndexer<>();
+    private final IndexedMinHeap myQueue = new IndexedMinHeap(4, new IndexedMinHeap.TieBreaker() {
+        @Override
+        public int compare (int id, int otherId) {
+            int result = Double.compare(mySecondKeys[id], mySecondKeys[otherId]);
+            if (result != 0) { return result; }
+            return breakTie(myIds.getNode(id), myIds.getNode(otherId));
+        }
+    });
+    private final Set<T> myChangedNodes = new LinkedHashSet<>();
+    private double[] myScores = new double[INITIAL_CAPACITY];
+    private double[] myLookaheads = new double[INITIAL_CAPACITY];
+    private double[] mySecondKeys = new double[INITIAL_CAPACITY];
+    private T myDestination;
+    private T myLastStart;
+    private double myKeyModifier;
+    private int myExpandedNodes;
+    private int myGeneratedNodes;
+    private int myPeakQueueSize;
+
+    /**
+     * Records that the cost of moving from one node to another changed, or that the move was
+     * added or removed. The kept search is repaired on the next call to findPath.
+     *
+     * @param beginningNode Node the move starts from
+     * @param endingNode Node the move ends at
+     */
+    public synchronized void edgeCostChanged (T beginningNode, T endingNode) {
+        myChangedNodes.add(beginningNode);
+    }
+
+    /**
+     * Records that the costs of the moves into and out of a node changed. Moves that no longer
+     * exist after the change are not found through getPredecessors, so removing moves into the
+     * node must be reported with edgeCostChanged.
+     *
+     * @param node Node that changed
+     */
+    public synchronized void nodeChanged (T node) {
+        myChangedNodes.add(node);
+        for (T predecessor : getPredecessors(node)) {
+            myChangedNodes.add(predecessor);
+        }
+    }
+
+    /**
+     * @return Number of nodes taken off the queue by the last call to findPath.
+     */
+    public synchronized int getExpandedNodeCount () {
+        return myExpandedNodes;
+    }
+
+    @Override
+    public synchronized List<T> findPath (T start, T destination) throws InvalidCostException {
+        ISearchListener listener = getSearchListener();
+        long startTime = listener == null ? 0 : System.nanoTime();
+        myExpandedNodes = 0;
+        myGeneratedNodes = 0;
+        myPeakQueueSize = myQueue.size();
+        if (!canReach(start, destination)) {
+            return reportSearch(listener, startTime, null, 0, 0, 0, 0);
+        }
+        if (myDestination == null || !myDestination.equals(destination)) {
+            initialize(start, destination);
+        }
+        else {
+            myKeyModifier += getCheckedHeuristicValue(myLastStart, start);
+            myLastStart = start;
+            for (T node : myChangedNodes) {
+                updateNode(getId(node));
+            }
+        }
+        myChangedNodes.clear();
+        int startId = getId(start);
+        computeShortestPath(startId);
+        List<T> path = myScores[startId] == Double.POSITIVE_INFINITY ? null : buildPath(start);
+        return reportSearch(listener, startTime, path, myExpandedNodes, myGeneratedNodes,
+                            myPeakQueueSize, 0);
+    }
+
+    private void initialize (T start, T destination) {
+        myIds.clear();
+        myQueue.clear();
+        myDestination = destination;
+        myLastStart = start;
+        myKeyModifier = 0;
+        int destinationId = getId(destination);
+        myLookaheads[destinationId] = 0;
+        queue(destinationId);
+    }
+
+    private void computeShortestPath (int startId) {
+        T start = myIds.getNode(startId);
+        while (!myQueue.isEmpty() &&
+               (compareToKey(myQueue.peek(), startId) < 0 ||
+                myLookaheads[startId] != myScores[startId])) {
+            int id = myQueue.peek();
+            T node = myIds.getNode(id);
+            double oldKey = myQueue.getKey(id);
+            double oldSecondKey = mySecondKeys[id];
+            double newKey = getKey(start, id);
+            if (oldKey < newKey || (oldKey == newKey && oldSecondKey < getSecondKey(id))) {
+                queue(id);
+                continue;
+            }
+            myQueue.poll();
+            myExpandedNodes++;
+            if (myScores[id] > myLookaheads[id]) {
+                myScores[id] = myLookaheads[id];
+            }
+            else {
+                myScores[id] = Double.POSITIVE_INFINITY;
+                updateNode(id);
+            }
+            for (T predecessor : getPredecessors(node)) {
+                updateNode(getId(predecessor));
+            }
+        }
+    }
+
+    /**
+     * Recomputes the lookahead score of a node from its neighbors and queues it if it is
+     * inconsistent.
+     */
+    private void updateNode (int id) {
+        T node = myIds.getNode(id);
+        if (!isDestination(node, myDestination)) {
+            double best = Double.POSITIVE_INFINITY;
+            for (T neighbor : getNeighbors(node)) {
+                int neighborId = getId(neighbor);
+                double score = myScores[neighborId];
+                if (score < Double.POSITIVE_INFINITY) {
+                    best = Math.min(best, getCheckedCost(node, neighbor) + score);
+                }
+            }
+            myLookaheads[id] = best;
+        }
+        if (myScores[id] != myLookaheads[id]) {
+            queue(id);
+        }
+        else {
+            myQueue.remove(id);
+        }
+    }
+
+    /**
+     * Queues a node with its current key. The node is taken out first, since the heap only moves
+     * a queued id when its first key changes.
+     */
+    private void queue (int id) {
+        myQueue.remove(id);
+        mySecondKeys[id] = getSecondKey(id);
+        myQueue.offer(id, getKey(myLastStart, id));
+        myGeneratedNodes++;
+        myPeakQueueSize = Math.max(myPeakQueueSize, myQueue.size());
+    }
+
+    private double getKey (T start, int id) {
+        double heuristic = getCheckedHeuristicValue(start, myIds.getNode(id));
+        return getSecondKey(id) + heuristic + myKeyModifier;
+    }
+
+    private double getSecondKey (int id) {
+        return Math.min(myScores[id], myLookaheads[id]);
+    }
+
+    /**
+     * Compares the queued key of a node with the current key of another, lexicographically.
+     */
+    private int compareToKey (int queuedId, int id) {
+        int result = Double.compare(myQueue.getKey(queuedId), getKey(myLastStart, id));
+        if (result != 0) { return result; }
+        return Double.compare(mySecondKeys[queuedId], getSecondKey(id));
+    }
+
+    /**
+     * Follows the cheapest neighbor from the start until the destination is reached.
+     */
+    private List<T> buildPath (T start) {
+        List<T> path = new ArrayList<>();
+        T node = start;
+        path.add(node);
+        while (!isDestination(node, myDestination)) {
+            T next = null;
+            double best = Double.POSITIVE_INFINITY;
+            for (T neighbor : getNeighbors(node)) {
+                int neighborId = myIds.findId(neighbor);
+                if (neighborId == NodeIndexer.ABSENT) {
+                    continue;
+                }
+                double score = getCheckedCost(node, neighbor) + myScores[neighborId];
+                if (score < best || (score == best && next != null &&
+                                     breakTie(neighbor, next) < 0)) {
+                    best = score;
+                    next = neighbor;
+                }
+            }
+            if (next == null || path.size() > myIds.size()) { return null; }
+            node = next;
+            path.add(node);
+        }
+        return path;
+    }
+
+    private int getId (T node) {
+        int knownNodes = myIds.size();
+        int id = myIds.getId(node);
+        if (id == knownNodes) {
+            if (id == myScores.length) {
+                int newLength = id * 2;
+                myScores = Arrays.copyOf(myScores, newLength);
+                myLookaheads = Arrays.copyOf(myLookaheads, newLength);
+                mySecondKeys = Arrays.copyOf(mySecondKeys, newLength);
+            }
+            myScores[id] = Double.POSITIVE_INFINITY;
+            myLookaheads[id] = Double.POSITIVE_INFINITY;
+        }
+        return id;
+    }
+}
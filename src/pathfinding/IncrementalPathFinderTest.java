@@ -0,0 +1,214 @@
+package pathfinding;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+
+/**
+ * Places walls on the path of a walking unit and checks the repaired paths against searches
+ * from scratch.
+ */
+public class IncrementalPathFinderTest {
+
+    private static final int[][] MOVES = { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 } };
+    private static final double TOLERANCE = 1e-6;
+
+    @Test
+    public void testRepairedPathsMatchFreshSearches () {
+        Random rand = new Random(13);
+        int width = 60;
+        int height = 60;
+        TileMap map = new TileMap(width, height);
+        for (int i = 0; i < width * height / 5; i++) {
+            map.myBlocked[rand.nextInt(width)][rand.nextInt(height)] = true;
+        }
+        Tile start = new Tile(0, 0);
+        Tile destination = new Tile(width - 1, height - 1);
+        map.myBlocked[0][0] = false;
+        map.myBlocked[width - 1][height - 1] = false;
+        TestIncrementalFinder finder = new TestIncrementalFinder(map);
+        ReferenceFinder reference = new ReferenceFinder(map);
+        final SearchStatistics[] lastSearch = new SearchStatistics[1];
+        finder.setSearchListener(new ISearchListener() {
+            @Override
+            public void searchFinished (SearchStatistics statistics) {
+                lastSearch[0] = statistics;
+            }
+        });
+
+        List<Tile> path = finder.findPath(start, destination);
+        int initialExpansions = finder.getExpandedNodeCount();
+        int repairExpansions = 0;
+        int repairs = 0;
+        while (path != null && path.size() > 3) {
+            start = path.get(1);
+            Tile wall = path.get(path.size() / 2);
+            map.myBlocked[wall.myX][wall.myY] = true;
+            for (Tile neighbor : map.getAdjacentTiles(wall)) {
+                finder.edgeCostChanged(neighbor, wall);
+            }
+            finder.nodeChanged(wall);
+            path = finder.findPath(start, destination);
+            repairExpansions += finder.getExpandedNodeCount();
+            repairs++;
+            assertEquals(finder.getExpandedNodeCount(), lastSearch[0].getExpandedNodes());
+            assertEquals(path == null ? 0 : path.size(), lastSearch[0].getPathLength());
+            List<Tile> expected = reference.findPath(start, destination);
+            if (expected == null) {
+                assertNull(path);
+            }
+            else {
+                assertEquals(start, path.get(0));
+                assertEquals(destination, path.get(path.size() - 1));
+                assertEquals(map.pathCost(expected), map.pathCost(path), TOLERANCE);
+            }
+        }
+        assertTrue(repairs > 0);
+        assertTrue(repairExpansions / repairs < initialExpansions / 4);
+    }
+
+    private static class Tile {
+        private int myX;
+        private int myY;
+
+        public Tile (int x, int y) {
+            myX = x;
+            myY = y;
+        }
+
+        @Override
+        public boolean equals (Object other) {
+            if (other == null || !(other instanceof Tile)) { return false; }
+            Tile otherTile = (Tile) other;
+            return myX == otherTile.myX && myY == otherTile.myY;
+        }
+
+        @Override
+        public int hashCode () {
+            return 31 * myX + myY;
+        }
+
+        @Override
+        public String toString () {
+            return myX + ", " + myY;
+        }
+    }
+
+    /**
+     * Four-connected tiles where moving onto a tile costs 1 plus its y coordinate modulo 3.
+     */
+    private static class TileMap {
+        private boolean[][] myBlocked;
+
+        public TileMap (int width, int height) {
+            myBlocked = new boolean[width][height];
+        }
+
+        public List<Tile> getAdjacentTiles (Tile tile) {
+            List<Tile> tiles = new ArrayList<>();
+            for (int[] move : MOVES) {
+                int x = tile.myX + move[0];
+                int y = tile.myY + move[1];
+                if (x >= 0 && x < myBlocked.length && y >= 0 && y < myBlocked[0].length) {
+                    tiles.add(new Tile(x, y));
+                }
+            }
+            return tiles;
+        }
+
+        public List<Tile> getNeighbors (Tile tile) {
+            List<Tile> neighbors = new ArrayList<>();
+            if (myBlocked[tile.myX][tile.myY]) { return neighbors; }
+            for (Tile adjacent : getAdjacentTiles(tile)) {
+                if (!myBlocked[adjacent.myX][adjacent.myY]) {
+                    neighbors.add(adjacent);
+                }
+            }
+            return neighbors;
+        }
+
+        public double getCost (Tile endingTile) {
+            return 1 + endingTile.myY % 3;
+        }
+
+        public double pathCost (List<Tile> path) {
+            double cost = 0;
+            for (int i = 1; i < path.size(); i++) {
+                cost += getCost(path.get(i));
+            }
+            return cost;
+        }
+
+        public double getDistance (Tile tile, Tile other) {
+            return Math.abs(tile.myX - other.myX) + Math.abs(tile.myY - other.myY);
+        }
+
+        public int breakTie (Tile tile, Tile other) {
+            return tile.myX != other.myX ? tile.myX - other.myX : tile.myY - other.myY;
+        }
+    }
+
+    private static class TestIncrementalFinder extends IncrementalPathFinder<Tile> {
+        private TileMap myMap;
+
+        public TestIncrementalFinder (TileMap map) {
+            myMap = map;
+        }
+
+        @Override
+        public Number getCost (Tile beginningNode, Tile endingNode) {
+            return myMap.getCost(endingNode);
+        }
+
+        @Override
+        public Iterable<Tile> getNeighbors (Tile node) {
+            return myMap.getNeighbors(node);
+        }
+
+        @Override
+        public Iterable<Tile> getPredecessors (Tile node) {
+            return myMap.getNeighbors(node);
+        }
+
+        @Override
+        public Number getHeuristicValue (Tile node, Tile destination) {
+            return myMap.getDistance(node, destination);
+        }
+
+        @Override
+        public int breakTie (Tile node, Tile other) {
+            return myMap.breakTie(node, other);
+        }
+    }
+
+    private static class ReferenceFinder extends AStarPathFinder<Tile> {
+        private TileMap myMap;
+
+        public ReferenceFinder (TileMap map) {
+            myMap = map;
+        }
+
+        @Override
+        public Number getCost (Tile beginningNode, Tile endingNode) {
+            return myMap.getCost(endingNode);
+        }
+
+        @Override
+        public Iterable<Tile> getNeighbors (Tile node) {
+            return myMap.getNeighbors(node);
+        }
+
+        @Override
+        public Number getHeuristicValue (Tile node, Tile destination) {
+            return myMap.getDistance(node, destination);
+        }
+
+        @Override
+        public int breakTie (Tile node, Tile other) {
+            return myMap.breakTie(node, other);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package pathfinding;
+
+import java.util.List;
+
+
+/**
+ * A* path finder that maps every node it discovers to a dense int id and keeps the search state
+ * in primitive arrays. Scores are stored in a double[] rather than as boxed Numbers, and the
+ * frontier is an IndexedMinHeap, so improving the score of a queued node is an O(log n)
+ * decrease-key instead of PriorityQueue's linear contains/remove.
+ *
+ * Subclasses define exactly the same hooks as for AStarPathFinder and have the same
+ * requirements, so an existing finder can switch by changing the class it extends. Nodes are
+ * expanded in the same order, ties are broken with breakTie, and the same path is returned.
+ *
+ * The search storage is a SearchWorkspace. Callers can pass their own (for example from a pool);
+ * otherwise the finder keeps one per thread, so a finder can be shared between threads as long
+ * as its hooks can. Either way, repeated searches reuse the workspace's arrays and allocate
+ * nothing in the finder itself except the returned path.
+ *
+ * @param <T> Any object type.
+ */
+public abstract class IndexedAStarPathFinder<T> extends AStarPathFinder<T>
+        implements IWeightedPathFinder<T> {
+
+    static final int NOT_REACHED = -1;
+
+    private final ThreadLocal<SearchWorkspace<T>> myWorkspaces =
+            new ThreadLocal<SearchWorkspace<T>>() {
+                @Override
+                protected SearchWorkspace<T> initialValue () {
+                    return new SearchWorkspace<>();
+                }
+            };
+
+    @Override
+    public List<T> findPath (T start, T destination) throws InvalidCostException {
+        return findPath(start, destination, 1, myWorkspaces.get());
+    }
+
+    @Override
+    public List<T> findPath (T start, T destination, double epsilon) throws InvalidCostException {
+        return findPath(start, destination, epsilon, myWorkspaces.get());
+    }
+
+    /**
+     * Finds the least cost path using the given workspace for all search storage.
+     *
+     * @param start Starting node
+     * @param destination Ending node
+     * @param workspace Workspace not in use by any other search
+     * @return Path from start to destination in order, or null if there is none.
+     */
+    public List<T> findPath (T start, T destination, SearchWorkspace<T> workspace)
+            throws InvalidCostException {
+        return findPath(start, destination, 1, workspace);
+    }
+
+    /**
+     * Finds a path with weighted A* using the given workspace for all search storage.
+     *
+     * @param start Starting node
+     * @param destination Ending node
+     * @param epsilon Heuristic inflation factor, at least 1; the path costs at most epsilon times
+     *        the least cost
+     * @param workspace Workspace not in use by any other search
+     * @return Path from start to destination in order, or null if there is none.
+     */
+    public List<T> findPath (T start, T destination, double epsilon,
+                             SearchWorkspace<T> workspace) throws InvalidCostException {
+        checkEpsilon(epsilon);
+        ISearchListener listener = getSearchListener();
+        long startTime = listener == null ? 0 : System.nanoTime();
+        if (!canReach(start, destination)) {
+            return reportSearch(listener, startTime, null, 0, 0, 0, 0);
+        }
+        beginSearch(start, destination, epsilon, workspace);
+        IndexedMinHeap frontier = workspace.getFrontier();
+        List<T> path = null;
+        while (!frontier.isEmpty()) {
+            int reachedId = expandBest(destination, epsilon, workspace);
+            if (reachedId != NOT_REACHED) {
+                path = workspace.buildPath(reachedId);
+                break;
+            }
+        }
+        if (listener == null) { return path; }
+        return reportSearch(listener, startTime, path, workspace.getExpandedNodeCount(),
+                            workspace.getGeneratedNodeCount(), workspace.getPeakFrontierSize(),
+                            0);
+    }
+
+    /**
+     * Starts a search that runs only when its step method is called, so a long query can be
+     * spread over several frames. The search keeps all of its state in its own workspace.
+     *
+     * @param start Starting node
+     * @param destination Ending node
+     * @return Handle to the search, which has not expanded any node yet. It is already complete,
+     *         with no path, if the connectivity index shows that none exists.
+     */
+    public PathSearch<T> startSearch (T start, T destination) {
+        return startSearch(start, destination, 1);
+    }
+
+    /**
+     * Starts a weighted search that runs only when its step method is called.
+     *
+     * @param start Starting node
+     * @param destination Ending node
+     * @param epsilon Heuristic inflation factor, at least 1
+     * @return Handle to the search, which has not expanded any node yet. It is already complete,
+     *         with no path, if the connectivity index shows that none exists.
+     */
+    public PathSearch<T> startSearch (T start, T destination, double epsilon) {
+        checkEpsilon(epsilon);
+        return new PathSearch<>(this, start, destination, epsilon);
+    }
+
+    /**
+     * Prepares the workspace for a search and queues the start node.
+     */
+    void beginSearch (T start, T destination, double epsilon, SearchWorkspace<T> workspace) {
+        workspace.reset(this);
+        int startId = workspace.getId(start);
+        workspace.discover(startId, 0, SearchWorkspace.NO_PARENT);
+        workspace.getFrontier()
+                .offer(startId, epsilon * getCheckedHeuristicValue(start, destination));
+        workspace.countGeneration();
+    }
+
+    /**
+     * Takes the best node off the workspace's non-empty frontier and, unless it is the
+     * destination, closes it and relaxes the moves out of it.
+     *
+     * @return Id of the node if it is the destination, or NOT_REACHED.
+     */
+    int expandBest (T destination, double epsilon, SearchWorkspace<T> workspace) {
+        IndexedMinHeap frontier = workspace.getFrontier();
+        int currentId = frontier.poll();
+        T currentNode = workspace.getNode(currentId);
+        if (isDestination(currentNode, destination)) { return currentId; }
+        workspace.close(currentId);
+        workspace.countExpansion();
+        double valueSoFar = workspace.getScore(currentId);
+        for (T neighboringNextNode : getNeighbors(currentNode)) {
+            int neighborId = workspace.getId(neighboringNextNode);
+            if (!workspace.isClosed(neighborId)) {
+                double gScore = valueSoFar + getCheckedCost(currentNode, neighboringNextNode);
+                if (!workspace.isDiscovered(neighborId) ||
+                    gScore < workspace.getScore(neighborId)) {
+                    workspace.discover(neighborId, gScore, currentId);
+                    double hScore = getCheckedHeuristicValue(neighboringNextNode, destination);
+                    frontier.offer(neighborId, gScore + epsilon * hScore);
+                    workspace.countGeneration();
+                }
+            }
+        }
+        return NOT_REACHED;
+    }
+}
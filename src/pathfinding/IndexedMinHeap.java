@@ -0,0 +1,203 @@
+package pathfinding;
+
+import java.util.Arrays;
+
+
+/**
+ * Indexed d-ary min-heap over dense int ids with double keys. Every id is in the heap at most
+ * once and the heap remembers where each id is stored, so changing the key of a queued id
+ * (decrease-key) costs O(log n) instead of the linear contains/remove a PriorityQueue needs.
+ * Ids must be non-negative; storage grows as larger ids are offered.
+ */
+public class IndexedMinHeap {
+
+    /**
+     * Orders two ids whose keys are equal. Follows the contract of Comparator's compare.
+     */
+    public interface TieBreaker {
+        public int compare (int id, int otherId);
+    }
+
+    private static final int DEFAULT_ARITY = 4;
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final int ABSENT = -1;
+
+    private final int myArity;
+    private final TieBreaker myTieBreaker;
+    private int[] myHeap;
+    private int[] myPositions;
+    private double[] myKeys;
+    private int mySize;
+
+    public IndexedMinHeap () {
+        this(DEFAULT_ARITY, null);
+    }
+
+    /**
+     * @param arity Number of children per heap node. Must be at least 2.
+     * @param tieBreaker Orders ids with equal keys; may be null, in which case the order of ties
+     *        is unspecified.
+     */
+    public IndexedMinHeap (int arity, TieBreaker tieBreaker) {
+        if (arity < 2) { throw new IllegalArgumentException("Heap arity must be at least 2"); }
+        myArity = arity;
+        myTieBreaker = tieBreaker;
+        myHeap = new int[DEFAULT_CAPACITY];
+        myPositions = new int[DEFAULT_CAPACITY];
+        Arrays.fill(myPositions, ABSENT);
+        myKeys = new double[DEFAULT_CAPACITY];
+    }
+
+    public int size () {
+        return mySize;
+    }
+
+    public boolean isEmpty () {
+        return mySize == 0;
+    }
+
+    public boolean contains (int id) {
+        return id < myPositions.length && myPositions[id] != ABSENT;
+    }
+
+    /**
+     * @return Key the id was last offered with. Only meaningful while the id is in the heap.
+     */
+    public double getKey (int id) {
+        return myKeys[id];
+    }
+
+    /**
+     * Inserts the id with the given key, or moves it to the given key if it is already queued.
+     */
+    public void offer (int id, double key) {
+        ensureIdCapacity(id);
+        int position = myPositions[id];
+        if (position == ABSENT) {
+            if (mySize == myHeap.length) {
+                myHeap = Arrays.copyOf(myHeap, mySize * 2);
+            }
+            myKeys[id] = key;
+            siftUp(mySize++, id);
+            return;
+        }
+        double oldKey = myKeys[id];
+        myKeys[id] = key;
+        if (key < oldKey) {
+            siftUp(position, id);
+        }
+        else if (key > oldKey) {
+            siftDown(position, id);
+        }
+    }
+
+    /**
+     * @return Id with the smallest key, without removing it.
+     */
+    public int peek () {
+        if (mySize == 0) { throw new IllegalStateException("Heap is empty"); }
+        return myHeap[0];
+    }
+
+    /**
+     * Removes and returns the id with the smallest key.
+     */
+    public int poll () {
+        int id = peek();
+        myPositions[id] = ABSENT;
+        mySize--;
+        if (mySize > 0) {
+            siftDown(0, myHeap[mySize]);
+        }
+        return id;
+    }
+
+    /**
+     * Removes the id from the heap.
+     *
+     * @return Whether the id was queued.
+     */
+    public boolean remove (int id) {
+        if (!contains(id)) { return false; }
+        int position = myPositions[id];
+        myPositions[id] = ABSENT;
+        mySize--;
+        if (position != mySize) {
+            int lastId = myHeap[mySize];
+            siftDown(position, lastId);
+            if (myPositions[lastId] == position) {
+                siftUp(position, lastId);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Empties the heap. Runs in time proportional to the number of queued ids, not the number of
+     * ids ever offered.
+     */
+    public void clear () {
+        for (int i = 0; i < mySize; i++) {
+            myPositions[myHeap[i]] = ABSENT;
+        }
+        mySize = 0;
+    }
+
+    private void siftUp (int position, int id) {
+        while (position > 0) {
+            int parentPosition = (position - 1) / myArity;
+            int parentId = myHeap[parentPosition];
+            if (!precedes(id, parentId)) {
+                break;
+            }
+            place(parentId, position);
+            position = parentPosition;
+        }
+        place(id, position);
+    }
+
+    private void siftDown (int position, int id) {
+        while (true) {
+            int firstChild = position * myArity + 1;
+            if (firstChild >= mySize) {
+                break;
+            }
+            int lastChild = Math.min(firstChild + myArity, mySize);
+            int bestPosition = firstChild;
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (precedes(myHeap[child], myHeap[bestPosition])) {
+                    bestPosition = child;
+                }
+            }
+            int bestId = myHeap[bestPosition];
+            if (!precedes(bestId, id)) {
+                break;
+            }
+            place(bestId, position);
+            position = bestPosition;
+        }
+        place(id, position);
+    }
+
+    private boolean precedes (int id, int otherId) {
+        double key = myKeys[id];
+        double otherKey = myKeys[otherId];
+        if (key != otherKey) { return key < otherKey; }
+        return myTieBreaker != null && myTieBreaker.compare(id, otherId) < 0;
+    }
+
+    private void place (int id, int position) {
+        myHeap[position] = id;
+        myPositions[id] = position;
+    }
+
+    private void ensureIdCapacity (int id) {
+        if (id < 0) { throw new IllegalArgumentException("Heap ids must be non-negative"); }
+        if (id < myPositions.length) { return; }
+        int oldLength = myPositions.length;
+        int newLength = Math.max(id + 1, oldLength * 2);
+        myPositions = Arrays.copyOf(myPositions, newLength);
+        Arrays.fill(myPositions, oldLength, newLength, ABSENT);
+        myKeys = Arrays.copyOf(myKeys, newLength);
+    }
+}
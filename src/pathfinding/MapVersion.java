@@ -0,0 +1,22 @@
+package pathfinding;
+
+/**
+ * Version counter for maps that do not keep one themselves. Call increment after every change
+ * to the map.
+ */
+public class MapVersion implements IMapVersion {
+
+    private volatile long myVersion;
+
+    @Override
+    public long getMapVersion () {
+        return myVersion;
+    }
+
+    /**
+     * Marks everything computed from the map so far as out of date.
+     */
+    public synchronized void increment () {
+        myVersion++;
+    }
+}
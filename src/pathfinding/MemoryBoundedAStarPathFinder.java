@@ -0,0 +1,375 @@
+package pathfinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+
+/**
+ * Path finder for state spaces too large to keep in memory, such as puzzles whose neighbors are
+ * generated by getNeighbors, using the SMA* algorithm. The search tree holds at most a fixed
+ * number of nodes. When it is full, the leaf with the highest f score (the shallowest, among
+ * equals) is forgotten. Its parent remembers the leaf's score and goes back on the open set, to
+ * generate the leaf again with that score if the search comes back that way. Once all of a
+ * node's successors have been generated, its score is raised to the best of theirs, so what the
+ * search learns about a subtree outlives the subtree itself. Nodes are generated one successor
+ * at a time, successors already on the path to a node are skipped, and subtrees that cannot
+ * reach the destination within the cap are dropped for good, so the search needs no closed set.
+ * getNeighbors must return a node's neighbors in the same order every time.
+ *
+ * The returned path is a least cost path whenever such a path has no more nodes than the cap,
+ * and the heuristic never overestimates. If no path fits, findPath returns null. Memory does not
+ * grow with the size of the state space, but a tight cap makes the search regenerate nodes many
+ * times over.
+ *
+ * Searches keep no state in the finder, so one finder can search from several threads at once.
+ *
+ * @param <T> Any object type that implements equals consistently.
+ */
+public abstract class MemoryBoundedAStarPathFinder<T> extends AStarPathFinder<T>
+        implements IWeightedPathFinder<T> {
+
+    private static final int DEFAULT_MAX_NODES = 1 << 16;
+
+    private final int myMaxNodes;
+
+    public MemoryBoundedAStarPathFinder () {
+        this(DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * @param maxNodes Most search tree nodes to keep at once, at least 2
+     */
+    public MemoryBoundedAStarPathFinder (int maxNodes) {
+        if (maxNodes < 2) {
+            throw new IllegalArgumentException("Search must keep at least two nodes");
+        }
+        myMaxNodes = maxNodes;
+    }
+
+    public int getMaxNodes () {
+        return myMaxNodes;
+    }
+
+    @Override
+    public List<T> findPath (T start, T destination) throws InvalidCostException {
+        return findPath(start, destination, 1);
+    }
+
+    /**
+     * Finds a path with weighted SMA*, which multiplies every heuristic value by epsilon. The
+     * search keeps to the same node cap, and a path found costs at most epsilon times the least
+     * cost among paths that fit under it.
+     */
+    @Override
+    public List<T> findPath (T start, T destination, double epsilon) throws InvalidCostException {
+        checkEpsilon(epsilon);
+        ISearchListener listener = getSearchListener();
+        long startTime = listener == null ? 0 : System.nanoTime();
+        if (!canReach(start, destination)) {
+            return reportSearch(listener, startTime, null, 0, 0, 0, 0);
+        }
+        Search search = new Search(destination, epsilon);
+        search.add(new Node(start, null, 0, 0,
+                            epsilon * getCheckedHeuristicValue(start, destination)));
+        while (!search.myOpen.isEmpty()) {
+            Node best = search.myOpen.first();
+            if (isDestination(best.myState, destination)) {
+                return search.report(listener, startTime, best.buildPath());
+            }
+            search.myExpandedNodes++;
+            Node child = search.generateSuccessor(best);
+            if (child == null) {
+                search.finishExpanding(best);
+                continue;
+            }
+            if (search.mySize == myMaxNodes) {
+                search.forgetWorstLeaf(best);
+            }
+            search.add(child);
+            if (best.myExpanded) {
+                search.backUp(best);
+            }
+        }
+        return search.report(listener, startTime, null);
+    }
+
+    /**
+     * One node of the search tree. Successors are generated in getNeighbors order; the cursor is
+     * the index of the next one never generated. Forgotten children are kept as their index and
+     * their score at the time they were forgotten.
+     */
+    private class Node {
+        private final T myState;
+        private final Node myParent;
+        private final int myIndex;
+        private final int myDepth;
+        private final double myCost;
+        private final List<Node> myChildren = new ArrayList<>(2);
+        private BitSet myForgotten;
+        private double[] myForgottenScores;
+        private double myScore;
+        private int myNextSuccessor;
+        private boolean myExpanded;
+        private long mySerial;
+
+        /**
+         * @param index Position of state among the parent's neighbors
+         */
+        public Node (T state, Node parent, int index, double cost, double score) {
+            myState = state;
+            myParent = parent;
+            myIndex = index;
+            myDepth = parent == null ? 0 : parent.myDepth + 1;
+            myCost = cost;
+            myScore = score;
+        }
+
+        public boolean isLeaf () {
+            return myChildren.isEmpty();
+        }
+
+        public boolean hasForgotten () {
+            return myForgotten != null && !myForgotten.isEmpty();
+        }
+
+        public void forget (Node child) {
+            if (myForgotten == null) {
+                myForgotten = new BitSet();
+                myForgottenScores = new double[child.myIndex + 1];
+            }
+            else if (child.myIndex >= myForgottenScores.length) {
+                myForgottenScores = Arrays.copyOf(myForgottenScores, child.myIndex + 1);
+            }
+            myForgotten.set(child.myIndex);
+            myForgottenScores[child.myIndex] = child.myScore;
+            myChildren.remove(child);
+        }
+
+        /**
+         * @return Index of the forgotten child with the lowest score.
+         */
+        public int getBestForgotten () {
+            int best = myForgotten.nextSetBit(0);
+            for (int i = best; i >= 0; i = myForgotten.nextSetBit(i + 1)) {
+                if (myForgottenScores[i] < myForgottenScores[best]) {
+                    best = i;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * @return Lowest score among the children, forgotten or not.
+         */
+        public double getBestChildScore () {
+            double best = Double.POSITIVE_INFINITY;
+            for (Node child : myChildren) {
+                best = Math.min(best, child.myScore);
+            }
+            if (myForgotten != null) {
+                for (int i = myForgotten.nextSetBit(0); i >= 0; i = myForgotten.nextSetBit(i + 1)) {
+                    best = Math.min(best, myForgottenScores[i]);
+                }
+            }
+            return best;
+        }
+
+        public boolean isOnPath (T state) {
+            for (Node node = this; node != null; node = node.myParent) {
+                if (node.myState.equals(state)) { return true; }
+            }
+            return false;
+        }
+
+        public List<T> buildPath () {
+            List<T> path = new ArrayList<>(myDepth + 1);
+            for (Node node = this; node != null; node = node.myParent) {
+                path.add(node.myState);
+            }
+            Collections.reverse(path);
+            return path;
+        }
+    }
+
+    /**
+     * Storage for one call to findPath. The open set holds every node with successors that are
+     * forgotten or not yet generated, best first; the leaves are also ordered worst first for
+     * forgetting.
+     */
+    private class Search {
+        private final T myDestination;
+        private final double myEpsilon;
+        private final TreeSet<Node> myOpen = new TreeSet<>(new Comparator<Node>() {
+            @Override
+            public int compare (Node node, Node other) {
+                int compareValue = Double.compare(node.myScore, other.myScore);
+                if (compareValue == 0) {
+                    compareValue = Integer.compare(other.myDepth, node.myDepth);
+                }
+                return compareValue == 0 ? Long.compare(node.mySerial, other.mySerial)
+                                         : compareValue;
+            }
+        });
+        private final TreeSet<Node> myLeaves = new TreeSet<>(new Comparator<Node>() {
+            @Override
+            public int compare (Node node, Node other) {
+                int compareValue = Double.compare(other.myScore, node.myScore);
+                if (compareValue == 0) {
+                    compareValue = Integer.compare(node.myDepth, other.myDepth);
+                }
+                return compareValue == 0 ? Long.compare(node.mySerial, other.mySerial)
+                                         : compareValue;
+            }
+        });
+        private int mySize;
+        private long myNextSerial;
+        private long myExpandedNodes;
+        private long myGeneratedNodes;
+        private long myReopenedNodes;
+        private long myPeakSize;
+
+        public Search (T destination, double epsilon) {
+            myDestination = destination;
+            myEpsilon = epsilon;
+        }
+
+        public void add (Node node) {
+            node.mySerial = myNextSerial++;
+            if (node.myParent != null) {
+                myLeaves.remove(node.myParent);
+                node.myParent.myChildren.add(node);
+            }
+            myOpen.add(node);
+            myLeaves.add(node);
+            mySize++;
+            myGeneratedNodes++;
+            myPeakSize = Math.max(myPeakSize, mySize);
+        }
+
+        /**
+         * @return The next successor of node never generated, or once there are none, the
+         *         forgotten child with the lowest score; null if there is neither. Successors on
+         *         the path to node or too deep to fit under the cap are never generated, since no
+         *         least cost path within the cap could go through them.
+         */
+        public Node generateSuccessor (Node node) {
+            if (!node.myExpanded) {
+                int index = 0;
+                for (T state : getNeighbors(node.myState)) {
+                    int current = index++;
+                    if (current < node.myNextSuccessor) {
+                        continue;
+                    }
+                    node.myNextSuccessor = index;
+                    boolean isDestination = isDestination(state, myDestination);
+                    if (node.isOnPath(state) ||
+                        node.myDepth + 1 >= myMaxNodes - (isDestination ? 0 : 1)) {
+                        continue;
+                    }
+                    return createChild(node, state, current, node.myScore);
+                }
+                node.myExpanded = true;
+            }
+            if (!node.hasForgotten()) { return null; }
+            int forgotten = node.getBestForgotten();
+            node.myForgotten.clear(forgotten);
+            int index = 0;
+            for (T state : getNeighbors(node.myState)) {
+                if (index++ == forgotten) {
+                    myReopenedNodes++;
+                    return createChild(node, state, forgotten,
+                                       node.myForgottenScores[forgotten]);
+                }
+            }
+            throw new IllegalStateException("Neighbors of " + node.myState + " changed");
+        }
+
+        /**
+         * Called once every successor of node is in memory. Node leaves the open set, and a node
+         * left with no children cannot reach the destination, so it is removed for good along
+         * with any fully expanded ancestors it leaves childless.
+         */
+        public void finishExpanding (Node node) {
+            myOpen.remove(node);
+            while (node != null && node.myExpanded && node.isLeaf() && !node.hasForgotten()) {
+                myOpen.remove(node);
+                myLeaves.remove(node);
+                mySize--;
+                Node parent = node.myParent;
+                if (parent != null) {
+                    parent.myChildren.remove(node);
+                    if (parent.isLeaf()) {
+                        myLeaves.add(parent);
+                    }
+                }
+                node = parent;
+            }
+            backUp(node);
+        }
+
+        /**
+         * Forgets the worst leaf other than the node being expanded and the root.
+         */
+        public void forgetWorstLeaf (Node expanding) {
+            for (Node leaf : myLeaves) {
+                if (leaf != expanding && leaf.myParent != null) {
+                    myLeaves.remove(leaf);
+                    myOpen.remove(leaf);
+                    mySize--;
+                    Node parent = leaf.myParent;
+                    parent.forget(leaf);
+                    myOpen.add(parent);
+                    if (parent.isLeaf()) {
+                        myLeaves.add(parent);
+                    }
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Raises the scores of fully expanded nodes, from node up, to the best score among
+         * their children.
+         */
+        public void backUp (Node node) {
+            for (; node != null && node.myExpanded; node = node.myParent) {
+                double score = Math.max(node.myScore, node.getBestChildScore());
+                if (score == node.myScore) {
+                    return;
+                }
+                setScore(node, score);
+            }
+        }
+
+        public List<T> report (ISearchListener listener, long startTime, List<T> path) {
+            return reportSearch(listener, startTime, path, myExpandedNodes, myGeneratedNodes,
+                                myPeakSize, myReopenedNodes);
+        }
+
+        private Node createChild (Node node, T state, int index, double minimumScore) {
+            double cost = node.myCost + getCheckedCost(node.myState, state);
+            double score = cost + myEpsilon * getCheckedHeuristicValue(state, myDestination);
+            return new Node(state, node, index, cost, Math.max(minimumScore, score));
+        }
+
+        /**
+         * Changes a node's score, moving it within whichever ordered sets hold it.
+         */
+        private void setScore (Node node, double score) {
+            boolean open = myOpen.remove(node);
+            boolean leaf = myLeaves.remove(node);
+            node.myScore = score;
+            if (open) {
+                myOpen.add(node);
+            }
+            if (leaf) {
+                myLeaves.add(node);
+            }
+        }
+    }
+}
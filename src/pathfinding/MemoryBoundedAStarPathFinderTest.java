@@ -0,0 +1,217 @@
+package pathfinding;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+
+/**
+ * Checks memory-bounded searches on the eight puzzle, whose states are generated on the fly,
+ * against the least cost paths of AStarPathFinder.
+ */
+public class MemoryBoundedAStarPathFinderTest {
+
+    private static final int SIZE = 3;
+    private static final Puzzle SOLVED = new Puzzle(new int[] { 1, 2, 3, 4, 5, 6, 7, 8, 0 });
+
+    @Test
+    public void testOptimalPathsUnderNodeCap () {
+        Random rand = new Random(31);
+        AStarPathFinder<Puzzle> finder = new TestFinder();
+        for (int cap : new int[] { 32, 512 }) {
+            MemoryBoundedAStarPathFinder<Puzzle> boundedFinder = new TestBoundedFinder(cap);
+            final long[] peakSize = new long[1];
+            boundedFinder.setSearchListener(new ISearchListener() {
+                @Override
+                public void searchFinished (SearchStatistics statistics) {
+                    peakSize[0] = Math.max(peakSize[0], statistics.getPeakFrontierSize());
+                }
+            });
+            for (int i = 0; i < 10; i++) {
+                Puzzle start = scramble(SOLVED, 40, rand);
+                List<Puzzle> expected = finder.findPath(start, SOLVED);
+                List<Puzzle> result = boundedFinder.findPath(start, SOLVED);
+                assertEquals(expected.size(), result.size());
+                assertEquals(start, result.get(0));
+                assertEquals(SOLVED, result.get(result.size() - 1));
+                for (int j = 1; j < result.size(); j++) {
+                    assertTrue(result.get(j - 1).getNeighbors().contains(result.get(j)));
+                }
+            }
+            assertTrue(peakSize[0] <= cap);
+        }
+    }
+
+    @Test
+    public void testWeightedSearchesKeepNodeCap () {
+        Random rand = new Random(17);
+        AStarPathFinder<Puzzle> finder = new TestFinder();
+        int cap = 64;
+        MemoryBoundedAStarPathFinder<Puzzle> boundedFinder = new TestBoundedFinder(cap);
+        final long[] peakSize = new long[1];
+        boundedFinder.setSearchListener(new ISearchListener() {
+            @Override
+            public void searchFinished (SearchStatistics statistics) {
+                peakSize[0] = Math.max(peakSize[0], statistics.getPeakFrontierSize());
+            }
+        });
+        for (int i = 0; i < 10; i++) {
+            Puzzle start = scramble(SOLVED, 40, rand);
+            int expectedMoves = finder.findPath(start, SOLVED).size() - 1;
+            List<Puzzle> result = boundedFinder.findPath(start, SOLVED, 2);
+            assertEquals(start, result.get(0));
+            assertEquals(SOLVED, result.get(result.size() - 1));
+            assertTrue(result.size() - 1 <= 2 * expectedMoves);
+        }
+        assertTrue(peakSize[0] > 0);
+        assertTrue(peakSize[0] <= cap);
+    }
+
+    @Test
+    public void testNullWhenPathDoesNotFit () {
+        Puzzle start = scramble(SOLVED, 60, new Random(5));
+        int length = new TestFinder().findPath(start, SOLVED).size();
+        assertNull(new TestBoundedFinder(length - 1).findPath(start, SOLVED));
+        assertEquals(length, new TestBoundedFinder(length).findPath(start, SOLVED).size());
+    }
+
+    @Test
+    public void testConnectivityIndexSkipsSearch () {
+        // swapping two tiles gives a position that no sequence of moves can solve
+        Puzzle start = new Puzzle(new int[] { 2, 1, 3, 4, 5, 6, 7, 8, 0 });
+        MemoryBoundedAStarPathFinder<Puzzle> boundedFinder = new TestBoundedFinder(32);
+        ConnectivityIndex<Puzzle> index =
+                new ConnectivityIndex<>(boundedFinder, Arrays.asList(start, SOLVED));
+        assertEquals(2, index.getComponentCount());
+        boundedFinder.setConnectivityIndex(index);
+        SearchStatisticsAggregator statistics = new SearchStatisticsAggregator();
+        boundedFinder.setSearchListener(statistics);
+        assertNull(boundedFinder.findPath(start, SOLVED));
+        assertNull(boundedFinder.findPath(start, SOLVED, 2));
+        assertEquals(2, statistics.getSearchCount());
+        assertEquals(0, statistics.getExpandedNodes().getMaximum());
+    }
+
+    private static Puzzle scramble (Puzzle puzzle, int moves, Random rand) {
+        for (int i = 0; i < moves; i++) {
+            List<Puzzle> neighbors = puzzle.getNeighbors();
+            puzzle = neighbors.get(rand.nextInt(neighbors.size()));
+        }
+        return puzzle;
+    }
+
+    /**
+     * Sum over tiles of the moves each needs to reach its place, which never overestimates.
+     */
+    private static int manhattanDistance (Puzzle puzzle, Puzzle destination) {
+        int distance = 0;
+        for (int i = 0; i < puzzle.myTiles.length; i++) {
+            int tile = puzzle.myTiles[i];
+            if (tile == 0) {
+                continue;
+            }
+            int target = destination.indexOf(tile);
+            distance += Math.abs(i / SIZE - target / SIZE) + Math.abs(i % SIZE - target % SIZE);
+        }
+        return distance;
+    }
+
+    private static class Puzzle {
+        private final int[] myTiles;
+
+        public Puzzle (int[] tiles) {
+            myTiles = tiles;
+        }
+
+        public int indexOf (int tile) {
+            for (int i = 0; i < myTiles.length; i++) {
+                if (myTiles[i] == tile) { return i; }
+            }
+            return -1;
+        }
+
+        public List<Puzzle> getNeighbors () {
+            int blank = indexOf(0);
+            List<Puzzle> neighbors = new ArrayList<>(4);
+            int[][] directions = { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 } };
+            for (int[] direction : directions) {
+                int row = blank / SIZE + direction[0];
+                int column = blank % SIZE + direction[1];
+                if (row < 0 || row >= SIZE || column < 0 || column >= SIZE) {
+                    continue;
+                }
+                int[] tiles = myTiles.clone();
+                tiles[blank] = tiles[row * SIZE + column];
+                tiles[row * SIZE + column] = 0;
+                neighbors.add(new Puzzle(tiles));
+            }
+            return neighbors;
+        }
+
+        @Override
+        public boolean equals (Object other) {
+            return other instanceof Puzzle && Arrays.equals(myTiles, ((Puzzle) other).myTiles);
+        }
+
+        @Override
+        public int hashCode () {
+            return Arrays.hashCode(myTiles);
+        }
+
+        @Override
+        public String toString () {
+            return Arrays.toString(myTiles);
+        }
+    }
+
+    private static class TestFinder extends AStarPathFinder<Puzzle> {
+        @Override
+        public Number getCost (Puzzle beginningNode, Puzzle endingNode) {
+            return 1;
+        }
+
+        @Override
+        public Iterable<Puzzle> getNeighbors (Puzzle node) {
+            return node.getNeighbors();
+        }
+
+        @Override
+        public Number getHeuristicValue (Puzzle node, Puzzle destination) {
+            return manhattanDistance(node, destination);
+        }
+
+        @Override
+        public int breakTie (Puzzle node, Puzzle other) {
+            return 0;
+        }
+    }
+
+    private static class TestBoundedFinder extends MemoryBoundedAStarPathFinder<Puzzle> {
+        public TestBoundedFinder (int maxNodes) {
+            super(maxNodes);
+        }
+
+        @Override
+        public Number getCost (Puzzle beginningNode, Puzzle endingNode) {
+            return 1;
+        }
+
+        @Override
+        public Iterable<Puzzle> getNeighbors (Puzzle node) {
+            return node.getNeighbors();
+        }
+
+        @Override
+        public Number getHeuristicValue (Puzzle node, Puzzle destination) {
+            return manhattanDistance(node, destination);
+        }
+
+        @Override
+        public int breakTie (Puzzle node, Puzzle other) {
+            return 0;
+        }
+    }
+}
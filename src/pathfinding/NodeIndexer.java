@@ -0,0 +1,125 @@
+package pathfinding;
+
+import java.util.Arrays;
+
+
+/**
+ * Maps nodes to dense int ids (0, 1, 2, ...) in the order they are first seen, using an
+ * open-addressing hash table keyed on the nodes' equals and hashCode. Every slot carries the
+ * generation it was written in, so clear only starts a new generation instead of wiping the
+ * table. After the table has grown to fit the largest set of nodes, indexing allocates nothing.
+ *
+ * Cleared slots keep their node references until they are overwritten, so an indexer holds on
+ * to the nodes of its largest use until it is discarded.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public class NodeIndexer<T> {
+
+    public static final int ABSENT = -1;
+
+    private static final int INITIAL_TABLE_SIZE = 128;
+
+    private Object[] mySlotNodes;
+    private int[] mySlotIds;
+    private int[] mySlotGenerations;
+    private int myGeneration = 1;
+    private Object[] myNodes;
+    private int mySize;
+
+    public NodeIndexer () {
+        allocateTable(INITIAL_TABLE_SIZE);
+        myNodes = new Object[INITIAL_TABLE_SIZE / 2];
+    }
+
+    /**
+     * @return Id of the node, assigning the next free id if the node has not been seen since
+     *         the last clear.
+     */
+    public int getId (T node) {
+        int mask = mySlotNodes.length - 1;
+        int slot = hash(node) & mask;
+        while (mySlotGenerations[slot] == myGeneration) {
+            if (mySlotNodes[slot].equals(node)) { return mySlotIds[slot]; }
+            slot = (slot + 1) & mask;
+        }
+        int id = mySize++;
+        if (id == myNodes.length) {
+            myNodes = Arrays.copyOf(myNodes, id * 2);
+        }
+        myNodes[id] = node;
+        mySlotNodes[slot] = node;
+        mySlotIds[slot] = id;
+        mySlotGenerations[slot] = myGeneration;
+        if (mySize * 2 > mySlotNodes.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * @return Id of the node, or ABSENT if it has not been seen since the last clear.
+     */
+    public int findId (T node) {
+        int mask = mySlotNodes.length - 1;
+        int slot = hash(node) & mask;
+        while (mySlotGenerations[slot] == myGeneration) {
+            if (mySlotNodes[slot].equals(node)) { return mySlotIds[slot]; }
+            slot = (slot + 1) & mask;
+        }
+        return ABSENT;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T getNode (int id) {
+        if (id < 0 || id >= mySize) {
+            throw new IndexOutOfBoundsException("No node with id " + id);
+        }
+        return (T) myNodes[id];
+    }
+
+    /**
+     * @return Number of ids handed out since the last clear.
+     */
+    public int size () {
+        return mySize;
+    }
+
+    /**
+     * Forgets every node in constant time.
+     */
+    public void clear () {
+        mySize = 0;
+        myGeneration++;
+        if (myGeneration == Integer.MAX_VALUE) {
+            Arrays.fill(mySlotGenerations, 0);
+            myGeneration = 1;
+        }
+    }
+
+    private void rehash () {
+        allocateTable(mySlotNodes.length * 2);
+        int mask = mySlotNodes.length - 1;
+        for (int id = 0; id < mySize; id++) {
+            int slot = hash(myNodes[id]) & mask;
+            while (mySlotGenerations[slot] == myGeneration) {
+                slot = (slot + 1) & mask;
+            }
+            mySlotNodes[slot] = myNodes[id];
+            mySlotIds[slot] = id;
+            mySlotGenerations[slot] = myGeneration;
+        }
+    }
+
+    private void allocateTable (int tableSize) {
+        mySlotNodes = new Object[tableSize];
+        mySlotIds = new int[tableSize];
+        mySlotGenerations = new int[tableSize];
+        myGeneration = 1;
+    }
+
+    private static int hash (Object node) {
+        int hash = node.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,44 @@
+package pathfinding;
+
+/**
+ * A single path query: the node to start from and the node to reach. Two requests are equal when
+ * their starts and destinations are.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public class PathRequest<T> {
+
+    private final T myStart;
+    private final T myDestination;
+
+    public PathRequest (T start, T destination) {
+        myStart = start;
+        myDestination = destination;
+    }
+
+    public T getStart () {
+        return myStart;
+    }
+
+    public T getDestination () {
+        return myDestination;
+    }
+
+    @Override
+    public boolean equals (Object other) {
+        if (other == null || !(other instanceof PathRequest)) { return false; }
+        PathRequest<?> otherRequest = (PathRequest<?>) other;
+        return myStart.equals(otherRequest.myStart) &&
+               myDestination.equals(otherRequest.myDestination);
+    }
+
+    @Override
+    public int hashCode () {
+        return 31 * myStart.hashCode() + myDestination.hashCode();
+    }
+
+    @Override
+    public String toString () {
+        return myStart + " -> " + myDestination;
+    }
+}
@@ -0,0 +1,133 @@
+package pathfinding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Handle to one IndexedAStarPathFinder search that runs a few expansions at a time. Each call to
+ * step continues where the last one stopped, so a long query can be spread over many frames
+ * instead of stalling one. The frontier and scores live in the handle's own SearchWorkspace, so
+ * any number of searches can be in progress at once, for example under a PathSearchScheduler.
+ *
+ * A search is used by one thread at a time. Its workspace is released once it completes.
+ *
+ * @param <T> Any object type.
+ */
+public class PathSearch<T> {
+
+    private final IndexedAStarPathFinder<T> myFinder;
+    private final T myStart;
+    private final T myDestination;
+    private final double myEpsilon;
+    private SearchWorkspace<T> myWorkspace;
+    private List<T> myPath;
+    private boolean myComplete;
+    private long myExpandedNodes;
+    private long myElapsedNanos;
+
+    /**
+     * Use IndexedAStarPathFinder.startSearch.
+     */
+    PathSearch (IndexedAStarPathFinder<T> finder, T start, T destination, double epsilon) {
+        myFinder = finder;
+        myStart = start;
+        myDestination = destination;
+        myEpsilon = epsilon;
+        myWorkspace = new SearchWorkspace<>();
+        if (finder.canReach(start, destination)) {
+            finder.beginSearch(start, destination, epsilon, myWorkspace);
+        }
+        else {
+            finish(null, finder.getSearchListener());
+        }
+    }
+
+    public T getStart () {
+        return myStart;
+    }
+
+    public T getDestination () {
+        return myDestination;
+    }
+
+    /**
+     * Expands at most the given number of nodes. Does nothing once the search is complete.
+     *
+     * @param maxExpansions Most nodes to take off the frontier
+     * @return Whether the search is complete.
+     */
+    public boolean step (int maxExpansions) throws InvalidCostException {
+        if (maxExpansions < 0) {
+            throw new IllegalArgumentException("Expansion count must not be negative");
+        }
+        if (myComplete) { return true; }
+        ISearchListener listener = myFinder.getSearchListener();
+        long startTime = listener == null ? 0 : System.nanoTime();
+        IndexedMinHeap frontier = myWorkspace.getFrontier();
+        int reachedId = IndexedAStarPathFinder.NOT_REACHED;
+        for (int i = 0; i < maxExpansions && !frontier.isEmpty(); i++) {
+            myExpandedNodes++;
+            reachedId = myFinder.expandBest(myDestination, myEpsilon, myWorkspace);
+            if (reachedId != IndexedAStarPathFinder.NOT_REACHED) {
+                break;
+            }
+        }
+        if (listener != null) {
+            myElapsedNanos += System.nanoTime() - startTime;
+        }
+        if (reachedId != IndexedAStarPathFinder.NOT_REACHED) {
+            finish(myWorkspace.buildPath(reachedId), listener);
+        }
+        else if (frontier.isEmpty()) {
+            finish(null, listener);
+        }
+        return myComplete;
+    }
+
+    /**
+     * @return Whether the search has found a path or found that none exists.
+     */
+    public boolean isComplete () {
+        return myComplete;
+    }
+
+    /**
+     * @return Path from start to destination in order, or null if there is none.
+     * @throws IllegalStateException if the search is not complete
+     */
+    public List<T> getPath () {
+        if (!myComplete) { throw new IllegalStateException("Search is not complete"); }
+        return myPath == null ? null : new ArrayList<>(myPath);
+    }
+
+    /**
+     * @return Number of nodes taken off the frontier so far.
+     */
+    public long getExpandedNodeCount () {
+        return myExpandedNodes;
+    }
+
+    /**
+     * Records the result, tells the listener if there is one and releases the workspace. The
+     * elapsed time reported is the time spent in step, not the time since the search started.
+     */
+    private void finish (List<T> path, ISearchListener listener) {
+        myPath = path;
+        myComplete = true;
+        if (listener != null) {
+            listener.searchFinished(new SearchStatistics(myWorkspace.getExpandedNodeCount(),
+                                                         myWorkspace.getGeneratedNodeCount(),
+                                                         myWorkspace.getPeakFrontierSize(), 0,
+                                                         myElapsedNanos,
+                                                         path == null ? 0 : path.size()));
+        }
+        myWorkspace = null;
+    }
+
+    @Override
+    public String toString () {
+        return "PathSearch(" + myStart + " -> " + myDestination + ", " +
+               (myComplete ? "complete" : myExpandedNodes + " expanded") + ")";
+    }
+}
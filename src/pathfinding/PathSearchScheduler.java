@@ -0,0 +1,90 @@
+package pathfinding;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Shares a fixed number of expansions per frame between many PathSearches. Each frame, searches
+ * take turns in round-robin order, each running at most one slice of expansions per turn, until
+ * the frame's budget is spent or every search is complete. A search that does not finish in one
+ * frame continues in the next, so no single query can take more than the budget from a frame.
+ *
+ * Meant to be driven from the game loop; the scheduler is not thread-safe.
+ *
+ * @param <T> Any object type.
+ */
+public class PathSearchScheduler<T> {
+
+    private static final int DEFAULT_SLICE = 64;
+
+    private final int myFrameBudget;
+    private final int mySlice;
+    private final ArrayDeque<PathSearch<T>> mySearches = new ArrayDeque<>();
+
+    /**
+     * @param frameBudget Most nodes expanded per frame, over all searches
+     */
+    public PathSearchScheduler (int frameBudget) {
+        this(frameBudget, DEFAULT_SLICE);
+    }
+
+    /**
+     * @param frameBudget Most nodes expanded per frame, over all searches
+     * @param slice Most nodes one search expands per turn
+     */
+    public PathSearchScheduler (int frameBudget, int slice) {
+        if (frameBudget <= 0 || slice <= 0) {
+            throw new IllegalArgumentException("Frame budget and slice must be positive");
+        }
+        myFrameBudget = frameBudget;
+        mySlice = slice;
+    }
+
+    /**
+     * Queues a search to run in the coming frames.
+     */
+    public void add (PathSearch<T> search) {
+        mySearches.add(search);
+    }
+
+    /**
+     * Stops running a search. Its state is kept, so it can be added again later.
+     *
+     * @return Whether the search was queued.
+     */
+    public boolean cancel (PathSearch<T> search) {
+        return mySearches.remove(search);
+    }
+
+    /**
+     * @return Number of searches waiting to complete.
+     */
+    public int getPendingCount () {
+        return mySearches.size();
+    }
+
+    /**
+     * Runs one frame's worth of expansions.
+     *
+     * @return Searches that completed during this frame, in the order they completed.
+     */
+    public List<PathSearch<T>> runFrame () throws InvalidCostException {
+        List<PathSearch<T>> completed = new ArrayList<>();
+        long remaining = myFrameBudget;
+        while (remaining > 0 && !mySearches.isEmpty()) {
+            PathSearch<T> search = mySearches.poll();
+            long before = search.getExpandedNodeCount();
+            boolean done = search.step((int) Math.min(mySlice, remaining));
+            remaining -= search.getExpandedNodeCount() - before;
+            if (done) {
+                completed.add(search);
+            }
+            else {
+                mySearches.add(search);
+            }
+        }
+        return completed;
+    }
+}
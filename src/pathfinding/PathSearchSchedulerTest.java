@@ -0,0 +1,53 @@
+package pathfinding;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+
+/**
+ * Checks that scheduled searches keep to the frame budget and find the same paths as findPath.
+ */
+public class PathSearchSchedulerTest {
+
+    @Test
+    public void testScheduledSearchesMatchFindPath () {
+        int xMax = 50;
+        int yMax = 39;
+        TestNode[][] nodeMap = TestNode.createNodeMap(xMax, yMax);
+        TestIndexedAStarFinder<TestNode> finder =
+                new TestIndexedAStarFinder<>(new TestAStarFinder(nodeMap));
+        PathSearchScheduler<TestNode> scheduler = new PathSearchScheduler<>(100, 16);
+        List<PathSearch<TestNode>> searches = new ArrayList<>();
+        Random rand = new Random();
+        for (int i = 0; i < 20; i++) {
+            PathSearch<TestNode> search =
+                    finder.startSearch(nodeMap[rand.nextInt(xMax)][rand.nextInt(yMax)],
+                                       nodeMap[rand.nextInt(xMax)][rand.nextInt(yMax)]);
+            searches.add(search);
+            scheduler.add(search);
+        }
+        int completed = 0;
+        while (scheduler.getPendingCount() > 0) {
+            long before = totalExpansions(searches);
+            completed += scheduler.runFrame().size();
+            assertTrue(totalExpansions(searches) - before <= 100);
+        }
+        assertEquals(searches.size(), completed);
+        for (PathSearch<TestNode> search : searches) {
+            assertTrue(search.isComplete());
+            assertEquals(finder.findPath(search.getStart(), search.getDestination()),
+                         search.getPath());
+        }
+    }
+
+    private static long totalExpansions (List<PathSearch<TestNode>> searches) {
+        long total = 0;
+        for (PathSearch<TestNode> search : searches) {
+            total += search.getExpandedNodeCount();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,318 @@
+package pathfinding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Answers path queries on a fixed pool of worker threads, so the game thread never waits for a
+ * search. Each request returns a CompletableFuture that completes with the path (or null when
+ * there is none) on a worker thread.
+ *
+ * Requests for the same start and destination that arrive while a search for them is queued or
+ * running share that search. Requests made on behalf of an agent replace the agent's earlier
+ * request: the earlier future is cancelled, and its search is skipped if nobody else is waiting
+ * for it. Cancelling a future directly has the same effect. A search that nobody waits for any
+ * more is taken off the queue at once, so it does not hold a slot a live request could use. When
+ * the queue of waiting searches is full, new requests fail at once with a
+ * RejectedExecutionException instead of blocking the caller.
+ *
+ * The finder is called from several threads at once, so its hooks must be safe to call
+ * concurrently, as for BatchPathFinder.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public class PathService<T> {
+
+    private final IPathFinder<T> myFinder;
+    private final ThreadPoolExecutor myExecutor;
+    private final ConcurrentHashMap<PathRequest<T>, Job> myJobs = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Object, Subscriber> myAgentRequests =
+            new ConcurrentHashMap<>();
+    private final AtomicLong mySearches = new AtomicLong();
+    private final AtomicLong myCoalesced = new AtomicLong();
+    private final AtomicLong mySuperseded = new AtomicLong();
+    private final AtomicLong myRejected = new AtomicLong();
+
+    /**
+     * @param finder Finder that answers each query
+     * @param threads Number of worker threads
+     * @param queueCapacity Most searches that may wait for a worker
+     */
+    public PathService (IPathFinder<T> finder, int threads, int queueCapacity) {
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Thread count and queue capacity must be positive");
+        }
+        myFinder = finder;
+        myExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                                            new ArrayBlockingQueue<Runnable>(queueCapacity),
+                                            new WorkerFactory(),
+                                            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queues a search, or joins one already queued or running for the same start and
+     * destination.
+     *
+     * @return Future path, which fails with RejectedExecutionException if the queue is full.
+     */
+    public CompletableFuture<List<T>> requestPath (T start, T destination) {
+        return subscribe(new PathRequest<>(start, destination), new Subscriber(null));
+    }
+
+    /**
+     * Requests a path for an agent, cancelling the agent's earlier request if it is still
+     * pending.
+     *
+     * @param agent Key identifying the requester, such as a unit
+     * @return Future path, which fails with RejectedExecutionException if the queue is full.
+     */
+    public CompletableFuture<List<T>> requestPath (Object agent, T start, T destination) {
+        if (agent == null) { throw new IllegalArgumentException("Agent must not be null"); }
+        Subscriber subscriber = new Subscriber(agent);
+        Subscriber previous = myAgentRequests.put(agent, subscriber);
+        if (previous != null && previous.myFuture.cancel(false)) {
+            mySuperseded.incrementAndGet();
+        }
+        return subscribe(new PathRequest<>(start, destination), subscriber);
+    }
+
+    /**
+     * @return Number of searches waiting for a worker.
+     */
+    public int getQueuedCount () {
+        return myExecutor.getQueue().size();
+    }
+
+    /**
+     * @return Number of searches run.
+     */
+    public long getSearchCount () {
+        return mySearches.get();
+    }
+
+    /**
+     * @return Number of requests that joined a search already queued or running.
+     */
+    public long getCoalescedCount () {
+        return myCoalesced.get();
+    }
+
+    /**
+     * @return Number of agent requests cancelled by a newer request from the same agent.
+     */
+    public long getSupersededCount () {
+        return mySuperseded.get();
+    }
+
+    /**
+     * @return Number of requests refused because the queue was full.
+     */
+    public long getRejectedCount () {
+        return myRejected.get();
+    }
+
+    /**
+     * Stops accepting requests. Searches already queued still run.
+     */
+    public void shutdown () {
+        myExecutor.shutdown();
+    }
+
+    /**
+     * Waits for queued searches to finish after shutdown.
+     *
+     * @return Whether every search finished before the timeout.
+     */
+    public boolean awaitTermination (long timeout, TimeUnit unit) throws InterruptedException {
+        return myExecutor.awaitTermination(timeout, unit);
+    }
+
+    private CompletableFuture<List<T>> subscribe (PathRequest<T> request,
+                                                  Subscriber subscriber) {
+        while (true) {
+            Job job = myJobs.get(request);
+            if (job == null) {
+                Job newJob = new Job(request);
+                newJob.subscribe(subscriber);
+                if (myJobs.putIfAbsent(request, newJob) == null) {
+                    submit(newJob);
+                    return subscriber.myFuture;
+                }
+            }
+            else if (job.subscribe(subscriber)) {
+                myCoalesced.incrementAndGet();
+                return subscriber.myFuture;
+            }
+            else {
+                myJobs.remove(request, job);
+            }
+        }
+    }
+
+    private void submit (Job job) {
+        try {
+            myExecutor.execute(job);
+        }
+        catch (RejectedExecutionException e) {
+            myRejected.incrementAndGet();
+            myJobs.remove(job.myRequest, job);
+            job.fail(e);
+        }
+    }
+
+    /**
+     * One search and the requests waiting for it. Once the search starts delivering (or is
+     * skipped), no more requests may join it.
+     */
+    private class Job implements Runnable {
+        private final PathRequest<T> myRequest;
+        private final List<Subscriber> mySubscribers = new ArrayList<>();
+        private boolean myClosed;
+
+        public Job (PathRequest<T> request) {
+            myRequest = request;
+        }
+
+        public synchronized boolean subscribe (Subscriber subscriber) {
+            if (myClosed) { return false; }
+            mySubscribers.add(subscriber);
+            subscriber.myJob = this;
+            return true;
+        }
+
+        @Override
+        public void run () {
+            if (closeIfAbandoned()) {
+                drop();
+            }
+            else {
+                search();
+            }
+        }
+
+        /**
+         * Called when a waiting future is cancelled. Drops the job if nobody else is waiting.
+         */
+        public void cancelIfAbandoned () {
+            if (closeIfAbandoned()) {
+                drop();
+            }
+        }
+
+        /**
+         * Closes the job without searching if every waiting future was cancelled.
+         *
+         * @return Whether the job is closed and will deliver no path.
+         */
+        private synchronized boolean closeIfAbandoned () {
+            if (!myClosed) {
+                for (Subscriber subscriber : mySubscribers) {
+                    if (!subscriber.myFuture.isDone()) { return false; }
+                }
+                myClosed = true;
+            }
+            return true;
+        }
+
+        /**
+         * Takes an abandoned job off the queue and out of the coalescing map, and forgets its
+         * agents' requests.
+         */
+        private void drop () {
+            myJobs.remove(myRequest, this);
+            myExecutor.remove(this);
+            for (Subscriber subscriber : close()) {
+                subscriber.release();
+            }
+        }
+
+        private void search () {
+            mySearches.incrementAndGet();
+            List<T> path;
+            try {
+                path = myFinder.findPath(myRequest.getStart(), myRequest.getDestination());
+            }
+            catch (RuntimeException e) {
+                myJobs.remove(myRequest, this);
+                fail(e);
+                return;
+            }
+            catch (Error e) {
+                // still close the job so later requests do not coalesce onto it forever
+                myJobs.remove(myRequest, this);
+                fail(e);
+                throw e;
+            }
+            myJobs.remove(myRequest, this);
+            for (Subscriber subscriber : close()) {
+                subscriber.myFuture.complete(path == null ? null : new ArrayList<>(path));
+                subscriber.release();
+            }
+        }
+
+        public void fail (Throwable cause) {
+            for (Subscriber subscriber : close()) {
+                subscriber.myFuture.completeExceptionally(cause);
+                subscriber.release();
+            }
+        }
+
+        private synchronized List<Subscriber> close () {
+            myClosed = true;
+            return new ArrayList<>(mySubscribers);
+        }
+    }
+
+    /**
+     * One caller waiting for a path, and the agent it was requested for, if any.
+     */
+    private class Subscriber {
+        private final Object myAgent;
+        private final CompletableFuture<List<T>> myFuture = new CompletableFuture<List<T>>() {
+            @Override
+            public boolean cancel (boolean mayInterruptIfRunning) {
+                boolean cancelled = super.cancel(mayInterruptIfRunning);
+                Job job = myJob;
+                if (cancelled && job != null) {
+                    job.cancelIfAbandoned();
+                }
+                return cancelled;
+            }
+        };
+        private volatile Job myJob;
+
+        public Subscriber (Object agent) {
+            myAgent = agent;
+        }
+
+        /**
+         * Forgets the agent's request once it is answered, unless a newer one replaced it.
+         */
+        public void release () {
+            if (myAgent != null) {
+                myAgentRequests.remove(myAgent, this);
+            }
+        }
+    }
+
+    private static class WorkerFactory implements ThreadFactory {
+        private final AtomicInteger myCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread (Runnable task) {
+            Thread thread = new Thread(task, "path-service-" + myCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package pathfinding;
+
+import static org.junit.Assert.*;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+
+
+/**
+ * Checks request coalescing, agent supersession, queue limits and recovery from search errors.
+ */
+public class PathServiceTest {
+
+    @Test
+    public void testPathServiceCoalescesAndDropsRequests () throws Exception {
+        TestNode[][] nodeMap = TestNode.createNodeMap(50, 39);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch gate = new CountDownLatch(1);
+        TestAStarFinder finder = new TestAStarFinder(nodeMap) {
+            @Override
+            public List<TestNode> findPath (TestNode start, TestNode destination) {
+                started.countDown();
+                try {
+                    gate.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.findPath(start, destination);
+            }
+        };
+        PathService<TestNode> service = new PathService<>(finder, 1, 3);
+        CompletableFuture<List<TestNode>> blocking =
+                service.requestPath(nodeMap[0][0], nodeMap[9][9]);
+        started.await();
+        CompletableFuture<List<TestNode>> first =
+                service.requestPath(nodeMap[1][1], nodeMap[5][5]);
+        CompletableFuture<List<TestNode>> second =
+                service.requestPath(nodeMap[1][1], nodeMap[5][5]);
+        Object agent = new Object();
+        CompletableFuture<List<TestNode>> stale =
+                service.requestPath(agent, nodeMap[2][2], nodeMap[7][7]);
+        CompletableFuture<List<TestNode>> fresh =
+                service.requestPath(agent, nodeMap[3][3], nodeMap[7][7]);
+        assertTrue(stale.isCancelled());
+        assertEquals(2, service.getQueuedCount());
+
+        // the superseded search left the queue, so there is room for one more
+        CompletableFuture<List<TestNode>> dropped =
+                service.requestPath(new Object(), nodeMap[4][4], nodeMap[8][8]);
+        CompletableFuture<List<TestNode>> rejected =
+                service.requestPath(nodeMap[5][5], nodeMap[9][9]);
+        assertFalse(dropped.isDone());
+        assertTrue(rejected.isCompletedExceptionally());
+        assertEquals(3, service.getQueuedCount());
+        dropped.cancel(false);
+        assertEquals(2, service.getQueuedCount());
+        CompletableFuture<List<TestNode>> late =
+                service.requestPath(nodeMap[6][6], nodeMap[9][0]);
+        assertEquals(3, service.getQueuedCount());
+        gate.countDown();
+
+        assertEquals(finder.findPath(nodeMap[0][0], nodeMap[9][9]),
+                     blocking.get(10, TimeUnit.SECONDS));
+        assertEquals(finder.findPath(nodeMap[1][1], nodeMap[5][5]),
+                     first.get(10, TimeUnit.SECONDS));
+        assertEquals(first.get(), second.get(10, TimeUnit.SECONDS));
+        assertTrue(first.get() != second.get());
+        assertEquals(finder.findPath(nodeMap[3][3], nodeMap[7][7]),
+                     fresh.get(10, TimeUnit.SECONDS));
+        assertEquals(finder.findPath(nodeMap[6][6], nodeMap[9][0]),
+                     late.get(10, TimeUnit.SECONDS));
+        service.shutdown();
+        assertTrue(service.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(4, service.getSearchCount());
+        assertEquals(1, service.getCoalescedCount());
+        assertEquals(1, service.getSupersededCount());
+        assertEquals(1, service.getRejectedCount());
+    }
+
+    @Test
+    public void testPathServiceRecoversFromErrors () throws Exception {
+        final TestGraphFinder graph = new TestGraphFinder();
+        for (int i = 0; i < 10; i++) {
+            graph.link(i, i + 1);
+        }
+        final AtomicBoolean broken = new AtomicBoolean(true);
+        IPathFinder<Integer> finder = new TestGraphFinder() {
+            @Override
+            public List<Integer> findPath (Integer start, Integer destination) {
+                if (broken.getAndSet(false)) { throw new StackOverflowError(); }
+                return graph.findPath(start, destination);
+            }
+        };
+        PathService<Integer> service = new PathService<>(finder, 1, 3);
+        CompletableFuture<List<Integer>> failed = service.requestPath(0, 5);
+        try {
+            failed.get(10, TimeUnit.SECONDS);
+            fail("Search error was not reported");
+        }
+        catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof StackOverflowError);
+        }
+        assertEquals(6, service.requestPath(0, 5).get(10, TimeUnit.SECONDS).size());
+        service.shutdown();
+        assertTrue(service.awaitTermination(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,47 @@
+package pathfinding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Removes waypoints from a path by string pulling: starting from the first node, the path is
+ * followed for as long as each node is visible from the last waypoint kept, and the node before
+ * the first one that is not becomes the next waypoint. Agents then steer straight from one
+ * waypoint to the next. Smoothing a path of n nodes takes n - 2 visibility tests.
+ *
+ * The smoothed path is never longer in distance than the original, since each straight line
+ * replaces part of the path between its ends, but it is not necessarily the shortest any-angle
+ * path, and on maps with varying costs it can be more expensive.
+ *
+ * @param <T> Any object type.
+ */
+public class PathSmoother<T> {
+
+    private final IVisibilityTest<T> myVisibilityTest;
+
+    public PathSmoother (IVisibilityTest<T> visibilityTest) {
+        myVisibilityTest = visibilityTest;
+    }
+
+    /**
+     * @param path Path to smooth, as returned by a path finder; may be null
+     * @return New list holding the first node, the waypoints kept and the last node, or null if
+     *         path is null.
+     */
+    public List<T> smooth (List<T> path) {
+        if (path == null) { return null; }
+        if (path.size() <= 2) { return new ArrayList<>(path); }
+        List<T> waypoints = new ArrayList<>();
+        T anchor = path.get(0);
+        waypoints.add(anchor);
+        for (int i = 2; i < path.size(); i++) {
+            if (!myVisibilityTest.isVisible(anchor, path.get(i))) {
+                anchor = path.get(i - 1);
+                waypoints.add(anchor);
+            }
+        }
+        waypoints.add(path.get(path.size() - 1));
+        return waypoints;
+    }
+}
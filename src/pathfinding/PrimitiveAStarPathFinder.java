@@ -0,0 +1,22 @@
+package pathfinding;
+
+/**
+ * IndexedAStarPathFinder whose subclasses define costs and heuristic values as primitive doubles
+ * through IPrimitiveCosts. Searches use the primitive hooks directly, and getCost and
+ * getHeuristicValue box them for callers of the Number API.
+ *
+ * @param <T> Any object type.
+ */
+public abstract class PrimitiveAStarPathFinder<T> extends IndexedAStarPathFinder<T>
+        implements IPrimitiveCosts<T> {
+
+    @Override
+    public Number getCost (T beginningNode, T endingNode) {
+        return getPrimitiveCost(beginningNode, endingNode);
+    }
+
+    @Override
+    public Number getHeuristicValue (T node, T destination) {
+        return getPrimitiveHeuristicValue(node, destination);
+    }
+}
@@ -0,0 +1,52 @@
+package pathfinding;
+
+import static org.junit.Assert.*;
+import java.util.Random;
+import org.junit.Test;
+
+
+/**
+ * Checks that a finder with primitive cost hooks finds the same paths as one with Number hooks.
+ */
+public class PrimitiveAStarPathFinderTest {
+
+    @Test
+    public void testPrimitiveCostsMatchNumberCosts () {
+        int xMax = 50;
+        int yMax = 39;
+        TestNode[][] nodeMap = TestNode.createNodeMap(xMax, yMax);
+        final TestAStarFinder finder = new TestAStarFinder(nodeMap);
+        PrimitiveAStarPathFinder<TestNode> primitiveFinder =
+                new PrimitiveAStarPathFinder<TestNode>() {
+                    @Override
+                    public double getPrimitiveCost (TestNode beginningNode, TestNode endingNode) {
+                        return finder.getCost(beginningNode, endingNode);
+                    }
+
+                    @Override
+                    public double getPrimitiveHeuristicValue (TestNode node,
+                                                              TestNode destination) {
+                        return finder.getHeuristicValue(node, destination).doubleValue();
+                    }
+
+                    @Override
+                    public Iterable<TestNode> getNeighbors (TestNode node) {
+                        return finder.getNeighbors(node);
+                    }
+
+                    @Override
+                    public int breakTie (TestNode node, TestNode other) {
+                        return finder.breakTie(node, other);
+                    }
+                };
+        Random rand = new Random();
+        for (int i = 0; i < 50; i++) {
+            TestNode start = nodeMap[rand.nextInt(xMax)][rand.nextInt(yMax)];
+            TestNode destination = nodeMap[rand.nextInt(xMax)][rand.nextInt(yMax)];
+            assertEquals(finder.findPath(start, destination),
+                         primitiveFinder.findPath(start, destination));
+            assertEquals(finder.getHeuristicValue(start, destination).doubleValue(),
+                         primitiveFinder.getHeuristicValue(start, destination).doubleValue(), 0);
+        }
+    }
+}
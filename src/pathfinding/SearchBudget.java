@@ -0,0 +1,67 @@
+package pathfinding;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Limit on how much work one call to a budgeted search may do, counted in expanded nodes, in
+ * elapsed wall-clock time, or both. A search stops at whichever limit it reaches first.
+ */
+public class SearchBudget {
+
+    /**
+     * Budget without limits.
+     */
+    public static final SearchBudget UNLIMITED = new SearchBudget(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    private final long myMaxExpansions;
+    private final long myMaxNanos;
+
+    /**
+     * @param maxExpansions Most nodes the search may expand
+     * @param maxNanos Most nanoseconds the search may run
+     */
+    public SearchBudget (long maxExpansions, long maxNanos) {
+        if (maxExpansions <= 0 || maxNanos <= 0) {
+            throw new IllegalArgumentException("Search budget must be positive");
+        }
+        myMaxExpansions = maxExpansions;
+        myMaxNanos = maxNanos;
+    }
+
+    /**
+     * @return Budget limited only by the number of expanded nodes.
+     */
+    public static SearchBudget ofExpansions (long maxExpansions) {
+        return new SearchBudget(maxExpansions, Long.MAX_VALUE);
+    }
+
+    /**
+     * @return Budget limited only by elapsed wall-clock time.
+     */
+    public static SearchBudget ofTime (long duration, TimeUnit unit) {
+        return new SearchBudget(Long.MAX_VALUE, unit.toNanos(duration));
+    }
+
+    public long getMaxExpansions () {
+        return myMaxExpansions;
+    }
+
+    public long getMaxNanos () {
+        return myMaxNanos;
+    }
+
+    /**
+     * @param expansions Nodes expanded so far
+     * @param elapsedNanos Nanoseconds elapsed so far
+     * @return Whether the search must stop.
+     */
+    public boolean isExhausted (long expansions, long elapsedNanos) {
+        return expansions >= myMaxExpansions || elapsedNanos >= myMaxNanos;
+    }
+
+    @Override
+    public String toString () {
+        return "SearchBudget(" + myMaxExpansions + " expansions, " + myMaxNanos + " ns)";
+    }
+}
@@ -0,0 +1,71 @@
+package pathfinding;
+
+/**
+ * What a single search did, reported to an ISearchListener when the search finishes.
+ *
+ * Expanded nodes were taken off the frontier and had their neighbors examined. Generated nodes
+ * were added to the frontier or had their score lowered while on it. Reopened nodes had their
+ * score lowered after they were expanded, which only finders that expand a node more than once
+ * (such as AnytimeAStarPathFinder) do. The peak frontier size is the largest number of nodes
+ * queued at once.
+ */
+public class SearchStatistics {
+
+    private final long myExpandedNodes;
+    private final long myGeneratedNodes;
+    private final long myPeakFrontierSize;
+    private final long myReopenedNodes;
+    private final long myElapsedNanos;
+    private final int myPathLength;
+
+    /**
+     * @param pathLength Number of nodes in the path found, or 0 if none was found
+     */
+    public SearchStatistics (long expandedNodes, long generatedNodes, long peakFrontierSize,
+                             long reopenedNodes, long elapsedNanos, int pathLength) {
+        myExpandedNodes = expandedNodes;
+        myGeneratedNodes = generatedNodes;
+        myPeakFrontierSize = peakFrontierSize;
+        myReopenedNodes = reopenedNodes;
+        myElapsedNanos = elapsedNanos;
+        myPathLength = pathLength;
+    }
+
+    public long getExpandedNodes () {
+        return myExpandedNodes;
+    }
+
+    public long getGeneratedNodes () {
+        return myGeneratedNodes;
+    }
+
+    public long getPeakFrontierSize () {
+        return myPeakFrontierSize;
+    }
+
+    public long getReopenedNodes () {
+        return myReopenedNodes;
+    }
+
+    public long getElapsedNanos () {
+        return myElapsedNanos;
+    }
+
+    /**
+     * @return Number of nodes in the path found, or 0 if none was found.
+     */
+    public int getPathLength () {
+        return myPathLength;
+    }
+
+    public boolean isPathFound () {
+        return myPathLength > 0;
+    }
+
+    @Override
+    public String toString () {
+        return "SearchStatistics(expanded " + myExpandedNodes + ", generated " + myGeneratedNodes +
+               ", peak frontier " + myPeakFrontierSize + ", reopened " + myReopenedNodes + ", " +
+               myElapsedNanos + " ns, path length " + myPathLength + ")";
+    }
+}
@@ -0,0 +1,87 @@
+package pathfinding;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * ISearchListener that keeps a Histogram of every statistic over all the searches it is told
+ * about, for example to find out whether slow queries come from a weak heuristic (many expanded
+ * nodes per path node) or from a large map. Safe to share between finders and threads.
+ */
+public class SearchStatisticsAggregator implements ISearchListener {
+
+    private final Histogram myExpandedNodes = new Histogram();
+    private final Histogram myGeneratedNodes = new Histogram();
+    private final Histogram myPeakFrontierSizes = new Histogram();
+    private final Histogram myReopenedNodes = new Histogram();
+    private final Histogram myElapsedNanos = new Histogram();
+    private final AtomicLong myFailedSearches = new AtomicLong();
+
+    @Override
+    public void searchFinished (SearchStatistics statistics) {
+        myExpandedNodes.record(statistics.getExpandedNodes());
+        myGeneratedNodes.record(statistics.getGeneratedNodes());
+        myPeakFrontierSizes.record(statistics.getPeakFrontierSize());
+        myReopenedNodes.record(statistics.getReopenedNodes());
+        myElapsedNanos.record(statistics.getElapsedNanos());
+        if (!statistics.isPathFound()) {
+            myFailedSearches.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return Number of searches recorded.
+     */
+    public long getSearchCount () {
+        return myElapsedNanos.getCount();
+    }
+
+    /**
+     * @return Number of recorded searches that found no path.
+     */
+    public long getFailedSearchCount () {
+        return myFailedSearches.get();
+    }
+
+    public Histogram getExpandedNodes () {
+        return myExpandedNodes;
+    }
+
+    public Histogram getGeneratedNodes () {
+        return myGeneratedNodes;
+    }
+
+    public Histogram getPeakFrontierSizes () {
+        return myPeakFrontierSizes;
+    }
+
+    public Histogram getReopenedNodes () {
+        return myReopenedNodes;
+    }
+
+    public Histogram getElapsedNanos () {
+        return myElapsedNanos;
+    }
+
+    /**
+     * Forgets every recorded search.
+     */
+    public void clear () {
+        myExpandedNodes.clear();
+        myGeneratedNodes.clear();
+        myPeakFrontierSizes.clear();
+        myReopenedNodes.clear();
+        myElapsedNanos.clear();
+        myFailedSearches.set(0);
+    }
+
+    @Override
+    public String toString () {
+        return "searches: " + getSearchCount() + " (" + getFailedSearchCount() + " failed)\n" +
+               "expanded nodes: " + myExpandedNodes + "\n" +
+               "generated nodes: " + myGeneratedNodes + "\n" +
+               "peak frontier size: " + myPeakFrontierSizes + "\n" +
+               "reopened nodes: " + myReopenedNodes + "\n" +
+               "elapsed nanos: " + myElapsedNanos;
+    }
+}
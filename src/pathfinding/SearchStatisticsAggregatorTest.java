@@ -0,0 +1,63 @@
+package pathfinding;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+
+/**
+ * Checks the statistics finders report to their search listener and their aggregation.
+ */
+public class SearchStatisticsAggregatorTest {
+
+    @Test
+    public void testSearchListenerAggregatesStatistics () {
+        int xMax = 50;
+        int yMax = 39;
+        TestNode[][] nodeMap = TestNode.createNodeMap(xMax, yMax);
+        TestAStarFinder finder = new TestAStarFinder(nodeMap);
+        TestIndexedAStarFinder<TestNode> indexedFinder = new TestIndexedAStarFinder<>(finder);
+        SearchStatisticsAggregator aggregator = new SearchStatisticsAggregator();
+        final List<SearchStatistics> reported = new ArrayList<>();
+        finder.setSearchListener(aggregator);
+        indexedFinder.setSearchListener(new ISearchListener() {
+            @Override
+            public void searchFinished (SearchStatistics statistics) {
+                reported.add(statistics);
+            }
+        });
+        Random rand = new Random();
+        for (int i = 0; i < 30; i++) {
+            TestNode start = nodeMap[rand.nextInt(xMax)][rand.nextInt(yMax)];
+            TestNode destination = nodeMap[rand.nextInt(xMax)][rand.nextInt(yMax)];
+            List<TestNode> path = indexedFinder.findPath(start, destination);
+            assertEquals(finder.findPath(start, destination).size(), path.size());
+            SearchStatistics statistics = reported.get(reported.size() - 1);
+            assertEquals(path.size(), statistics.getPathLength());
+            assertTrue(statistics.getExpandedNodes() >= path.size() - 1);
+            assertTrue(statistics.getGeneratedNodes() >= statistics.getExpandedNodes());
+            assertTrue(statistics.getPeakFrontierSize() <= statistics.getGeneratedNodes());
+            assertEquals(0, statistics.getReopenedNodes());
+        }
+        assertEquals(30, reported.size());
+        assertEquals(30, aggregator.getSearchCount());
+        assertEquals(0, aggregator.getFailedSearchCount());
+        Histogram expanded = aggregator.getExpandedNodes();
+        assertTrue(expanded.getMinimum() <= expanded.getPercentile(0.5));
+        assertTrue(expanded.getPercentile(0.5) <= expanded.getPercentile(0.99));
+        assertTrue(expanded.getPercentile(0.99) <= expanded.getMaximum());
+
+        PathSearch<TestNode> search = indexedFinder.startSearch(nodeMap[0][0], nodeMap[9][9]);
+        while (!search.step(5)) {
+            assertEquals(30, reported.size());
+        }
+        assertEquals(31, reported.size());
+        assertEquals(search.getExpandedNodeCount(), reported.get(30).getExpandedNodes() + 1);
+
+        finder.setSearchListener(null);
+        finder.findPath(nodeMap[0][0], nodeMap[9][9]);
+        assertEquals(30, aggregator.getSearchCount());
+    }
+}
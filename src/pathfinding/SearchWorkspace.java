@@ -0,0 +1,164 @@
+package pathfinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Reusable storage for an IndexedAStarPathFinder search: the node ids, g scores, came-from links,
+ * closed flags and the frontier. Starting a search touches only the entries the previous search
+ * used (the id table is reset by bumping its generation), so once the arrays have grown to fit
+ * the largest search, searches allocate nothing but the path they return.
+ *
+ * A workspace may be used by only one thread at a time. Callers can keep a pool of them and pass
+ * one to IndexedAStarPathFinder.findPath; otherwise the finder keeps one per thread. Other
+ * search engines use the same storage through the public methods below.
+ *
+ * @param <T> Any object type.
+ */
+public class SearchWorkspace<T> implements IndexedMinHeap.TieBreaker {
+
+    public static final int NO_PARENT = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int UNDISCOVERED = -2;
+
+    private final NodeIndexer<T> myIds = new NodeIndexer<>();
+    private final IndexedMinHeap myFrontier = new IndexedMinHeap(4, this);
+    private double[] myScores = new double[INITIAL_CAPACITY];
+    private int[] myParents = new int[INITIAL_CAPACITY];
+    private boolean[] myClosed = new boolean[INITIAL_CAPACITY];
+    private IPathFinder<T> myFinder;
+    private int myExpandedNodes;
+    private int myGeneratedNodes;
+    private int myPeakFrontierSize;
+
+    /**
+     * Forgets the previous search and prepares for one run by the given finder, whose breakTie
+     * orders frontier nodes with equal scores.
+     */
+    public void reset (IPathFinder<T> finder) {
+        myFinder = finder;
+        myIds.clear();
+        myFrontier.clear();
+        myExpandedNodes = 0;
+        myGeneratedNodes = 0;
+        myPeakFrontierSize = 0;
+    }
+
+    /**
+     * Counts a node taken off the frontier and expanded.
+     */
+    public void countExpansion () {
+        myExpandedNodes++;
+    }
+
+    /**
+     * Counts a node added to the frontier or given a lower score on it, and tracks the largest
+     * size the frontier reaches.
+     */
+    public void countGeneration () {
+        myGeneratedNodes++;
+        myPeakFrontierSize = Math.max(myPeakFrontierSize, myFrontier.size());
+    }
+
+    public int getExpandedNodeCount () {
+        return myExpandedNodes;
+    }
+
+    public int getGeneratedNodeCount () {
+        return myGeneratedNodes;
+    }
+
+    public int getPeakFrontierSize () {
+        return myPeakFrontierSize;
+    }
+
+    /**
+     * @return Id of the node, assigning a fresh undiscovered id on first sight.
+     */
+    public int getId (T node) {
+        int knownNodes = myIds.size();
+        int id = myIds.getId(node);
+        if (id == knownNodes) {
+            initialize(id);
+        }
+        return id;
+    }
+
+    /**
+     * @return Id of the node, or NodeIndexer.ABSENT if the current search has not seen it.
+     */
+    public int findId (T node) {
+        return myIds.findId(node);
+    }
+
+    public T getNode (int id) {
+        return myIds.getNode(id);
+    }
+
+    /**
+     * @return Frontier of the current search, keyed by f score.
+     */
+    public IndexedMinHeap getFrontier () {
+        return myFrontier;
+    }
+
+    public boolean isDiscovered (int id) {
+        return myParents[id] != UNDISCOVERED;
+    }
+
+    public boolean isClosed (int id) {
+        return myClosed[id];
+    }
+
+    public void close (int id) {
+        myClosed[id] = true;
+    }
+
+    public double getScore (int id) {
+        return myScores[id];
+    }
+
+    /**
+     * Records the best known g score of a node and the node it was reached through.
+     */
+    public void discover (int id, double gScore, int parentId) {
+        myScores[id] = gScore;
+        myParents[id] = parentId;
+    }
+
+    /**
+     * @return Path from the start of the search to the given node, following came-from links.
+     */
+    public List<T> buildPath (int destinationId) {
+        int length = 0;
+        for (int id = destinationId; id != NO_PARENT; id = myParents[id]) {
+            length++;
+        }
+        ArrayList<T> path = new ArrayList<>(length);
+        for (int id = destinationId; id != NO_PARENT; id = myParents[id]) {
+            path.add(myIds.getNode(id));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    @Override
+    public int compare (int id, int otherId) {
+        return myFinder.breakTie(myIds.getNode(id), myIds.getNode(otherId));
+    }
+
+    private void initialize (int id) {
+        if (id == myScores.length) {
+            int newLength = id * 2;
+            myScores = Arrays.copyOf(myScores, newLength);
+            myParents = Arrays.copyOf(myParents, newLength);
+            myClosed = Arrays.copyOf(myClosed, newLength);
+        }
+        myParents[id] = UNDISCOVERED;
+        myClosed[id] = false;
+    }
+}
@@ -0,0 +1,63 @@
+package pathfinding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+
+/**
+ * Finder over a TestNode map with four-way moves and a straight line heuristic.
+ */
+class TestAStarFinder extends AStarPathFinder<TestNode> {
+
+    private TestNode[][] myMap;
+
+    public TestAStarFinder (TestNode[][] nodeMap) {
+        myMap = nodeMap;
+    }
+
+    @Override
+    public Integer getCost (TestNode beginningNode, TestNode endingNode) {
+        int beginningX = beginningNode.getX();
+        int beginningY = beginningNode.getY();
+        int endingX = endingNode.getX();
+        int endingY = endingNode.getY();
+        return Math.abs(endingX - beginningX) + Math.abs(endingY - beginningY);
+    }
+
+    @Override
+    public Collection<TestNode> getNeighbors (TestNode node) {
+        int[][] myDefault2DDirections = { { -1, 0 }, { 0, -1 }, { 0, 1 }, { 1, 0 }, };
+        int x = node.getX();
+        int y = node.getY();
+        ArrayList<TestNode> nodeList = new ArrayList<>();
+        for (int[] direction : myDefault2DDirections) {
+            int neighborX = x + direction[0];
+            int neighborY = y + direction[1];
+            if (neighborX >= 0 && neighborX < myMap.length && neighborY >= 0 &&
+                neighborY < myMap[0].length) {
+                nodeList.add(myMap[neighborX][neighborY]);
+            }
+        }
+        return nodeList;
+    }
+
+    @Override
+    public Number getHeuristicValue (TestNode node, TestNode destination) {
+        int beginningX = node.getX();
+        int beginningY = node.getY();
+        int endingX = destination.getX();
+        int endingY = destination.getY();
+        return Math.sqrt(1.0 * Math.pow(endingX - beginningX, 2) +
+                         Math.pow(endingY - beginningY, 2));
+    }
+
+    @Override
+    public int breakTie (TestNode node, TestNode other) {
+        Integer x = node.getX();
+        Integer otherX = other.getX();
+        int xCompareValue = x.compareTo(otherX);
+        return xCompareValue == 0 ? ((Integer) node.getY()).compareTo((Integer) other.getY())
+                                 : xCompareValue;
+    }
+
+}
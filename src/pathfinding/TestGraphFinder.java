@@ -0,0 +1,54 @@
+package pathfinding;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Dijkstra's algorithm over a graph of two-way links between int nodes.
+ */
+class TestGraphFinder extends AStarPathFinder<Integer> {
+
+    private final Map<Integer, List<Integer>> myLinks = new HashMap<>();
+
+    public void link (int node, int other) {
+        getLinks(node).add(other);
+        getLinks(other).add(node);
+    }
+
+    public void unlink (int node, int other) {
+        getLinks(node).remove(Integer.valueOf(other));
+        getLinks(other).remove(Integer.valueOf(node));
+    }
+
+    @Override
+    public Number getCost (Integer beginningNode, Integer endingNode) {
+        return 1;
+    }
+
+    @Override
+    public Iterable<Integer> getNeighbors (Integer node) {
+        return new ArrayList<>(getLinks(node));
+    }
+
+    @Override
+    public Number getHeuristicValue (Integer node, Integer destination) {
+        return 0;
+    }
+
+    @Override
+    public int breakTie (Integer node, Integer other) {
+        return node.compareTo(other);
+    }
+
+    private List<Integer> getLinks (int node) {
+        List<Integer> links = myLinks.get(node);
+        if (links == null) {
+            links = new ArrayList<>();
+            myLinks.put(node, links);
+        }
+        return links;
+    }
+}
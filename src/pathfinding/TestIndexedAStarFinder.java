@@ -0,0 +1,35 @@
+package pathfinding;
+
+/**
+ * Indexed finder that takes its hooks from another finder, so both search the same map.
+ *
+ * @param <T> Any object type.
+ */
+class TestIndexedAStarFinder<T> extends IndexedAStarPathFinder<T> {
+
+    private AStarPathFinder<T> myHooks;
+
+    public TestIndexedAStarFinder (AStarPathFinder<T> hooks) {
+        myHooks = hooks;
+    }
+
+    @Override
+    public Number getCost (T beginningNode, T endingNode) {
+        return myHooks.getCost(beginningNode, endingNode);
+    }
+
+    @Override
+    public Iterable<T> getNeighbors (T node) {
+        return myHooks.getNeighbors(node);
+    }
+
+    @Override
+    public Number getHeuristicValue (T node, T destination) {
+        return myHooks.getHeuristicValue(node, destination);
+    }
+
+    @Override
+    public int breakTie (T node, T other) {
+        return myHooks.breakTie(node, other);
+    }
+}
@@ -0,0 +1,48 @@
+package pathfinding;
+
+/**
+ * Node of a 2d grid map used by the tests in this package.
+ */
+class TestNode {
+
+    private int myX;
+    private int myY;
+
+    public TestNode (int x, int y) {
+        myX = x;
+        myY = y;
+    }
+
+    /**
+     * @return Map of xMax by yMax nodes, indexed by x and then y.
+     */
+    static TestNode[][] createNodeMap (int xMax, int yMax) {
+        TestNode[][] nodeMap = new TestNode[xMax][yMax];
+        for (int i = 0; i < xMax; i++) {
+            for (int j = 0; j < yMax; j++) {
+                nodeMap[i][j] = new TestNode(i, j);
+            }
+        }
+        return nodeMap;
+    }
+
+    public int getX () {
+        return myX;
+    }
+
+    public int getY () {
+        return myY;
+    }
+
+    @Override
+    public boolean equals (Object other) {
+        if (other == null || !(other instanceof TestNode)) { return false; }
+        TestNode otherNode = (TestNode) other;
+        return myX == otherNode.getX() && myY == otherNode.getY();
+    }
+
+    @Override
+    public String toString () {
+        return myX + ", " + myY;
+    }
+}
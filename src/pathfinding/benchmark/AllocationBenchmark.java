@@ -0,0 +1,85 @@
+package pathfinding.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+import pathfinding.IPathFinder;
+import pathfinding.example.UnlinkedNode;
+import pathfinding.example.UnlinkedNodeAStarFinder;
+
+
+/**
+ * Regression benchmark for the memory used by a single findPath call. Prints the average number
+ * of bytes allocated and the average time per search on the 50x39 grid used by AStarTest and on a
+ * 2000x2000 grid. The large grid is queried along full-width rows, which are the long corridors
+ * where copying the path prefix on every relaxation used to make a search quadratic.
+ *
+ * Allocation is read from the HotSpot ThreadMXBean, so run this on a HotSpot JVM.
+ */
+public class AllocationBenchmark {
+
+    private static final long SEED = 20150415L;
+    private static final int WARMUP_SEARCHES = 200;
+    private static final int SMALL_SEARCHES = 2000;
+    private static final int LARGE_SEARCHES = 20;
+
+    public static void main (String[] args) {
+        run("AStarTest grid 50x39, random queries", 50, 39, SMALL_SEARCHES, false);
+        run("Grid 2000x2000, full-width corridors", 2000, 2000, LARGE_SEARCHES, true);
+    }
+
+    private static void run (String label, int xMax, int yMax, int searches, boolean corridors) {
+        UnlinkedNode[][] nodeMap = createMap(xMax, yMax);
+        IPathFinder<UnlinkedNode> finder = new UnlinkedNodeAStarFinder(nodeMap);
+        Random rand = new Random(SEED);
+        for (int i = 0; i < Math.min(WARMUP_SEARCHES, searches); i++) {
+            search(finder, nodeMap, rand, corridors);
+        }
+
+        long pathNodes = 0;
+        long bytesBefore = allocatedBytes();
+        long timeBefore = System.nanoTime();
+        for (int i = 0; i < searches; i++) {
+            pathNodes += search(finder, nodeMap, rand, corridors).size();
+        }
+        long elapsed = System.nanoTime() - timeBefore;
+        long allocated = allocatedBytes() - bytesBefore;
+
+        System.out.println(label);
+        System.out.printf("  searches:            %d%n", searches);
+        System.out.printf("  average path length: %.1f%n", 1.0 * pathNodes / searches);
+        System.out.printf("  bytes per search:    %d%n", allocated / searches);
+        System.out.printf("  micros per search:   %.1f%n", elapsed / 1000.0 / searches);
+    }
+
+    private static List<UnlinkedNode> search (IPathFinder<UnlinkedNode> finder,
+                                              UnlinkedNode[][] nodeMap,
+                                              Random rand,
+                                              boolean corridors) {
+        int xMax = nodeMap.length;
+        int yMax = nodeMap[0].length;
+        if (corridors) {
+            int row = rand.nextInt(yMax);
+            return finder.findPath(nodeMap[0][row], nodeMap[xMax - 1][row]);
+        }
+        UnlinkedNode start = nodeMap[rand.nextInt(xMax)][rand.nextInt(yMax)];
+        UnlinkedNode destination = nodeMap[rand.nextInt(xMax)][rand.nextInt(yMax)];
+        return finder.findPath(start, destination);
+    }
+
+    private static long allocatedBytes () {
+        com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static UnlinkedNode[][] createMap (int xMax, int yMax) {
+        UnlinkedNode[][] nodeMap = new UnlinkedNode[xMax][yMax];
+        for (int i = 0; i < xMax; i++) {
+            for (int j = 0; j < yMax; j++) {
+                nodeMap[i][j] = new UnlinkedNode(i, j);
+            }
+        }
+        return nodeMap;
+    }
+}
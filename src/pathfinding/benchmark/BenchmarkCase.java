@@ -0,0 +1,408 @@
+package pathfinding.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import pathfinding.AnytimeAStarPathFinder;
+import pathfinding.BidirectionalAStarPathFinder;
+import pathfinding.IPathFinder;
+import pathfinding.IndexedAStarPathFinder;
+import pathfinding.PrimitiveAStarPathFinder;
+import pathfinding.example.LinkedNode;
+import pathfinding.example.LinkedNodeAStarFinder;
+import pathfinding.example.UnlinkedNode;
+import pathfinding.example.UnlinkedNodeAStarFinder;
+import pathfinding.grid.Connectivity;
+import pathfinding.grid.GridMap;
+import pathfinding.grid.GridPathFinder;
+import pathfinding.grid.JumpPointPathFinder;
+
+
+/**
+ * One finder measured by PathfindingBenchmark. Every case searches a BenchmarkMap with the same
+ * costs and moves, taken from a GridPathFinder over the map, so the paths they return have the
+ * same cost and their timings can be compared directly. Node-based finders count an expansion
+ * each time they ask for a node's neighbors.
+ */
+public abstract class BenchmarkCase {
+
+    private final String myName;
+    protected long myExpandedNodes;
+
+    public BenchmarkCase (String name) {
+        myName = name;
+    }
+
+    public String getName () {
+        return myName;
+    }
+
+    /**
+     * @return Whether the finder can search maps like the given one.
+     */
+    public boolean supports (BenchmarkMap map) {
+        return true;
+    }
+
+    /**
+     * Builds the finder and any data it needs for the map. Not timed.
+     */
+    public abstract void prepare (BenchmarkMap map);
+
+    /**
+     * @return Number of nodes in the path found, or 0 if there is none.
+     */
+    public abstract int findPath (UnlinkedNode start, UnlinkedNode destination);
+
+    /**
+     * @return Number of nodes expanded since the case was prepared.
+     */
+    public long getExpandedNodeCount () {
+        return myExpandedNodes;
+    }
+
+    /**
+     * @return Every finder in the package that answers single queries without preprocessing.
+     */
+    public static List<BenchmarkCase> createAll () {
+        List<BenchmarkCase> cases = new ArrayList<>();
+        cases.add(new UnlinkedNodeCase());
+        cases.add(new LinkedNodeCase());
+        cases.add(new HookCase("IndexedAStarPathFinder") {
+            @Override
+            protected IPathFinder<UnlinkedNode> createFinder (final MapHooks hooks) {
+                return new IndexedAStarPathFinder<UnlinkedNode>() {
+                    @Override
+                    public Number getCost (UnlinkedNode beginningNode, UnlinkedNode endingNode) {
+                        return hooks.getCost(beginningNode, endingNode);
+                    }
+
+                    @Override
+                    public Iterable<UnlinkedNode> getNeighbors (UnlinkedNode node) {
+                        return countExpansion(hooks.getNeighbors(node));
+                    }
+
+                    @Override
+                    public Number getHeuristicValue (UnlinkedNode node,
+                                                     UnlinkedNode destination) {
+                        return hooks.getHeuristicValue(node, destination);
+                    }
+
+                    @Override
+                    public int breakTie (UnlinkedNode node, UnlinkedNode other) {
+                        return hooks.breakTie(node, other);
+                    }
+                };
+            }
+        });
+        cases.add(new HookCase("PrimitiveAStarPathFinder") {
+            @Override
+            protected IPathFinder<UnlinkedNode> createFinder (final MapHooks hooks) {
+                return new PrimitiveAStarPathFinder<UnlinkedNode>() {
+                    @Override
+                    public double getPrimitiveCost (UnlinkedNode beginningNode,
+                                                    UnlinkedNode endingNode) {
+                        return hooks.getCostValue(beginningNode, endingNode);
+                    }
+
+                    @Override
+                    public Iterable<UnlinkedNode> getNeighbors (UnlinkedNode node) {
+                        return countExpansion(hooks.getNeighbors(node));
+                    }
+
+                    @Override
+                    public double getPrimitiveHeuristicValue (UnlinkedNode node,
+                                                              UnlinkedNode destination) {
+                        return hooks.getHeuristicValue(node, destination);
+                    }
+
+                    @Override
+                    public int breakTie (UnlinkedNode node, UnlinkedNode other) {
+                        return hooks.breakTie(node, other);
+                    }
+                };
+            }
+        });
+        cases.add(new HookCase("BidirectionalAStarPathFinder") {
+            @Override
+            protected IPathFinder<UnlinkedNode> createFinder (final MapHooks hooks) {
+                return new BidirectionalAStarPathFinder<UnlinkedNode>() {
+                    @Override
+                    public Number getCost (UnlinkedNode beginningNode, UnlinkedNode endingNode) {
+                        return hooks.getCost(beginningNode, endingNode);
+                    }
+
+                    @Override
+                    public Iterable<UnlinkedNode> getNeighbors (UnlinkedNode node) {
+                        return countExpansion(hooks.getNeighbors(node));
+                    }
+
+                    @Override
+                    public Number getHeuristicValue (UnlinkedNode node,
+                                                     UnlinkedNode destination) {
+                        return hooks.getHeuristicValue(node, destination);
+                    }
+
+                    @Override
+                    public int breakTie (UnlinkedNode node, UnlinkedNode other) {
+                        return hooks.breakTie(node, other);
+                    }
+                };
+            }
+        });
+        cases.add(new HookCase("AnytimeAStarPathFinder") {
+            @Override
+            protected IPathFinder<UnlinkedNode> createFinder (final MapHooks hooks) {
+                return new AnytimeAStarPathFinder<UnlinkedNode>() {
+                    @Override
+                    public Number getCost (UnlinkedNode beginningNode, UnlinkedNode endingNode) {
+                        return hooks.getCost(beginningNode, endingNode);
+                    }
+
+                    @Override
+                    public Iterable<UnlinkedNode> getNeighbors (UnlinkedNode node) {
+                        return countExpansion(hooks.getNeighbors(node));
+                    }
+
+                    @Override
+                    public Number getHeuristicValue (UnlinkedNode node,
+                                                     UnlinkedNode destination) {
+                        return hooks.getHeuristicValue(node, destination);
+                    }
+
+                    @Override
+                    public int breakTie (UnlinkedNode node, UnlinkedNode other) {
+                        return hooks.breakTie(node, other);
+                    }
+                };
+            }
+        });
+        cases.add(new GridCase("GridPathFinder", false));
+        cases.add(new GridCase("JumpPointPathFinder", true));
+        return cases;
+    }
+
+    /**
+     * Costs, moves and heuristic of a BenchmarkMap, as a GridPathFinder over it defines them.
+     */
+    protected static class MapHooks extends GridPathFinder<UnlinkedNode> {
+        private final BenchmarkMap myMap;
+        private final double myMinimumCost;
+
+        public MapHooks (BenchmarkMap map) {
+            super(map.getGrid(), map.getConnectivity());
+            myMap = map;
+            myMinimumCost = map.getGrid().getMinimumCost();
+        }
+
+        @Override
+        public int getX (UnlinkedNode node) {
+            return node.getX();
+        }
+
+        @Override
+        public int getY (UnlinkedNode node) {
+            return node.getY();
+        }
+
+        @Override
+        public UnlinkedNode getNode (int x, int y) {
+            return myMap.getNode(x, y);
+        }
+
+        /**
+         * Same value as getCost, without boxing it.
+         */
+        public double getCostValue (UnlinkedNode beginningNode, UnlinkedNode endingNode) {
+            return getConnectivity().getDistance(endingNode.getX() - beginningNode.getX(),
+                                                 endingNode.getY() - beginningNode.getY()) *
+                   getMap().getCost(endingNode.getX(), endingNode.getY());
+        }
+
+        public double getHeuristicValue (UnlinkedNode node, UnlinkedNode destination) {
+            return getConnectivity().getDistance(destination.getX() - node.getX(),
+                                                 destination.getY() - node.getY()) *
+                   myMinimumCost;
+        }
+    }
+
+    /**
+     * Case for a finder whose hooks delegate to MapHooks.
+     */
+    private abstract static class HookCase extends BenchmarkCase {
+        private IPathFinder<UnlinkedNode> myFinder;
+
+        public HookCase (String name) {
+            super(name);
+        }
+
+        protected abstract IPathFinder<UnlinkedNode> createFinder (MapHooks hooks);
+
+        protected <T> Iterable<T> countExpansion (Iterable<T> neighbors) {
+            myExpandedNodes++;
+            return neighbors;
+        }
+
+        @Override
+        public void prepare (BenchmarkMap map) {
+            myExpandedNodes = 0;
+            myFinder = createFinder(new MapHooks(map));
+        }
+
+        @Override
+        public int findPath (UnlinkedNode start, UnlinkedNode destination) {
+            return size(myFinder.findPath(start, destination));
+        }
+    }
+
+    /**
+     * The example finder, with its moves replaced by the map's. Its own costs and heuristic match
+     * the map's only for four-connected maps with unit costs.
+     */
+    private static class UnlinkedNodeCase extends BenchmarkCase {
+        private UnlinkedNodeAStarFinder myFinder;
+
+        public UnlinkedNodeCase () {
+            super("UnlinkedNodeAStarFinder");
+        }
+
+        @Override
+        public void prepare (BenchmarkMap map) {
+            myExpandedNodes = 0;
+            final MapHooks hooks = new MapHooks(map);
+            UnlinkedNode[][] nodes = new UnlinkedNode[map.getSize()][map.getSize()];
+            for (int x = 0; x < nodes.length; x++) {
+                for (int y = 0; y < nodes.length; y++) {
+                    nodes[x][y] = map.getNode(x, y);
+                }
+            }
+            myFinder = new UnlinkedNodeAStarFinder(nodes) {
+                @Override
+                public Collection<UnlinkedNode> getNeighbors (UnlinkedNode node) {
+                    myExpandedNodes++;
+                    return hooks.getNeighbors(node);
+                }
+            };
+        }
+
+        @Override
+        public boolean supports (BenchmarkMap map) {
+            return map.getConnectivity() == Connectivity.FOUR;
+        }
+
+        @Override
+        public int findPath (UnlinkedNode start, UnlinkedNode destination) {
+            return size(myFinder.findPath(start, destination));
+        }
+    }
+
+    /**
+     * The example finder over LinkedNodes linked along the map's moves, with its costs replaced
+     * by the map's.
+     */
+    private static class LinkedNodeCase extends BenchmarkCase {
+        private LinkedNodeAStarFinder myFinder;
+        private LinkedNode[][] myNodes;
+
+        public LinkedNodeCase () {
+            super("LinkedNodeAStarFinder");
+        }
+
+        @Override
+        public void prepare (BenchmarkMap map) {
+            myExpandedNodes = 0;
+            final MapHooks hooks = new MapHooks(map);
+            myNodes = new LinkedNode[map.getSize()][map.getSize()];
+            for (int x = 0; x < myNodes.length; x++) {
+                for (int y = 0; y < myNodes.length; y++) {
+                    myNodes[x][y] = new LinkedNode(x, y);
+                }
+            }
+            for (int x = 0; x < myNodes.length; x++) {
+                for (int y = 0; y < myNodes.length; y++) {
+                    for (UnlinkedNode neighbor : hooks.getNeighbors(map.getNode(x, y))) {
+                        myNodes[x][y].addNeighbor(myNodes[neighbor.getX()][neighbor.getY()]);
+                    }
+                }
+            }
+            myFinder = new LinkedNodeAStarFinder() {
+                @Override
+                public Number getCost (LinkedNode beginningNode, LinkedNode endingNode) {
+                    return hooks.getCost(beginningNode, endingNode);
+                }
+
+                @Override
+                public Iterable<LinkedNode> getNeighbors (LinkedNode node) {
+                    myExpandedNodes++;
+                    return super.getNeighbors(node);
+                }
+
+                @Override
+                public Number getHeuristicValue (LinkedNode node, LinkedNode destination) {
+                    return hooks.getHeuristicValue(node, destination);
+                }
+            };
+        }
+
+        @Override
+        public int findPath (UnlinkedNode start, UnlinkedNode destination) {
+            return size(myFinder.findPath(myNodes[start.getX()][start.getY()],
+                                          myNodes[destination.getX()][destination.getY()]));
+        }
+    }
+
+    private static class GridCase extends BenchmarkCase {
+        private final boolean myJumps;
+        private GridPathFinder<UnlinkedNode> myFinder;
+        private GridMap myGrid;
+
+        public GridCase (String name, boolean jumps) {
+            super(name);
+            myJumps = jumps;
+        }
+
+        @Override
+        public boolean supports (BenchmarkMap map) {
+            return !myJumps || map.getConnectivity() == Connectivity.EIGHT;
+        }
+
+        @Override
+        public void prepare (final BenchmarkMap map) {
+            myExpandedNodes = 0;
+            myGrid = map.getGrid();
+            if (!myJumps) {
+                myFinder = new MapHooks(map);
+                return;
+            }
+            myFinder = new JumpPointPathFinder<UnlinkedNode>(myGrid) {
+                @Override
+                public int getX (UnlinkedNode node) {
+                    return node.getX();
+                }
+
+                @Override
+                public int getY (UnlinkedNode node) {
+                    return node.getY();
+                }
+
+                @Override
+                public UnlinkedNode getNode (int x, int y) {
+                    return map.getNode(x, y);
+                }
+            };
+        }
+
+        @Override
+        public int findPath (UnlinkedNode start, UnlinkedNode destination) {
+            int[] path = myFinder.findCellPath(myGrid.getCell(start.getX(), start.getY()),
+                                               myGrid.getCell(destination.getX(),
+                                                              destination.getY()));
+            myExpandedNodes += myFinder.getExpandedCellCount();
+            return path == null ? 0 : path.length;
+        }
+    }
+
+    private static int size (List<?> path) {
+        return path == null ? 0 : path.size();
+    }
+}
@@ -0,0 +1,145 @@
+package pathfinding.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import pathfinding.PathRequest;
+import pathfinding.example.UnlinkedNode;
+import pathfinding.grid.Connectivity;
+import pathfinding.grid.GridMap;
+
+
+/**
+ * Seeded benchmark map: a square GridMap with randomly blocked cells, a node for every cell and a
+ * list of queries between cells of the largest connected area. The same size, obstacle density,
+ * connectivity and seed always produce the same map and queries, so results can be compared
+ * across commits.
+ */
+public class BenchmarkMap {
+
+    private final int mySize;
+    private final double myObstacleDensity;
+    private final Connectivity myConnectivity;
+    private final long mySeed;
+    private final GridMap myGrid;
+    private final UnlinkedNode[][] myNodes;
+    private final List<PathRequest<UnlinkedNode>> myQueries = new ArrayList<>();
+
+    /**
+     * @param size Width and height of the map
+     * @param obstacleDensity Share of cells that are blocked, from 0 to 1
+     * @param connectivity Moves allowed between cells
+     * @param seed Seed for the obstacles and the queries
+     * @param queryCount Number of queries to generate
+     */
+    public BenchmarkMap (int size, double obstacleDensity, Connectivity connectivity, long seed,
+                         int queryCount) {
+        if (!(obstacleDensity >= 0 && obstacleDensity < 1)) {
+            throw new IllegalArgumentException("Obstacle density must be at least 0 and below 1");
+        }
+        mySize = size;
+        myObstacleDensity = obstacleDensity;
+        myConnectivity = connectivity;
+        mySeed = seed;
+        Random rand = new Random(seed);
+        float[] costs = new float[size * size];
+        for (int cell = 0; cell < costs.length; cell++) {
+            costs[cell] = rand.nextDouble() < obstacleDensity ? GridMap.BLOCKED : 1;
+        }
+        myGrid = new GridMap(size, size, costs);
+        myNodes = new UnlinkedNode[size][size];
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                myNodes[x][y] = new UnlinkedNode(x, y);
+            }
+        }
+        int[] area = findLargestArea();
+        for (int i = 0; i < queryCount && area.length > 0; i++) {
+            myQueries.add(new PathRequest<>(getNode(area[rand.nextInt(area.length)]),
+                                            getNode(area[rand.nextInt(area.length)])));
+        }
+    }
+
+    /**
+     * @return Name that identifies the map's parameters, such as 256x256-d0.20-EIGHT-s1.
+     */
+    public String getName () {
+        return String.format(Locale.ROOT, "%dx%d-d%.2f-%s-s%d", mySize, mySize, myObstacleDensity,
+                             myConnectivity, mySeed);
+    }
+
+    public int getSize () {
+        return mySize;
+    }
+
+    public Connectivity getConnectivity () {
+        return myConnectivity;
+    }
+
+    public GridMap getGrid () {
+        return myGrid;
+    }
+
+    public UnlinkedNode getNode (int x, int y) {
+        return myNodes[x][y];
+    }
+
+    /**
+     * @return Queries between cells that are connected to each other.
+     */
+    public List<PathRequest<UnlinkedNode>> getQueries () {
+        return myQueries;
+    }
+
+    private UnlinkedNode getNode (int cell) {
+        return myNodes[myGrid.getX(cell)][myGrid.getY(cell)];
+    }
+
+    /**
+     * Floods every connected area of passable cells and returns the cells of the largest one.
+     */
+    private int[] findLargestArea () {
+        int[] area = new int[myGrid.getCellCount()];
+        int[] largest = new int[0];
+        boolean[] seen = new boolean[myGrid.getCellCount()];
+        for (int first = 0; first < seen.length; first++) {
+            if (seen[first] || !myGrid.isPassable(first)) {
+                continue;
+            }
+            int size = 0;
+            area[size++] = first;
+            seen[first] = true;
+            for (int next = 0; next < size; next++) {
+                int x = myGrid.getX(area[next]);
+                int y = myGrid.getY(area[next]);
+                for (int direction = 0; direction < myConnectivity.getDirectionCount();
+                     direction++) {
+                    int neighborX = x + myConnectivity.getDeltaX(direction);
+                    int neighborY = y + myConnectivity.getDeltaY(direction);
+                    if (canMove(x, y, neighborX, neighborY)) {
+                        int neighbor = myGrid.getCell(neighborX, neighborY);
+                        if (!seen[neighbor]) {
+                            seen[neighbor] = true;
+                            area[size++] = neighbor;
+                        }
+                    }
+                }
+            }
+            if (size > largest.length) {
+                largest = Arrays.copyOf(area, size);
+            }
+        }
+        return largest;
+    }
+
+    /**
+     * Same rule as GridPathFinder: diagonal moves may not cut the corner of a blocked cell.
+     */
+    private boolean canMove (int x, int y, int neighborX, int neighborY) {
+        if (!myGrid.isPassable(neighborX, neighborY)) { return false; }
+        return (x == neighborX || y == neighborY) ||
+               (myGrid.isPassable(neighborX, y) && myGrid.isPassable(x, neighborY));
+    }
+}
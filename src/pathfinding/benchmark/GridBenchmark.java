@@ -0,0 +1,86 @@
+package pathfinding.benchmark;
+
+import java.util.Random;
+import pathfinding.IPathFinder;
+import pathfinding.example.UnlinkedNode;
+import pathfinding.example.UnlinkedNodeAStarFinder;
+import pathfinding.grid.Connectivity;
+import pathfinding.grid.GridMap;
+import pathfinding.grid.GridPathFinder;
+
+
+/**
+ * Compares the throughput of UnlinkedNodeAStarFinder with a GridPathFinder over the same
+ * 1024x1024 four-connected map, using the same seeded queries for both.
+ */
+public class GridBenchmark {
+
+    private static final int SIZE = 1024;
+    private static final long SEED = 20150415L;
+    private static final int WARMUP_SEARCHES = 5;
+    private static final int SEARCHES = 20;
+
+    public static void main (String[] args) {
+        UnlinkedNode[][] nodeMap = new UnlinkedNode[SIZE][SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                nodeMap[i][j] = new UnlinkedNode(i, j);
+            }
+        }
+        double generic = measure("UnlinkedNodeAStarFinder", new UnlinkedNodeAStarFinder(nodeMap),
+                                 nodeMap);
+        double grid = measure("GridPathFinder", new UnlinkedNodeGridFinder(nodeMap), nodeMap);
+        System.out.printf("Speedup: %.1fx%n", grid / generic);
+    }
+
+    private static double measure (String label,
+                                   IPathFinder<UnlinkedNode> finder,
+                                   UnlinkedNode[][] nodeMap) {
+        Random rand = new Random(SEED);
+        for (int i = 0; i < WARMUP_SEARCHES; i++) {
+            search(finder, nodeMap, rand);
+        }
+        rand = new Random(SEED);
+        long before = System.nanoTime();
+        for (int i = 0; i < SEARCHES; i++) {
+            search(finder, nodeMap, rand);
+        }
+        double seconds = (System.nanoTime() - before) / 1e9;
+        double searchesPerSecond = SEARCHES / seconds;
+        System.out.printf("%-25s %10.2f searches/s%n", label, searchesPerSecond);
+        return searchesPerSecond;
+    }
+
+    private static void search (IPathFinder<UnlinkedNode> finder,
+                                UnlinkedNode[][] nodeMap,
+                                Random rand) {
+        UnlinkedNode start = nodeMap[rand.nextInt(SIZE)][rand.nextInt(SIZE)];
+        UnlinkedNode destination = nodeMap[rand.nextInt(SIZE)][rand.nextInt(SIZE)];
+        finder.findPath(start, destination);
+    }
+
+    private static class UnlinkedNodeGridFinder extends GridPathFinder<UnlinkedNode> {
+
+        private UnlinkedNode[][] myNodes;
+
+        public UnlinkedNodeGridFinder (UnlinkedNode[][] nodeMap) {
+            super(new GridMap(nodeMap.length, nodeMap[0].length), Connectivity.FOUR);
+            myNodes = nodeMap;
+        }
+
+        @Override
+        public int getX (UnlinkedNode node) {
+            return node.getX();
+        }
+
+        @Override
+        public int getY (UnlinkedNode node) {
+            return node.getY();
+        }
+
+        @Override
+        public UnlinkedNode getNode (int x, int y) {
+            return myNodes[x][y];
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package pathfinding.benchmark;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import pathfinding.PathRequest;
+import pathfinding.example.UnlinkedNode;
+import pathfinding.grid.Connectivity;
+
+
+/**
+ * Repeatable benchmark of the finders in the pathfinding package over standard seeded maps. For
+ * every combination of map size, obstacle density and connectivity, each finder answers the
+ * same warm-up queries and then the same measured queries, one at a time on the calling thread,
+ * and the benchmark reports:
+ *
+ * ops/s: measured queries per second
+ * mean, p50, p99: latency of a single query in microseconds
+ * expanded: nodes expanded per query
+ * bytes/op: memory allocated per query, read from the HotSpot ThreadMXBean
+ *
+ * Parameters are given as key=value arguments, with these defaults:
+ *
+ * sizes=64,256 densities=0,0.2 connectivity=FOUR,EIGHT seed=1 warmup=100 queries=200
+ * finders=all csv=(none)
+ *
+ * finders takes a comma separated list of finder names. With csv set, every result row is also
+ * appended to that file, so runs from different commits can be compared line by line. Run on an
+ * otherwise idle HotSpot JVM; the numbers are only comparable between runs on the same machine.
+ */
+public class PathfindingBenchmark {
+
+    private static final String[] COLUMNS = { "map", "finder", "ops/s", "mean us", "p50 us",
+                                              "p99 us", "expanded", "bytes/op" };
+    private static final String ROW_FORMAT = "%-26s %-29s %10s %10s %10s %10s %10s %12s%n";
+
+    public static void main (String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        List<BenchmarkCase> cases = selectCases(options.get("finders"));
+        int warmup = Integer.parseInt(options.get("warmup"));
+        int queries = Integer.parseInt(options.get("queries"));
+        long seed = Long.parseLong(options.get("seed"));
+        PrintWriter csv = null;
+        if (options.containsKey("csv")) {
+            csv = new PrintWriter(new FileWriter(options.get("csv"), true));
+        }
+        System.out.printf(ROW_FORMAT, (Object[]) COLUMNS);
+        try {
+            for (String size : options.get("sizes").split(",")) {
+                for (String density : options.get("densities").split(",")) {
+                    for (String connectivity : options.get("connectivity").split(",")) {
+                        BenchmarkMap map = new BenchmarkMap(Integer.parseInt(size),
+                                                            Double.parseDouble(density),
+                                                            Connectivity.valueOf(connectivity),
+                                                            seed, warmup + queries);
+                        for (BenchmarkCase benchmarkCase : cases) {
+                            if (benchmarkCase.supports(map)) {
+                                report(map, benchmarkCase, measure(map, benchmarkCase, warmup),
+                                       csv);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        finally {
+            if (csv != null) {
+                csv.close();
+            }
+        }
+    }
+
+    /**
+     * Runs the warm-up queries untimed, then times every remaining query separately.
+     */
+    private static Result measure (BenchmarkMap map, BenchmarkCase benchmarkCase, int warmup) {
+        benchmarkCase.prepare(map);
+        List<PathRequest<UnlinkedNode>> queries = map.getQueries();
+        for (int i = 0; i < warmup; i++) {
+            PathRequest<UnlinkedNode> query = queries.get(i);
+            benchmarkCase.findPath(query.getStart(), query.getDestination());
+        }
+        int count = queries.size() - warmup;
+        long[] latencies = new long[count];
+        long expandedBefore = benchmarkCase.getExpandedNodeCount();
+        long bytesBefore = allocatedBytes();
+        long timeBefore = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            PathRequest<UnlinkedNode> query = queries.get(warmup + i);
+            long queryStart = System.nanoTime();
+            benchmarkCase.findPath(query.getStart(), query.getDestination());
+            latencies[i] = System.nanoTime() - queryStart;
+        }
+        long elapsed = System.nanoTime() - timeBefore;
+        long allocated = allocatedBytes() - bytesBefore;
+        Arrays.sort(latencies);
+        Result result = new Result();
+        result.myOpsPerSecond = count / (elapsed / 1e9);
+        result.myMeanMicros = elapsed / 1000.0 / count;
+        result.myMedianMicros = latencies[percentileIndex(count, 0.5)] / 1000.0;
+        result.myP99Micros = latencies[percentileIndex(count, 0.99)] / 1000.0;
+        result.myExpandedPerQuery =
+                1.0 * (benchmarkCase.getExpandedNodeCount() - expandedBefore) / count;
+        result.myBytesPerQuery = allocated / count;
+        return result;
+    }
+
+    private static int percentileIndex (int count, double percentile) {
+        return Math.min(count - 1, (int) Math.ceil(percentile * count) - 1);
+    }
+
+    private static void report (BenchmarkMap map, BenchmarkCase benchmarkCase, Result result,
+                                PrintWriter csv) {
+        String[] row = { map.getName(), benchmarkCase.getName(),
+                         format("%.1f", result.myOpsPerSecond),
+                         format("%.1f", result.myMeanMicros),
+                         format("%.1f", result.myMedianMicros),
+                         format("%.1f", result.myP99Micros),
+                         format("%.1f", result.myExpandedPerQuery),
+                         Long.toString(result.myBytesPerQuery) };
+        System.out.printf(ROW_FORMAT, (Object[]) row);
+        if (csv != null) {
+            csv.println(String.join(",", row));
+            csv.flush();
+        }
+    }
+
+    private static String format (String pattern, double value) {
+        return String.format(Locale.ROOT, pattern, value);
+    }
+
+    private static Map<String, String> parseOptions (String[] args) {
+        Map<String, String> options = new HashMap<>();
+        options.put("sizes", "64,256");
+        options.put("densities", "0,0.2");
+        options.put("connectivity", "FOUR,EIGHT");
+        options.put("seed", "1");
+        options.put("warmup", "100");
+        options.put("queries", "200");
+        options.put("finders", "all");
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (split < 0 || !(options.containsKey(arg.substring(0, split)) ||
+                               arg.startsWith("csv="))) {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+            options.put(arg.substring(0, split), arg.substring(split + 1));
+        }
+        return options;
+    }
+
+    private static List<BenchmarkCase> selectCases (String names) {
+        List<BenchmarkCase> cases = BenchmarkCase.createAll();
+        if (names.equals("all")) { return cases; }
+        List<BenchmarkCase> selected = new ArrayList<>();
+        for (String name : names.split(",")) {
+            boolean found = false;
+            for (BenchmarkCase benchmarkCase : cases) {
+                if (benchmarkCase.getName().equals(name)) {
+                    selected.add(benchmarkCase);
+                    found = true;
+                }
+            }
+            if (!found) { throw new IllegalArgumentException("Unknown finder: " + name); }
+        }
+        return selected;
+    }
+
+    private static long allocatedBytes () {
+        com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static class Result {
+        private double myOpsPerSecond;
+        private double myMeanMicros;
+        private double myMedianMicros;
+        private double myP99Micros;
+        private double myExpandedPerQuery;
+        private long myBytesPerQuery;
+    }
+}
@@ -0,0 +1,184 @@
+package pathfinding.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import pathfinding.IndexedAStarPathFinder;
+import pathfinding.PrimitiveAStarPathFinder;
+import pathfinding.example.UnlinkedNode;
+
+
+/**
+ * Measures the memory allocated per relaxed move by IndexedAStarPathFinder when costs and
+ * heuristic values come back as boxed Numbers, and when they come back as primitive doubles
+ * through IPrimitiveCosts. Both finders search the same 256x256 map with random fractional
+ * terrain costs and precomputed neighbor lists, using the same seeded queries, so the only
+ * difference between them is the boxing.
+ *
+ * Allocation is read from the HotSpot ThreadMXBean, so run this on a HotSpot JVM. Once C2 has
+ * compiled the search loop, escape analysis usually removes the boxes of the Number hooks too, and
+ * both finders allocate nearly nothing per move. Run with -XX:-DoEscapeAnalysis or
+ * -XX:TieredStopAtLevel=1 to see the cost of boxing where escape analysis gives up, as it does
+ * when hooks are too large to inline. The remaining bytes of the primitive finder are the
+ * neighbor list iterators and the returned paths.
+ */
+public class PrimitiveCostBenchmark {
+
+    private static final int SIZE = 256;
+    private static final long SEED = 20150415L;
+    private static final int WARMUP_SEARCHES = 300;
+    private static final int SEARCHES = 300;
+
+    public static void main (String[] args) {
+        WeightedMap map = new WeightedMap(SIZE, new Random(SEED));
+        measure("Number hooks", new BoxedFinder(map), map);
+        measure("Primitive hooks", new PrimitiveFinder(map), map);
+    }
+
+    private static void measure (String label, IndexedAStarPathFinder<UnlinkedNode> finder,
+                                 WeightedMap map) {
+        Random rand = new Random(SEED);
+        for (int i = 0; i < WARMUP_SEARCHES; i++) {
+            search(finder, map, rand);
+        }
+        rand = new Random(SEED);
+        map.myRelaxedMoves = 0;
+        long bytesBefore = allocatedBytes();
+        long timeBefore = System.nanoTime();
+        for (int i = 0; i < SEARCHES; i++) {
+            search(finder, map, rand);
+        }
+        long elapsed = System.nanoTime() - timeBefore;
+        long allocated = allocatedBytes() - bytesBefore;
+
+        System.out.println(label);
+        System.out.printf("  relaxed moves per search: %d%n", map.myRelaxedMoves / SEARCHES);
+        System.out.printf("  bytes per search:         %d%n", allocated / SEARCHES);
+        System.out.printf("  bytes per relaxed move:   %.2f%n",
+                          1.0 * allocated / map.myRelaxedMoves);
+        System.out.printf("  micros per search:        %.1f%n", elapsed / 1000.0 / SEARCHES);
+    }
+
+    private static void search (IndexedAStarPathFinder<UnlinkedNode> finder, WeightedMap map,
+                                Random rand) {
+        UnlinkedNode start = map.myNodes[rand.nextInt(SIZE)][rand.nextInt(SIZE)];
+        UnlinkedNode destination = map.myNodes[rand.nextInt(SIZE)][rand.nextInt(SIZE)];
+        finder.findPath(start, destination);
+    }
+
+    private static long allocatedBytes () {
+        com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Four-connected grid where entering a cell costs between 1 and 2.
+     */
+    private static class WeightedMap {
+        private final UnlinkedNode[][] myNodes;
+        private final double[][] myCosts;
+        private final List<UnlinkedNode>[][] myNeighbors;
+        private long myRelaxedMoves;
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        public WeightedMap (int size, Random rand) {
+            myNodes = new UnlinkedNode[size][size];
+            myCosts = new double[size][size];
+            myNeighbors = new List[size][size];
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    myNodes[i][j] = new UnlinkedNode(i, j);
+                    myCosts[i][j] = 1 + rand.nextDouble();
+                }
+            }
+            int[][] directions = { { -1, 0 }, { 0, -1 }, { 0, 1 }, { 1, 0 } };
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    UnlinkedNode[] neighbors = new UnlinkedNode[directions.length];
+                    int count = 0;
+                    for (int[] direction : directions) {
+                        int x = i + direction[0];
+                        int y = j + direction[1];
+                        if (x >= 0 && x < size && y >= 0 && y < size) {
+                            neighbors[count++] = myNodes[x][y];
+                        }
+                    }
+                    myNeighbors[i][j] = Arrays.asList(Arrays.copyOf(neighbors, count));
+                }
+            }
+        }
+
+        public double getCost (UnlinkedNode endingNode) {
+            myRelaxedMoves++;
+            return myCosts[endingNode.getX()][endingNode.getY()];
+        }
+
+        public double getHeuristicValue (UnlinkedNode node, UnlinkedNode destination) {
+            return Math.abs(node.getX() - destination.getX()) +
+                   Math.abs(node.getY() - destination.getY());
+        }
+
+        public int breakTie (UnlinkedNode node, UnlinkedNode other) {
+            int result = Integer.compare(node.getX(), other.getX());
+            return result != 0 ? result : Integer.compare(node.getY(), other.getY());
+        }
+    }
+
+    private static class BoxedFinder extends IndexedAStarPathFinder<UnlinkedNode> {
+        private final WeightedMap myMap;
+
+        public BoxedFinder (WeightedMap map) {
+            myMap = map;
+        }
+
+        @Override
+        public Number getCost (UnlinkedNode beginningNode, UnlinkedNode endingNode) {
+            return myMap.getCost(endingNode);
+        }
+
+        @Override
+        public Iterable<UnlinkedNode> getNeighbors (UnlinkedNode node) {
+            return myMap.myNeighbors[node.getX()][node.getY()];
+        }
+
+        @Override
+        public Number getHeuristicValue (UnlinkedNode node, UnlinkedNode destination) {
+            return myMap.getHeuristicValue(node, destination);
+        }
+
+        @Override
+        public int breakTie (UnlinkedNode node, UnlinkedNode other) {
+            return myMap.breakTie(node, other);
+        }
+    }
+
+    private static class PrimitiveFinder extends PrimitiveAStarPathFinder<UnlinkedNode> {
+        private final WeightedMap myMap;
+
+        public PrimitiveFinder (WeightedMap map) {
+            myMap = map;
+        }
+
+        @Override
+        public double getPrimitiveCost (UnlinkedNode beginningNode, UnlinkedNode endingNode) {
+            return myMap.getCost(endingNode);
+        }
+
+        @Override
+        public Iterable<UnlinkedNode> getNeighbors (UnlinkedNode node) {
+            return myMap.myNeighbors[node.getX()][node.getY()];
+        }
+
+        @Override
+        public double getPrimitiveHeuristicValue (UnlinkedNode node, UnlinkedNode destination) {
+            return myMap.getHeuristicValue(node, destination);
+        }
+
+        @Override
+        public int breakTie (UnlinkedNode node, UnlinkedNode other) {
+            return myMap.breakTie(node, other);
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package pathfinding.contraction;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import pathfinding.IndexedMinHeap;
+
+
+/**
+ * Contracted graph produced by ContractionHierarchyBuilder. Every node has a rank, and the graph
+ * holds the original edges plus shortcuts that stand in for paths through lower ranked nodes. A
+ * query searches upwards in rank from both the start and the destination, which settles only a
+ * few hundred nodes even on large road networks, and then unpacks the shortcuts on the best
+ * meeting into the original path.
+ *
+ * Edges are stored in compressed arrays: the upward graph holds every edge from a node to a
+ * higher ranked one under the lower node, and the downward graph holds every edge from a higher
+ * ranked node under the lower node it ends at, which is what the backward search follows.
+ *
+ * A hierarchy is immutable and can be queried by any number of threads at once. It can be saved
+ * to a stream and loaded back with the node list in the order getNodes returned it.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public class ContractionHierarchy<T> {
+
+    static final int NO_MIDDLE = -1;
+
+    private static final int FILE_MAGIC = 0x43484731;
+    private static final int NONE = -1;
+
+    private final List<T> myNodes;
+    private final Map<T, Integer> myIds;
+    private final int[] myRanks;
+    private final EdgeArrays myUpEdges;
+    private final EdgeArrays myDownEdges;
+    private final ThreadLocal<Query> myQueries = new ThreadLocal<Query>() {
+        @Override
+        protected Query initialValue () {
+            return new Query(myNodes.size());
+        }
+    };
+
+    ContractionHierarchy (List<T> nodes, int[] ranks, EdgeArrays upEdges, EdgeArrays downEdges) {
+        myNodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+        myIds = new HashMap<>();
+        for (int id = 0; id < nodes.size(); id++) {
+            myIds.put(nodes.get(id), id);
+        }
+        myRanks = ranks;
+        myUpEdges = upEdges;
+        myDownEdges = downEdges;
+    }
+
+    /**
+     * Loads a hierarchy written by save.
+     *
+     * @param input Stream to read from
+     * @param nodes Nodes of the hierarchy in the order getNodes returned them when it was saved
+     */
+    public static <T> ContractionHierarchy<T> load (InputStream input, List<T> nodes)
+            throws IOException {
+        DataInputStream data = new DataInputStream(input);
+        if (data.readInt() != FILE_MAGIC) { throw new IOException("Not a contraction hierarchy"); }
+        int nodeCount = data.readInt();
+        if (nodeCount != nodes.size()) {
+            throw new IOException("Hierarchy has " + nodeCount + " nodes but " + nodes.size() +
+                                  " were given");
+        }
+        int[] ranks = new int[nodeCount];
+        for (int id = 0; id < nodeCount; id++) {
+            ranks[id] = data.readInt();
+        }
+        EdgeArrays upEdges = EdgeArrays.read(data, nodeCount);
+        EdgeArrays downEdges = EdgeArrays.read(data, nodeCount);
+        return new ContractionHierarchy<>(nodes, ranks, upEdges, downEdges);
+    }
+
+    /**
+     * Writes the hierarchy to a stream. The nodes themselves are not written; keep the list from
+     * getNodes to load it again.
+     */
+    public void save (OutputStream output) throws IOException {
+        DataOutputStream data = new DataOutputStream(output);
+        data.writeInt(FILE_MAGIC);
+        data.writeInt(myNodes.size());
+        for (int rank : myRanks) {
+            data.writeInt(rank);
+        }
+        myUpEdges.write(data);
+        myDownEdges.write(data);
+        data.flush();
+    }
+
+    /**
+     * @return Nodes of the hierarchy, in the order load expects them.
+     */
+    public List<T> getNodes () {
+        return myNodes;
+    }
+
+    /**
+     * @return Number of edges in the hierarchy, counting original edges and shortcuts.
+     */
+    public int getEdgeCount () {
+        return myUpEdges.getEdgeCount() + myDownEdges.getEdgeCount();
+    }
+
+    /**
+     * @return Least cost from start to destination, or positive infinity if there is no path.
+     */
+    public double getDistance (T start, T destination) {
+        Query query = myQueries.get();
+        search(query, getId(start), getId(destination));
+        return query.myBestCost;
+    }
+
+    /**
+     * Finds the least cost path from start to destination.
+     *
+     * @return Path from start to destination in order, or null if there is none.
+     */
+    public List<T> findPath (T start, T destination) {
+        Query query = myQueries.get();
+        int startId = getId(start);
+        int destinationId = getId(destination);
+        search(query, startId, destinationId);
+        if (query.myMeetingId == NONE) { return null; }
+        List<T> path = new ArrayList<>();
+        path.add(start);
+        List<Integer> upEdges = new ArrayList<>();
+        for (int id = query.myMeetingId; id != startId; ) {
+            int edge = query.myForwardEdges[id];
+            upEdges.add(edge);
+            id = myUpEdges.getSource(edge);
+        }
+        for (int i = upEdges.size() - 1; i >= 0; i--) {
+            int edge = upEdges.get(i);
+            unpack(myUpEdges.getSource(edge), myUpEdges.getOther(edge), path);
+        }
+        for (int id = query.myMeetingId; id != destinationId; ) {
+            int edge = query.myBackwardEdges[id];
+            int next = myDownEdges.getSource(edge);
+            unpack(id, next, path);
+            id = next;
+        }
+        return path;
+    }
+
+    /**
+     * Bidirectional Dijkstra's algorithm that only follows edges towards higher ranked nodes.
+     * Leaves the best cost and meeting node in the query.
+     */
+    private void search (Query query, int startId, int destinationId) {
+        query.start();
+        query.discover(true, startId, 0, NONE);
+        query.discover(false, destinationId, 0, NONE);
+        IndexedMinHeap forward = query.myForwardFrontier;
+        IndexedMinHeap backward = query.myBackwardFrontier;
+        while (true) {
+            boolean forwardOpen = !forward.isEmpty() &&
+                                  forward.getKey(forward.peek()) < query.myBestCost;
+            boolean backwardOpen = !backward.isEmpty() &&
+                                   backward.getKey(backward.peek()) < query.myBestCost;
+            if (!forwardOpen && !backwardOpen) {
+                break;
+            }
+            boolean searchForward = forwardOpen &&
+                                    (!backwardOpen || forward.size() <= backward.size());
+            if (searchForward) {
+                settle(query, true, forward.poll(), myUpEdges);
+            }
+            else {
+                settle(query, false, backward.poll(), myDownEdges);
+            }
+        }
+    }
+
+    private void settle (Query query, boolean forward, int id, EdgeArrays edges) {
+        double distance = query.getDistance(forward, id);
+        double otherDistance = query.getDistance(!forward, id);
+        if (distance + otherDistance < query.myBestCost) {
+            query.myBestCost = distance + otherDistance;
+            query.myMeetingId = id;
+        }
+        for (int edge = edges.getFirstEdge(id); edge < edges.getFirstEdge(id + 1); edge++) {
+            int other = edges.getOther(edge);
+            double newDistance = distance + edges.getWeight(edge);
+            if (newDistance < query.getDistance(forward, other)) {
+                query.discover(forward, other, newDistance, edge);
+            }
+        }
+    }
+
+    /**
+     * Appends the original path of the edge from one node to another, not including the first
+     * node, to the path.
+     */
+    private void unpack (int fromId, int toId, List<T> path) {
+        int[] stack = new int[16];
+        int size = 0;
+        stack[size++] = fromId;
+        stack[size++] = toId;
+        while (size > 0) {
+            int to = stack[--size];
+            int from = stack[--size];
+            int middle = getMiddle(from, to);
+            if (middle == NO_MIDDLE) {
+                path.add(myNodes.get(to));
+                continue;
+            }
+            if (size + 4 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            stack[size++] = middle;
+            stack[size++] = to;
+            stack[size++] = from;
+            stack[size++] = middle;
+        }
+    }
+
+    /**
+     * Gets the node a shortcut from one node to another stands in for a path through, or
+     * NO_MIDDLE if the edge is an original one. Every pair of nodes has at most one edge in each
+     * direction, stored under the lower ranked of the two.
+     */
+    private int getMiddle (int fromId, int toId) {
+        if (myRanks[toId] > myRanks[fromId]) {
+            return myUpEdges.getMiddle(myUpEdges.findEdge(fromId, toId));
+        }
+        return myDownEdges.getMiddle(myDownEdges.findEdge(toId, fromId));
+    }
+
+    private int getId (T node) {
+        Integer id = myIds.get(node);
+        if (id == null) {
+            throw new IllegalArgumentException("Node " + node + " is not in the hierarchy");
+        }
+        return id;
+    }
+
+    /**
+     * Compressed adjacency arrays. The edges of node i are numbered from getFirstEdge(i) up to
+     * getFirstEdge(i + 1); each has the node at its other end, a weight, and the middle node of
+     * the shortcut or NO_MIDDLE.
+     */
+    static class EdgeArrays {
+        private final int[] myOffsets;
+        private final int[] mySources;
+        private final int[] myOthers;
+        private final double[] myWeights;
+        private final int[] myMiddles;
+
+        EdgeArrays (int[] offsets, int[] others, double[] weights, int[] middles) {
+            myOffsets = offsets;
+            myOthers = others;
+            myWeights = weights;
+            myMiddles = middles;
+            mySources = new int[others.length];
+            for (int id = 0; id + 1 < offsets.length; id++) {
+                Arrays.fill(mySources, offsets[id], offsets[id + 1], id);
+            }
+        }
+
+        int getEdgeCount () {
+            return myOthers.length;
+        }
+
+        int getFirstEdge (int id) {
+            return myOffsets[id];
+        }
+
+        int getSource (int edge) {
+            return mySources[edge];
+        }
+
+        int getOther (int edge) {
+            return myOthers[edge];
+        }
+
+        double getWeight (int edge) {
+            return myWeights[edge];
+        }
+
+        int getMiddle (int edge) {
+            return myMiddles[edge];
+        }
+
+        int findEdge (int id, int other) {
+            for (int edge = myOffsets[id]; edge < myOffsets[id + 1]; edge++) {
+                if (myOthers[edge] == other) { return edge; }
+            }
+            throw new IllegalStateException("Hierarchy has no edge between " + id + " and " +
+                                            other);
+        }
+
+        void write (DataOutputStream data) throws IOException {
+            data.writeInt(myOthers.length);
+            for (int offset : myOffsets) {
+                data.writeInt(offset);
+            }
+            for (int edge = 0; edge < myOthers.length; edge++) {
+                data.writeInt(myOthers[edge]);
+                data.writeDouble(myWeights[edge]);
+                data.writeInt(myMiddles[edge]);
+            }
+        }
+
+        static EdgeArrays read (DataInputStream data, int nodeCount) throws IOException {
+            int edgeCount = data.readInt();
+            int[] offsets = new int[nodeCount + 1];
+            for (int id = 0; id <= nodeCount; id++) {
+                offsets[id] = data.readInt();
+            }
+            if (offsets[nodeCount] != edgeCount) { throw new IOException("Corrupt edge offsets"); }
+            int[] others = new int[edgeCount];
+            double[] weights = new double[edgeCount];
+            int[] middles = new int[edgeCount];
+            for (int edge = 0; edge < edgeCount; edge++) {
+                others[edge] = data.readInt();
+                weights[edge] = data.readDouble();
+                middles[edge] = data.readInt();
+            }
+            return new EdgeArrays(offsets, others, weights, middles);
+        }
+    }
+
+    /**
+     * Per-thread storage for queries. Distances are valid only where the stamp matches the
+     * current query, so starting a query costs nothing in the size of the graph.
+     */
+    private static class Query {
+        private final double[] myForwardDistances;
+        private final double[] myBackwardDistances;
+        private final int[] myForwardEdges;
+        private final int[] myBackwardEdges;
+        private final int[] myForwardStamps;
+        private final int[] myBackwardStamps;
+        private final IndexedMinHeap myForwardFrontier = new IndexedMinHeap();
+        private final IndexedMinHeap myBackwardFrontier = new IndexedMinHeap();
+        private int myStamp;
+        private double myBestCost;
+        private int myMeetingId;
+
+        public Query (int nodeCount) {
+            myForwardDistances = new double[nodeCount];
+            myBackwardDistances = new double[nodeCount];
+            myForwardEdges = new int[nodeCount];
+            myBackwardEdges = new int[nodeCount];
+            myForwardStamps = new int[nodeCount];
+            myBackwardStamps = new int[nodeCount];
+        }
+
+        public void start () {
+            myStamp++;
+            if (myStamp == Integer.MAX_VALUE) {
+                Arrays.fill(myForwardStamps, 0);
+                Arrays.fill(myBackwardStamps, 0);
+                myStamp = 1;
+            }
+            myForwardFrontier.clear();
+            myBackwardFrontier.clear();
+            myBestCost = Double.POSITIVE_INFINITY;
+            myMeetingId = NONE;
+        }
+
+        public double getDistance (boolean forward, int id) {
+            int[] stamps = forward ? myForwardStamps : myBackwardStamps;
+            if (stamps[id] != myStamp) { return Double.POSITIVE_INFINITY; }
+            return forward ? myForwardDistances[id] : myBackwardDistances[id];
+        }
+
+        public void discover (boolean forward, int id, double distance, int edge) {
+            if (forward) {
+                myForwardStamps[id] = myStamp;
+                myForwardDistances[id] = distance;
+                myForwardEdges[id] = edge;
+                myForwardFrontier.offer(id, distance);
+            }
+            else {
+                myBackwardStamps[id] = myStamp;
+                myBackwardDistances[id] = distance;
+                myBackwardEdges[id] = edge;
+                myBackwardFrontier.offer(id, distance);
+            }
+        }
+    }
+}
@@ -0,0 +1,482 @@
+package pathfinding.contraction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import pathfinding.CheckedCosts;
+import pathfinding.IPathFinder;
+import pathfinding.IndexedMinHeap;
+import pathfinding.InvalidCostException;
+
+
+/**
+ * Builds a ContractionHierarchy from the getNeighbors and getCost hooks of a path finder. Nodes
+ * are contracted one after another, least important first: contracting a node removes it from
+ * the remaining graph and adds a shortcut between two of its neighbors wherever the path through
+ * it is the only least cost path between them. A node's importance is its edge difference, the
+ * number of shortcuts its contraction would add minus the number of edges it would remove, plus
+ * the number of its neighbors already contracted, which spreads contraction evenly over the map.
+ *
+ * The work runs on an executor. Each round picks every remaining node that is less important
+ * than all of its remaining neighbors; no two of them are adjacent, so their shortcuts are
+ * computed in parallel and then added together. The searches that look for a path avoiding the
+ * node (a witness) are limited in size, which can only add unneeded shortcuts, never lose a path.
+ *
+ * The hooks are called only from the thread that calls build, and the map must not change while
+ * the hierarchy is in use.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public class ContractionHierarchyBuilder<T> {
+
+    private static final int DEFAULT_WITNESS_SETTLE_LIMIT = 500;
+    private static final int NODES_PER_TASK = 256;
+
+    private final IPathFinder<T> myFinder;
+    private final ExecutorService myExecutor;
+    private final int myWitnessSettleLimit;
+
+    /**
+     * Creates a builder that runs on the common ForkJoinPool.
+     */
+    public ContractionHierarchyBuilder (IPathFinder<T> finder) {
+        this(finder, ForkJoinPool.commonPool(), DEFAULT_WITNESS_SETTLE_LIMIT);
+    }
+
+    /**
+     * @param finder Finder whose hooks define the map
+     * @param executor Executor to run the contraction on
+     * @param witnessSettleLimit Most nodes a single witness search may settle. Larger limits take
+     *        longer to build but give fewer shortcuts and faster queries.
+     */
+    public ContractionHierarchyBuilder (IPathFinder<T> finder, ExecutorService executor,
+                                       int witnessSettleLimit) {
+        if (witnessSettleLimit < 1) {
+            throw new IllegalArgumentException("Witness searches must settle at least one node");
+        }
+        myFinder = finder;
+        myExecutor = executor;
+        myWitnessSettleLimit = witnessSettleLimit;
+    }
+
+    /**
+     * Contracts the map made of the given nodes.
+     *
+     * @param nodes Every node of the map. The neighbors of every node must be among them.
+     * @return The contracted map
+     */
+    public ContractionHierarchy<T> build (Iterable<T> nodes) throws InvalidCostException {
+        return new Contraction(nodes).run();
+    }
+
+    /**
+     * State of one build.
+     */
+    private class Contraction {
+        private final List<T> myNodes = new ArrayList<>();
+        private final List<List<Edge>> myOutEdges = new ArrayList<>();
+        private final List<List<Edge>> myInEdges = new ArrayList<>();
+        private final List<Edge> myEdges = new ArrayList<>();
+        private final boolean[] myContracted;
+        private final boolean[] myContracting;
+        private final int[] myPriorities;
+        private final int[] myDeletedNeighbors;
+        private final int[] myRanks;
+        private final ThreadLocal<WitnessSearch> myWitnessSearches;
+
+        public Contraction (Iterable<T> nodes) {
+            Map<T, Integer> ids = new HashMap<>();
+            for (T node : nodes) {
+                if (!ids.containsKey(node)) {
+                    ids.put(node, myNodes.size());
+                    myNodes.add(node);
+                    myOutEdges.add(new ArrayList<Edge>());
+                    myInEdges.add(new ArrayList<Edge>());
+                }
+            }
+            for (int id = 0; id < myNodes.size(); id++) {
+                T node = myNodes.get(id);
+                for (T neighbor : myFinder.getNeighbors(node)) {
+                    Integer neighborId = ids.get(neighbor);
+                    if (neighborId == null) {
+                        throw new IllegalArgumentException("Neighbor " + neighbor + " of " + node +
+                                                           " is not among the nodes");
+                    }
+                    double cost = CheckedCosts.getCost(myFinder, node, neighbor);
+                    if (neighborId != id) {
+                        addEdge(id, neighborId, cost, ContractionHierarchy.NO_MIDDLE);
+                    }
+                }
+            }
+            int nodeCount = myNodes.size();
+            myContracted = new boolean[nodeCount];
+            myContracting = new boolean[nodeCount];
+            myPriorities = new int[nodeCount];
+            myDeletedNeighbors = new int[nodeCount];
+            myRanks = new int[nodeCount];
+            myWitnessSearches = new ThreadLocal<WitnessSearch>() {
+                @Override
+                protected WitnessSearch initialValue () {
+                    return new WitnessSearch(myNodes.size());
+                }
+            };
+        }
+
+        public ContractionHierarchy<T> run () {
+            int nodeCount = myNodes.size();
+            int[] allNodes = new int[nodeCount];
+            for (int id = 0; id < nodeCount; id++) {
+                allNodes[id] = id;
+            }
+            updatePriorities(allNodes, nodeCount);
+            int nextRank = 0;
+            int[] selected = new int[nodeCount];
+            boolean[] touched = new boolean[nodeCount];
+            int[] touchedNodes = new int[nodeCount];
+            while (nextRank < nodeCount) {
+                int selectedCount = 0;
+                for (int id = 0; id < nodeCount; id++) {
+                    if (!myContracted[id] && isLeastImportant(id)) {
+                        selected[selectedCount++] = id;
+                        myContracting[id] = true;
+                    }
+                }
+                List<List<Edge>> shortcuts = findShortcuts(selected, selectedCount);
+                int touchedCount = 0;
+                for (int i = 0; i < selectedCount; i++) {
+                    int id = selected[i];
+                    myRanks[id] = nextRank++;
+                    myContracted[id] = true;
+                    for (Edge shortcut : shortcuts.get(i)) {
+                        addEdge(shortcut.mySource, shortcut.myTarget, shortcut.myWeight, id);
+                    }
+                    for (int neighbor : getRemainingNeighbors(id)) {
+                        myDeletedNeighbors[neighbor]++;
+                        if (!touched[neighbor]) {
+                            touched[neighbor] = true;
+                            touchedNodes[touchedCount++] = neighbor;
+                        }
+                    }
+                    detach(id);
+                }
+                for (int i = 0; i < selectedCount; i++) {
+                    myContracting[selected[i]] = false;
+                }
+                for (int i = 0; i < touchedCount; i++) {
+                    touched[touchedNodes[i]] = false;
+                }
+                updatePriorities(touchedNodes, touchedCount);
+            }
+            return buildHierarchy();
+        }
+
+        /**
+         * Removes the edges of a contracted node from the lists of its remaining neighbors, so
+         * searches over the remaining graph do not keep stepping over them. The edges stay in
+         * the hierarchy.
+         */
+        private void detach (int id) {
+            for (Edge edge : myOutEdges.get(id)) {
+                myInEdges.get(edge.myTarget).remove(edge);
+            }
+            for (Edge edge : myInEdges.get(id)) {
+                myOutEdges.get(edge.mySource).remove(edge);
+            }
+        }
+
+        /**
+         * Whether a remaining node is less important than all its remaining neighbors, breaking
+         * ties by id.
+         */
+        private boolean isLeastImportant (int id) {
+            for (int neighbor : getRemainingNeighbors(id)) {
+                if (myPriorities[neighbor] < myPriorities[id] ||
+                    (myPriorities[neighbor] == myPriorities[id] && neighbor < id)) { return false; }
+            }
+            return true;
+        }
+
+        private List<Integer> getRemainingNeighbors (int id) {
+            List<Integer> neighbors = new ArrayList<>();
+            for (Edge edge : myOutEdges.get(id)) {
+                if (!myContracted[edge.myTarget]) {
+                    neighbors.add(edge.myTarget);
+                }
+            }
+            for (Edge edge : myInEdges.get(id)) {
+                if (!myContracted[edge.mySource]) {
+                    neighbors.add(edge.mySource);
+                }
+            }
+            return neighbors;
+        }
+
+        private void updatePriorities (final int[] ids, int count) {
+            runInParallel(count, new Task() {
+                @Override
+                public void run (int index) {
+                    int id = ids[index];
+                    int removedEdges = 0;
+                    for (Edge edge : myOutEdges.get(id)) {
+                        removedEdges += myContracted[edge.myTarget] ? 0 : 1;
+                    }
+                    for (Edge edge : myInEdges.get(id)) {
+                        removedEdges += myContracted[edge.mySource] ? 0 : 1;
+                    }
+                    int shortcuts = simulateContraction(id).size();
+                    myPriorities[id] = shortcuts - removedEdges + myDeletedNeighbors[id];
+                }
+            });
+        }
+
+        private List<List<Edge>> findShortcuts (final int[] ids, int count) {
+            final List<List<Edge>> shortcuts = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                shortcuts.add(null);
+            }
+            runInParallel(count, new Task() {
+                @Override
+                public void run (int index) {
+                    shortcuts.set(index, simulateContraction(ids[index]));
+                }
+            });
+            return shortcuts;
+        }
+
+        /**
+         * Finds the shortcuts contracting a node would need, without changing the graph. Witness
+         * searches avoid the node itself and every node being contracted in the same round.
+         */
+        private List<Edge> simulateContraction (int id) {
+            List<Edge> shortcuts = new ArrayList<>();
+            WitnessSearch search = myWitnessSearches.get();
+            for (Edge in : myInEdges.get(id)) {
+                int source = in.mySource;
+                if (myContracted[source]) {
+                    continue;
+                }
+                double maxCost = 0;
+                search.start(source);
+                for (Edge out : myOutEdges.get(id)) {
+                    if (!myContracted[out.myTarget] && out.myTarget != source) {
+                        maxCost = Math.max(maxCost, in.myWeight + out.myWeight);
+                        search.addTarget(out.myTarget);
+                    }
+                }
+                search.run(id, maxCost);
+                for (Edge out : myOutEdges.get(id)) {
+                    int target = out.myTarget;
+                    if (myContracted[target] || target == source) {
+                        continue;
+                    }
+                    double viaCost = in.myWeight + out.myWeight;
+                    if (search.getDistance(target) > viaCost) {
+                        shortcuts.add(new Edge(source, target, viaCost, id));
+                    }
+                }
+            }
+            return shortcuts;
+        }
+
+        /**
+         * Adds an edge, or lowers the weight of the existing edge between the same nodes. Each
+         * ordered pair of nodes keeps at most one edge.
+         */
+        private void addEdge (int source, int target, double weight, int middle) {
+            for (Edge edge : myOutEdges.get(source)) {
+                if (edge.myTarget == target) {
+                    if (weight < edge.myWeight) {
+                        edge.myWeight = weight;
+                        edge.myMiddle = middle;
+                    }
+                    return;
+                }
+            }
+            Edge edge = new Edge(source, target, weight, middle);
+            myOutEdges.get(source).add(edge);
+            myInEdges.get(target).add(edge);
+            myEdges.add(edge);
+        }
+
+        /**
+         * Sorts every edge into the upward graph of its source or the downward graph of its
+         * target, whichever is ranked lower.
+         */
+        private ContractionHierarchy<T> buildHierarchy () {
+            int nodeCount = myNodes.size();
+            int[] upOffsets = new int[nodeCount + 1];
+            int[] downOffsets = new int[nodeCount + 1];
+            for (Edge edge : myEdges) {
+                if (myRanks[edge.myTarget] > myRanks[edge.mySource]) {
+                    upOffsets[edge.mySource + 1]++;
+                }
+                else {
+                    downOffsets[edge.myTarget + 1]++;
+                }
+            }
+            for (int id = 0; id < nodeCount; id++) {
+                upOffsets[id + 1] += upOffsets[id];
+                downOffsets[id + 1] += downOffsets[id];
+            }
+            int[] upNext = Arrays.copyOf(upOffsets, nodeCount);
+            int[] downNext = Arrays.copyOf(downOffsets, nodeCount);
+            int[] upOthers = new int[upOffsets[nodeCount]];
+            double[] upWeights = new double[upOthers.length];
+            int[] upMiddles = new int[upOthers.length];
+            int[] downOthers = new int[downOffsets[nodeCount]];
+            double[] downWeights = new double[downOthers.length];
+            int[] downMiddles = new int[downOthers.length];
+            for (Edge edge : myEdges) {
+                if (myRanks[edge.myTarget] > myRanks[edge.mySource]) {
+                    int index = upNext[edge.mySource]++;
+                    upOthers[index] = edge.myTarget;
+                    upWeights[index] = edge.myWeight;
+                    upMiddles[index] = edge.myMiddle;
+                }
+                else {
+                    int index = downNext[edge.myTarget]++;
+                    downOthers[index] = edge.mySource;
+                    downWeights[index] = edge.myWeight;
+                    downMiddles[index] = edge.myMiddle;
+                }
+            }
+            ContractionHierarchy.EdgeArrays upEdges =
+                    new ContractionHierarchy.EdgeArrays(upOffsets, upOthers, upWeights, upMiddles);
+            ContractionHierarchy.EdgeArrays downEdges =
+                    new ContractionHierarchy.EdgeArrays(downOffsets, downOthers, downWeights,
+                                                        downMiddles);
+            return new ContractionHierarchy<>(myNodes, myRanks, upEdges, downEdges);
+        }
+
+        private void runInParallel (int count, final Task task) {
+            List<Callable<Void>> chunks = new ArrayList<>();
+            for (int from = 0; from < count; from += NODES_PER_TASK) {
+                final int chunkStart = from;
+                final int chunkEnd = Math.min(from + NODES_PER_TASK, count);
+                chunks.add(new Callable<Void>() {
+                    @Override
+                    public Void call () {
+                        for (int index = chunkStart; index < chunkEnd; index++) {
+                            task.run(index);
+                        }
+                        return null;
+                    }
+                });
+            }
+            try {
+                for (Future<Void> future : myExecutor.invokeAll(chunks)) {
+                    future.get();
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while contracting");
+            }
+            catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        /**
+         * Dijkstra's algorithm from one node over the remaining graph, skipping the node being
+         * contracted. Stops once every target is settled, after the settle limit, or beyond a
+         * maximum cost.
+         */
+        private class WitnessSearch {
+            private final double[] myDistances;
+            private final int[] myStamps;
+            private final int[] myTargetStamps;
+            private final IndexedMinHeap myFrontier = new IndexedMinHeap();
+            private int myStamp;
+            private int myTargetsLeft;
+
+            public WitnessSearch (int nodeCount) {
+                myDistances = new double[nodeCount];
+                myStamps = new int[nodeCount];
+                myTargetStamps = new int[nodeCount];
+            }
+
+            public void start (int source) {
+                myStamp++;
+                if (myStamp == Integer.MAX_VALUE) {
+                    Arrays.fill(myStamps, 0);
+                    Arrays.fill(myTargetStamps, 0);
+                    myStamp = 1;
+                }
+                myFrontier.clear();
+                myTargetsLeft = 0;
+                myStamps[source] = myStamp;
+                myDistances[source] = 0;
+                myFrontier.offer(source, 0);
+            }
+
+            public void addTarget (int id) {
+                if (myTargetStamps[id] != myStamp) {
+                    myTargetStamps[id] = myStamp;
+                    myTargetsLeft++;
+                }
+            }
+
+            public void run (int avoided, double maxCost) {
+                int settled = 0;
+                while (!myFrontier.isEmpty() && settled < myWitnessSettleLimit &&
+                       myTargetsLeft > 0) {
+                    int id = myFrontier.poll();
+                    settled++;
+                    if (myTargetStamps[id] == myStamp) {
+                        myTargetsLeft--;
+                    }
+                    double distance = myDistances[id];
+                    if (distance > maxCost) {
+                        break;
+                    }
+                    for (Edge edge : myOutEdges.get(id)) {
+                        int target = edge.myTarget;
+                        if (target == avoided || myContracted[target] || myContracting[target]) {
+                            continue;
+                        }
+                        double newDistance = distance + edge.myWeight;
+                        if (myStamps[target] != myStamp || newDistance < myDistances[target]) {
+                            myStamps[target] = myStamp;
+                            myDistances[target] = newDistance;
+                            myFrontier.offer(target, newDistance);
+                        }
+                    }
+                }
+            }
+
+            public double getDistance (int id) {
+                return myStamps[id] == myStamp ? myDistances[id] : Double.POSITIVE_INFINITY;
+            }
+        }
+    }
+
+    private interface Task {
+        public void run (int index);
+    }
+
+    private static class Edge {
+        private final int mySource;
+        private final int myTarget;
+        private double myWeight;
+        private int myMiddle;
+
+        public Edge (int source, int target, double weight, int middle) {
+            mySource = source;
+            myTarget = target;
+            myWeight = weight;
+            myMiddle = middle;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package pathfinding.contraction;
+
+import java.util.List;
+import pathfinding.IPathFinder;
+
+
+/**
+ * IPathFinder that answers queries from a ContractionHierarchy built over another finder's hooks,
+ * so code written against IPathFinder can switch to the contracted map without changes. The
+ * hooks are passed through to the wrapped finder.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public class ContractionHierarchyPathFinder<T> implements IPathFinder<T> {
+
+    private final IPathFinder<T> myFinder;
+    private final ContractionHierarchy<T> myHierarchy;
+
+    /**
+     * @param finder Finder the hierarchy was built from
+     * @param hierarchy Hierarchy built from, or loaded for, the finder's map
+     */
+    public ContractionHierarchyPathFinder (IPathFinder<T> finder,
+                                           ContractionHierarchy<T> hierarchy) {
+        myFinder = finder;
+        myHierarchy = hierarchy;
+    }
+
+    public ContractionHierarchy<T> getHierarchy () {
+        return myHierarchy;
+    }
+
+    @Override
+    public List<T> findPath (T start, T destination) {
+        return myHierarchy.findPath(start, destination);
+    }
+
+    @Override
+    public Number getCost (T beginningNode, T endingNode) {
+        return myFinder.getCost(beginningNode, endingNode);
+    }
+
+    @Override
+    public Iterable<T> getNeighbors (T node) {
+        return myFinder.getNeighbors(node);
+    }
+
+    @Override
+    public Iterable<T> getPredecessors (T node) {
+        return myFinder.getPredecessors(node);
+    }
+
+    @Override
+    public boolean isDestination (T node, T destinationNode) {
+        return myFinder.isDestination(node, destinationNode);
+    }
+
+    @Override
+    public int breakTie (T node, T other) {
+        return myFinder.breakTie(node, other);
+    }
+}
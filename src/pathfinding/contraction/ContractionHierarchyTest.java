@@ -0,0 +1,140 @@
+package pathfinding.contraction;
+
+import static org.junit.Assert.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Test;
+import pathfinding.example.LinkedNode;
+import pathfinding.example.LinkedNodeAStarFinder;
+
+
+/**
+ * Checks hierarchy queries, before and after a save and load, against AStarPathFinder.
+ */
+public class ContractionHierarchyTest {
+
+    private static final double TOLERANCE = 1e-9;
+    private static final int LINES = 40;
+
+    @Test
+    public void testQueriesMatchAStar () throws IOException {
+        Random rand = new Random(23);
+        List<LinkedNode> nodes = createRoadMap(LINES, LINES, rand);
+        WeightedFinder finder = new WeightedFinder(rand);
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        ContractionHierarchy<LinkedNode> hierarchy;
+        try {
+            hierarchy = new ContractionHierarchyBuilder<>(finder, pool, 50).build(nodes);
+        }
+        finally {
+            pool.shutdown();
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        hierarchy.save(output);
+        ContractionHierarchy<LinkedNode> loaded =
+                ContractionHierarchy.load(new ByteArrayInputStream(output.toByteArray()),
+                                          hierarchy.getNodes());
+        ContractionHierarchyPathFinder<LinkedNode> hierarchyFinder =
+                new ContractionHierarchyPathFinder<>(finder, loaded);
+
+        for (int i = 0; i < 200; i++) {
+            LinkedNode start = nodes.get(rand.nextInt(nodes.size()));
+            LinkedNode destination = nodes.get(rand.nextInt(nodes.size()));
+            List<LinkedNode> expected = finder.findPath(start, destination);
+            List<List<LinkedNode>> results = new ArrayList<>();
+            results.add(hierarchy.findPath(start, destination));
+            results.add(hierarchyFinder.findPath(start, destination));
+            for (List<LinkedNode> result : results) {
+                if (expected == null) {
+                    assertNull(result);
+                    assertEquals(Double.POSITIVE_INFINITY,
+                                 hierarchy.getDistance(start, destination), 0);
+                    continue;
+                }
+                assertEquals(start, result.get(0));
+                assertEquals(destination, result.get(result.size() - 1));
+                for (int j = 1; j < result.size(); j++) {
+                    assertTrue(result.get(j - 1).getNeighbors().contains(result.get(j)));
+                }
+                assertEquals(pathCost(finder, expected), pathCost(finder, result), TOLERANCE);
+                assertEquals(pathCost(finder, expected), hierarchy.getDistance(start, destination),
+                             TOLERANCE);
+            }
+        }
+    }
+
+    /**
+     * Grid of nodes where some streets are missing and some are one-way.
+     */
+    private static List<LinkedNode> createRoadMap (int xMax, int yMax, Random rand) {
+        LinkedNode[][] grid = new LinkedNode[xMax][yMax];
+        List<LinkedNode> nodes = new ArrayList<>();
+        for (int i = 0; i < xMax; i++) {
+            for (int j = 0; j < yMax; j++) {
+                grid[i][j] = new LinkedNode(i, j);
+                nodes.add(grid[i][j]);
+            }
+        }
+        for (int i = 0; i < xMax; i++) {
+            for (int j = 0; j < yMax; j++) {
+                if (i + 1 < xMax) {
+                    connect(grid[i][j], grid[i + 1][j], rand);
+                }
+                if (j + 1 < yMax) {
+                    connect(grid[i][j], grid[i][j + 1], rand);
+                }
+            }
+        }
+        return nodes;
+    }
+
+    private static void connect (LinkedNode node, LinkedNode other, Random rand) {
+        double roll = rand.nextDouble();
+        if (roll < 0.15) { return; }
+        if (roll < 0.3) {
+            node.addNeighbor(other);
+        }
+        else if (roll < 0.45) {
+            other.addNeighbor(node);
+        }
+        else {
+            node.addNeighbor(other);
+            other.addNeighbor(node);
+        }
+    }
+
+    private static double pathCost (WeightedFinder finder, List<LinkedNode> path) {
+        double cost = 0;
+        for (int i = 1; i < path.size(); i++) {
+            cost += finder.getCost(path.get(i - 1), path.get(i)).doubleValue();
+        }
+        return cost;
+    }
+
+    /**
+     * Gives every row and column a speed, so streets cost between one and four times their
+     * length and the least cost path is rarely the shortest.
+     */
+    private static class WeightedFinder extends LinkedNodeAStarFinder {
+        private double[] mySpeeds = new double[2 * LINES];
+
+        public WeightedFinder (Random rand) {
+            for (int i = 0; i < mySpeeds.length; i++) {
+                mySpeeds[i] = 1 + 3 * rand.nextDouble();
+            }
+        }
+
+        @Override
+        public Number getCost (LinkedNode beginningNode, LinkedNode endingNode) {
+            int line = beginningNode.getX() == endingNode.getX() ? beginningNode.getX()
+                                                                : LINES + beginningNode.getY();
+            return mySpeeds[line] * super.getCost(beginningNode, endingNode).doubleValue();
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package pathfinding.cooperative;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import pathfinding.AStarPathFinder;
+import pathfinding.CheckedCosts;
+import pathfinding.InvalidCostException;
+import pathfinding.PathRequest;
+
+
+/**
+ * Plans paths for many agents that must not collide (windowed hierarchical cooperative A*, or
+ * WHCA*). Each agent searches in space and time: a state is a node on a tick, and from it the
+ * agent can move to a neighbor or wait where it is, one tick per step, avoiding every node and
+ * edge other agents have reserved in the shared ReservationTable. Only the next window of ticks
+ * is planned; past its end the wrapped finder's heuristic estimates the remaining cost, so agents
+ * replan every few ticks (well before the window runs out) as they move.
+ *
+ * Agents can be planned in parallel. Each plans against the table as it stands and then claims
+ * its whole path at once; if another agent claimed part of it in the meantime, the claim is
+ * rolled back and the agent plans again around the new reservations, up to a fixed number of
+ * attempts.
+ *
+ * Costs, neighbors and heuristic values come from the wrapped finder, whose hooks must be safe
+ * to call concurrently. Moves take one tick whatever their cost; waiting costs getWaitCost.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public class CooperativePathFinder<T> {
+
+    private static final int DEFAULT_ATTEMPTS = 8;
+
+    private final AStarPathFinder<T> myFinder;
+    private final ReservationTable<T> myTable;
+    private final int myWindow;
+    private final ExecutorService myExecutor;
+    private final int myAttempts;
+
+    /**
+     * Creates a finder that plans in parallel on the common ForkJoinPool.
+     *
+     * @param finder Finder whose hooks define the map
+     * @param table Reservations shared by every agent
+     * @param window Number of ticks each plan covers
+     */
+    public CooperativePathFinder (AStarPathFinder<T> finder, ReservationTable<T> table,
+                                  int window) {
+        this(finder, table, window, ForkJoinPool.commonPool(), DEFAULT_ATTEMPTS);
+    }
+
+    /**
+     * @param finder Finder whose hooks define the map
+     * @param table Reservations shared by every agent
+     * @param window Number of ticks each plan covers
+     * @param executor Executor to plan agents on in findPaths
+     * @param attempts Most times an agent plans before giving up when its claims keep failing
+     */
+    public CooperativePathFinder (AStarPathFinder<T> finder, ReservationTable<T> table,
+                                  int window, ExecutorService executor, int attempts) {
+        if (window < 1) { throw new IllegalArgumentException("Window must be at least one tick"); }
+        if (attempts < 1) { throw new IllegalArgumentException("Must plan at least once"); }
+        myFinder = finder;
+        myTable = table;
+        myWindow = window;
+        myExecutor = executor;
+        myAttempts = attempts;
+    }
+
+    public ReservationTable<T> getReservationTable () {
+        return myTable;
+    }
+
+    public int getWindow () {
+        return myWindow;
+    }
+
+    /**
+     * Cost of waiting on a node for one tick. Returns 1 unless overridden.
+     */
+    protected double getWaitCost (T node) {
+        return 1;
+    }
+
+    /**
+     * Plans the next window for one agent and reserves it, replacing the agent's previous
+     * reservations.
+     *
+     * @param agent Id of the agent, unique among those sharing the table
+     * @param start Node the agent occupies on startTick
+     * @param destination Node the agent is heading for
+     * @param startTick Current tick
+     * @return Node the agent occupies on each tick from startTick, ending either on the
+     *         destination, which stays reserved until the window ends, or at the end of the
+     *         window. Null if no plan could be reserved; the agent then holds no reservations.
+     */
+    public List<T> findPath (int agent, T start, T destination, int startTick)
+            throws InvalidCostException {
+        myTable.release(agent);
+        for (int attempt = 0; attempt < myAttempts; attempt++) {
+            List<T> path = search(agent, start, destination, startTick);
+            if (path == null) { return null; }
+            if (myTable.reservePath(agent, path, startTick, startTick + myWindow)) { return path; }
+        }
+        return null;
+    }
+
+    /**
+     * Plans and reserves the next window for many agents in parallel. Agent i is the one making
+     * request i.
+     *
+     * @return Plans in request order, as findPath returns them
+     * @throws CancellationException If the calling thread is interrupted while waiting
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public List<List<T>> findPaths (List<PathRequest<T>> requests, final int startTick)
+            throws InvalidCostException {
+        final List<T>[] paths = new List[requests.size()];
+        List<Callable<Void>> plans = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            final int agent = i;
+            final PathRequest<T> request = requests.get(i);
+            plans.add(new Callable<Void>() {
+                @Override
+                public Void call () {
+                    paths[agent] = findPath(agent, request.getStart(), request.getDestination(),
+                                            startTick);
+                    return null;
+                }
+            });
+        }
+        try {
+            for (Future<Void> future : myExecutor.invokeAll(plans)) {
+                future.get();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while planning agents");
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) { throw (RuntimeException) e.getCause(); }
+            throw new IllegalStateException(e.getCause());
+        }
+        return new ArrayList<>(Arrays.asList(paths));
+    }
+
+    /**
+     * A* over (node, tick) states against the current reservations.
+     */
+    private List<T> search (int agent, T start, T destination, int startTick) {
+        if (!myTable.isFree(start, startTick, agent)) { return null; }
+        PriorityQueue<State> frontier = new PriorityQueue<>();
+        Map<State, State> best = new HashMap<>();
+        State first = new State(start, 0, null, 0, getHeuristicValue(start, destination));
+        frontier.add(first);
+        best.put(first, first);
+        while (!frontier.isEmpty()) {
+            State state = frontier.poll();
+            if (state.myClosed) {
+                continue;
+            }
+            state.myClosed = true;
+            if (state.myStep == myWindow ||
+                (myFinder.isDestination(state.myNode, destination) &&
+                 canHold(agent, state.myNode, startTick + state.myStep, startTick + myWindow))) {
+                return buildPath(state);
+            }
+            int nextTick = startTick + state.myStep + 1;
+            if (myTable.isFree(state.myNode, nextTick, agent)) {
+                offer(frontier, best, state, state.myNode,
+                      state.myCost + getWaitCost(state.myNode), destination);
+            }
+            for (T neighbor : myFinder.getNeighbors(state.myNode)) {
+                if (myTable.isFree(neighbor, nextTick, agent) &&
+                    myTable.isEdgeFree(state.myNode, neighbor, nextTick - 1, agent)) {
+                    offer(frontier, best, state, neighbor,
+                          state.myCost + getCost(state.myNode, neighbor), destination);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Whether the agent can stay on the node from one tick through another.
+     */
+    private boolean canHold (int agent, T node, int fromTick, int untilTick) {
+        for (int hold = fromTick; hold <= untilTick; hold++) {
+            if (!myTable.isFree(node, hold, agent)) { return false; }
+        }
+        return true;
+    }
+
+    private void offer (PriorityQueue<State> frontier, Map<State, State> best, State parent,
+                        T node, double cost, T destination) {
+        State state = new State(node, parent.myStep + 1, parent, cost, 0);
+        State known = best.get(state);
+        if (known != null && (known.myClosed || known.myCost <= cost)) { return; }
+        if (known != null) {
+            known.myClosed = true;
+        }
+        state.myEstimate = cost + getHeuristicValue(node, destination);
+        best.put(state, state);
+        frontier.add(state);
+    }
+
+    private double getCost (T node, T neighbor) {
+        return CheckedCosts.getCost(myFinder, node, neighbor);
+    }
+
+    private double getHeuristicValue (T node, T destination) {
+        return CheckedCosts.getHeuristicValue(myFinder, node, destination);
+    }
+
+    private List<T> buildPath (State last) {
+        List<T> path = new ArrayList<>();
+        for (State state = last; state != null; state = state.myParent) {
+            path.add(state.myNode);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * A node on a tick, counted in steps from the start of the plan. States are equal when their
+     * nodes and steps are.
+     */
+    private class State implements Comparable<State> {
+        private final T myNode;
+        private final int myStep;
+        private final State myParent;
+        private final double myCost;
+        private double myEstimate;
+        private boolean myClosed;
+
+        public State (T node, int step, State parent, double cost, double estimate) {
+            myNode = node;
+            myStep = step;
+            myParent = parent;
+            myCost = cost;
+            myEstimate = estimate;
+        }
+
+        /**
+         * Orders by estimated total cost, then prefers states further along in time.
+         */
+        @Override
+        public int compareTo (State other) {
+            int compare = Double.compare(myEstimate, other.myEstimate);
+            return compare != 0 ? compare : Integer.compare(other.myStep, myStep);
+        }
+
+        @Override
+        public boolean equals (Object other) {
+            if (!(other instanceof CooperativePathFinder.State)) { return false; }
+            @SuppressWarnings("unchecked")
+            State state = (State) other;
+            return myStep == state.myStep && myNode.equals(state.myNode);
+        }
+
+        @Override
+        public int hashCode () {
+            return 31 * myNode.hashCode() + myStep;
+        }
+    }
+}
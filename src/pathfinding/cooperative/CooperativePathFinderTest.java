@@ -0,0 +1,161 @@
+package pathfinding.cooperative;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import pathfinding.PathRequest;
+import pathfinding.example.LinkedNode;
+import pathfinding.example.LinkedNodeAStarFinder;
+
+
+/**
+ * Sends a crowd of agents through a one-cell gap in a wall and checks that their plans never put
+ * two agents on one node or swap two agents through each other.
+ */
+public class CooperativePathFinderTest {
+
+    private static final int SIZE = 12;
+    private static final int GAP = 6;
+    private static final int WINDOW = 16;
+
+    @Test
+    public void testParallelPlansDoNotCollide () {
+        LinkedNode[][] grid = createMap();
+        CooperativePathFinder<LinkedNode> finder =
+                new CooperativePathFinder<>(new LinkedNodeAStarFinder(),
+                                            new ReservationTable<LinkedNode>(), WINDOW);
+        List<PathRequest<LinkedNode>> requests = createCrowd(grid);
+        List<List<LinkedNode>> paths = finder.findPaths(requests, 0);
+        for (int i = 0; i < paths.size(); i++) {
+            assertNotNull(paths.get(i));
+            assertEquals(requests.get(i).getStart(), paths.get(i).get(0));
+        }
+        checkNoCollisions(paths, 0, WINDOW);
+    }
+
+    @Test
+    public void testCrowdReachesDestinationsByReplanning () {
+        LinkedNode[][] grid = createMap();
+        ReservationTable<LinkedNode> table = new ReservationTable<>();
+        CooperativePathFinder<LinkedNode> finder =
+                new CooperativePathFinder<>(new LinkedNodeAStarFinder(), table, WINDOW);
+        List<PathRequest<LinkedNode>> requests = createCrowd(grid);
+        int tick = 0;
+        for (int round = 0; round < 20 && !isDone(requests); round++) {
+            List<List<LinkedNode>> paths = finder.findPaths(requests, tick);
+            checkNoCollisions(paths, 0, WINDOW / 2);
+            List<PathRequest<LinkedNode>> moved = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                List<LinkedNode> path = paths.get(i);
+                assertNotNull(path);
+                LinkedNode position = path.get(Math.min(WINDOW / 2, path.size() - 1));
+                moved.add(new PathRequest<>(position, requests.get(i).getDestination()));
+            }
+            requests = moved;
+            tick += WINDOW / 2;
+            table.releaseBefore(tick);
+        }
+        assertTrue(isDone(requests));
+    }
+
+    @Test
+    public void testFailedClaimRollsBack () {
+        LinkedNode[][] grid = createMap();
+        ReservationTable<LinkedNode> table = new ReservationTable<>();
+        assertTrue(table.reservePath(1, Arrays.asList(grid[0][1], grid[1][1]), 0, 0));
+        int held = table.size();
+        assertFalse(table.reservePath(2, Arrays.asList(grid[1][0], grid[1][1]), 0, 3));
+        assertEquals(held, table.size());
+        assertFalse(table.reservePath(2, Arrays.asList(grid[1][1], grid[0][1]), 0, 0));
+        assertEquals(held, table.size());
+        assertEquals(Integer.valueOf(1), table.getOwner(grid[1][1], 1));
+        table.release(1);
+        assertEquals(0, table.size());
+    }
+
+    /**
+     * Open grid of two-way links split by a vertical wall with one gap.
+     */
+    private static LinkedNode[][] createMap () {
+        LinkedNode[][] grid = new LinkedNode[SIZE][SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                grid[i][j] = new LinkedNode(i, j);
+            }
+        }
+        int wall = SIZE / 2;
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                boolean blocked = i == wall && j != GAP;
+                if (blocked) {
+                    continue;
+                }
+                if (i + 1 < SIZE && !(i + 1 == wall && j != GAP)) {
+                    grid[i][j].addNeighbor(grid[i + 1][j]);
+                    grid[i + 1][j].addNeighbor(grid[i][j]);
+                }
+                if (j + 1 < SIZE && !(i == wall)) {
+                    grid[i][j].addNeighbor(grid[i][j + 1]);
+                    grid[i][j + 1].addNeighbor(grid[i][j]);
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Agents on the left half, each heading for the mirrored cell on the right half.
+     */
+    private static List<PathRequest<LinkedNode>> createCrowd (LinkedNode[][] grid) {
+        List<PathRequest<LinkedNode>> requests = new ArrayList<>();
+        for (int i = 1; i < SIZE / 2 - 1; i += 2) {
+            for (int j = 1; j < SIZE - 1; j += 2) {
+                requests.add(new PathRequest<>(grid[i][j], grid[SIZE - 1 - i][j]));
+            }
+        }
+        return requests;
+    }
+
+    private static boolean isDone (List<PathRequest<LinkedNode>> requests) {
+        for (PathRequest<LinkedNode> request : requests) {
+            if (!request.getStart().equals(request.getDestination())) { return false; }
+        }
+        return true;
+    }
+
+    /**
+     * Checks every tick from the first through the last, with agents whose plans have ended
+     * staying on their final node.
+     */
+    private static void checkNoCollisions (List<List<LinkedNode>> paths, int firstStep,
+                                           int lastStep) {
+        for (int step = firstStep; step <= lastStep; step++) {
+            Map<LinkedNode, Integer> occupied = new HashMap<>();
+            for (int agent = 0; agent < paths.size(); agent++) {
+                LinkedNode node = getPosition(paths.get(agent), step);
+                assertNull("Two agents on " + node + " at step " + step,
+                           occupied.put(node, agent));
+            }
+            if (step == firstStep) {
+                continue;
+            }
+            for (int agent = 0; agent < paths.size(); agent++) {
+                LinkedNode node = getPosition(paths.get(agent), step);
+                LinkedNode previous = getPosition(paths.get(agent), step - 1);
+                assertTrue(node.equals(previous) || previous.getNeighbors().contains(node));
+                Integer other = occupied.get(previous);
+                if (other != null && other != agent) {
+                    assertNotEquals(node, getPosition(paths.get(other), step - 1));
+                }
+            }
+        }
+    }
+
+    private static LinkedNode getPosition (List<LinkedNode> path, int step) {
+        return path.get(Math.min(step, path.size() - 1));
+    }
+}
@@ -0,0 +1,178 @@
+package pathfinding.cooperative;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Shared record of which agent will be where on which tick, for cooperative path finding. An
+ * agent reserves the node it occupies on each tick of its plan, and the edge it crosses between
+ * one tick and the next, so that no two agents plan to stand on the same node at once or to swap
+ * places through each other. Edge reservations ignore direction.
+ *
+ * Reservations are claimed with putIfAbsent, so any number of threads can plan and reserve at
+ * once: claiming a path either takes every reservation on it or, if another agent got to one
+ * first, gives back the ones it took. Each agent must be planned by only one thread at a time.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public class ReservationTable<T> {
+
+    private final Map<Reservation<T>, Integer> myOwners = new ConcurrentHashMap<>();
+    private final Map<Integer, List<Reservation<T>>> myClaims = new ConcurrentHashMap<>();
+
+    /**
+     * @return Agent that reserved the node on the tick, or null if it is free.
+     */
+    public Integer getOwner (T node, int tick) {
+        return myOwners.get(new Reservation<>(node, null, tick));
+    }
+
+    /**
+     * @return Whether the node is free for the agent on the tick: unreserved or reserved by the
+     *         agent itself.
+     */
+    public boolean isFree (T node, int tick, int agent) {
+        return isFree(new Reservation<>(node, null, tick), agent);
+    }
+
+    /**
+     * @return Whether the agent may cross the edge between two nodes, in either direction,
+     *         between tick and tick + 1.
+     */
+    public boolean isEdgeFree (T node, T other, int tick, int agent) {
+        return isFree(new Reservation<>(node, other, tick), agent);
+    }
+
+    /**
+     * Reserves a path for an agent, along with any reservations it already holds.
+     *
+     * @param agent Agent the path is for
+     * @param path Node the agent occupies on each tick, starting at startTick; consecutive nodes
+     *        are either equal, for waiting, or joined by an edge
+     * @param startTick Tick of the first node
+     * @param holdUntil Last tick to keep the final node reserved for, or less than the tick of the
+     *        final node to release it as soon as the path ends
+     * @return Whether every reservation was claimed. If not, none of them are held.
+     */
+    public boolean reservePath (int agent, List<T> path, int startTick, int holdUntil) {
+        List<Reservation<T>> wanted = new ArrayList<>();
+        for (int i = 0; i < path.size(); i++) {
+            wanted.add(new Reservation<>(path.get(i), null, startTick + i));
+            if (i > 0 && !path.get(i - 1).equals(path.get(i))) {
+                wanted.add(new Reservation<>(path.get(i - 1), path.get(i), startTick + i - 1));
+            }
+        }
+        if (!path.isEmpty()) {
+            T last = path.get(path.size() - 1);
+            for (int tick = startTick + path.size(); tick <= holdUntil; tick++) {
+                wanted.add(new Reservation<>(last, null, tick));
+            }
+        }
+        List<Reservation<T>> claimed = new ArrayList<>();
+        for (Reservation<T> reservation : wanted) {
+            Integer owner = myOwners.putIfAbsent(reservation, agent);
+            if (owner == null) {
+                claimed.add(reservation);
+            }
+            else if (owner != agent) {
+                for (Reservation<T> taken : claimed) {
+                    myOwners.remove(taken, agent);
+                }
+                return false;
+            }
+        }
+        List<Reservation<T>> claims = myClaims.get(agent);
+        if (claims == null) {
+            claims = Collections.synchronizedList(new ArrayList<Reservation<T>>());
+            myClaims.put(agent, claims);
+        }
+        claims.addAll(claimed);
+        return true;
+    }
+
+    /**
+     * Gives back every reservation the agent holds.
+     */
+    public void release (int agent) {
+        List<Reservation<T>> claims = myClaims.remove(agent);
+        if (claims == null) { return; }
+        synchronized (claims) {
+            for (Reservation<T> reservation : claims) {
+                myOwners.remove(reservation, agent);
+            }
+        }
+    }
+
+    /**
+     * Forgets every reservation for ticks before the given one, as the game clock moves past
+     * them.
+     */
+    public void releaseBefore (int tick) {
+        Iterator<Reservation<T>> reservations = myOwners.keySet().iterator();
+        while (reservations.hasNext()) {
+            if (reservations.next().myTick < tick) {
+                reservations.remove();
+            }
+        }
+        for (List<Reservation<T>> claims : myClaims.values()) {
+            synchronized (claims) {
+                Iterator<Reservation<T>> claimed = claims.iterator();
+                while (claimed.hasNext()) {
+                    if (claimed.next().myTick < tick) {
+                        claimed.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Number of node and edge reservations held by all agents.
+     */
+    public int size () {
+        return myOwners.size();
+    }
+
+    private boolean isFree (Reservation<T> reservation, int agent) {
+        Integer owner = myOwners.get(reservation);
+        return owner == null || owner == agent;
+    }
+
+    /**
+     * A node, or an edge in either direction, on one tick.
+     */
+    private static class Reservation<T> {
+        private final T myNode;
+        private final T myOther;
+        private final int myTick;
+
+        public Reservation (T node, T other, int tick) {
+            myNode = node;
+            myOther = other;
+            myTick = tick;
+        }
+
+        @Override
+        public boolean equals (Object other) {
+            if (!(other instanceof Reservation)) { return false; }
+            Reservation<?> reservation = (Reservation<?>) other;
+            if (myTick != reservation.myTick) { return false; }
+            if (myOther == null || reservation.myOther == null) {
+                return myOther == reservation.myOther && myNode.equals(reservation.myNode);
+            }
+            return (myNode.equals(reservation.myNode) && myOther.equals(reservation.myOther)) ||
+                   (myNode.equals(reservation.myOther) && myOther.equals(reservation.myNode));
+        }
+
+        @Override
+        public int hashCode () {
+            int nodes = myNode.hashCode() + (myOther == null ? 0 : myOther.hashCode());
+            return 31 * nodes + myTick;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package pathfinding.csr;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Frozen copy of a map in compressed sparse row form, built by CompactGraphBuilder. Nodes are
+ * numbered from 0, and the edges leaving node i are numbered from getFirstEdge(i) up to
+ * getFirstEdge(i + 1); each edge has the node it leads to and its cost. The whole graph is three
+ * flat arrays (offsets, targets and weights), so following edges touches consecutive memory
+ * instead of chasing neighbor lists from node to node.
+ *
+ * A graph can be saved to a file and mapped back into memory with load, which reads nothing up
+ * front: the operating system pages the arrays in as queries touch them, so even large maps open
+ * at once. Weights are stored as floats.
+ *
+ * A graph is immutable and can be read by any number of threads at once.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public class CompactGraph<T> {
+
+    static final int FILE_MAGIC = 0x43535231;
+    static final int HEADER_BYTES = 3 * Integer.BYTES;
+
+    private final List<T> myNodes;
+    private final Map<T, Integer> myIds;
+    private final IntBuffer myOffsets;
+    private final IntBuffer myTargets;
+    private final FloatBuffer myWeights;
+
+    CompactGraph (List<T> nodes, int[] offsets, int[] targets, float[] weights) {
+        this(nodes, IntBuffer.wrap(offsets), IntBuffer.wrap(targets), FloatBuffer.wrap(weights));
+    }
+
+    private CompactGraph (List<T> nodes, IntBuffer offsets, IntBuffer targets,
+                          FloatBuffer weights) {
+        myNodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+        myIds = new HashMap<>();
+        for (int id = 0; id < nodes.size(); id++) {
+            myIds.put(nodes.get(id), id);
+        }
+        myOffsets = offsets;
+        myTargets = targets;
+        myWeights = weights;
+    }
+
+    /**
+     * Maps a graph written by save into memory.
+     *
+     * @param file File to map
+     * @param nodes Nodes of the graph in the order getNodes returned them when it was saved
+     */
+    public static <T> CompactGraph<T> load (Path file, List<T> nodes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to map");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                                                  channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != FILE_MAGIC) {
+                throw new IOException(file + " is not a compact graph");
+            }
+            int nodeCount = buffer.getInt(Integer.BYTES);
+            int edgeCount = buffer.getInt(2 * Integer.BYTES);
+            if (nodeCount != nodes.size()) {
+                throw new IOException("Graph has " + nodeCount + " nodes but " + nodes.size() +
+                                      " were given");
+            }
+            if (buffer.remaining() != getFileSize(nodeCount, edgeCount)) {
+                throw new IOException(file + " is truncated");
+            }
+            buffer.position(HEADER_BYTES);
+            IntBuffer offsets = slice(buffer, (nodeCount + 1) * Integer.BYTES).asIntBuffer();
+            IntBuffer targets = slice(buffer, edgeCount * Integer.BYTES).asIntBuffer();
+            FloatBuffer weights = slice(buffer, edgeCount * Float.BYTES).asFloatBuffer();
+            if (offsets.get(nodeCount) != edgeCount) {
+                throw new IOException("Corrupt edge offsets");
+            }
+            return new CompactGraph<>(nodes, offsets, targets, weights);
+        }
+    }
+
+    /**
+     * Writes the graph to a file, replacing it if it exists. The nodes themselves are not
+     * written; keep the list from getNodes to load it again.
+     */
+    public void save (Path file) throws IOException {
+        int nodeCount = getNodeCount();
+        int edgeCount = getEdgeCount();
+        long size = getFileSize(nodeCount, edgeCount);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Graph is too large to map");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING,
+                                                    StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(FILE_MAGIC).putInt(nodeCount).putInt(edgeCount);
+            for (int id = 0; id <= nodeCount; id++) {
+                buffer.putInt(myOffsets.get(id));
+            }
+            for (int edge = 0; edge < edgeCount; edge++) {
+                buffer.putInt(myTargets.get(edge));
+            }
+            for (int edge = 0; edge < edgeCount; edge++) {
+                buffer.putFloat(myWeights.get(edge));
+            }
+            buffer.force();
+        }
+    }
+
+    /**
+     * @return Nodes of the graph by id, in the order load expects them.
+     */
+    public List<T> getNodes () {
+        return myNodes;
+    }
+
+    public int getNodeCount () {
+        return myNodes.size();
+    }
+
+    public int getEdgeCount () {
+        return myOffsets.get(getNodeCount());
+    }
+
+    public T getNode (int id) {
+        return myNodes.get(id);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the node is not in the graph
+     */
+    public int getId (T node) {
+        Integer id = myIds.get(node);
+        if (id == null) {
+            throw new IllegalArgumentException("Node " + node + " is not in the graph");
+        }
+        return id;
+    }
+
+    public boolean contains (T node) {
+        return myIds.containsKey(node);
+    }
+
+    /**
+     * @return Number of the first edge leaving the node; getFirstEdge(getNodeCount()) is the
+     *         edge count.
+     */
+    public int getFirstEdge (int id) {
+        return myOffsets.get(id);
+    }
+
+    /**
+     * @return Id of the node the edge leads to.
+     */
+    public int getTarget (int edge) {
+        return myTargets.get(edge);
+    }
+
+    public float getWeight (int edge) {
+        return myWeights.get(edge);
+    }
+
+    /**
+     * @return Number of the edge from one node to another, or -1 if there is none.
+     */
+    public int findEdge (int id, int targetId) {
+        for (int edge = getFirstEdge(id); edge < getFirstEdge(id + 1); edge++) {
+            if (myTargets.get(edge) == targetId) { return edge; }
+        }
+        return -1;
+    }
+
+    private static long getFileSize (int nodeCount, int edgeCount) {
+        return HEADER_BYTES + (nodeCount + 1L) * Integer.BYTES +
+               (long) edgeCount * (Integer.BYTES + Float.BYTES);
+    }
+
+    /**
+     * @return The next bytes of the buffer as a buffer of their own, in the same byte order.
+     */
+    private static ByteBuffer slice (ByteBuffer buffer, int bytes) {
+        ByteBuffer slice = buffer.slice();
+        slice.limit(bytes);
+        buffer.position(buffer.position() + bytes);
+        return slice.order(buffer.order());
+    }
+}
@@ -0,0 +1,84 @@
+package pathfinding.csr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import pathfinding.CheckedCosts;
+import pathfinding.IPathFinder;
+import pathfinding.InvalidCostException;
+
+
+/**
+ * Freezes the map behind a path finder's getNeighbors and getCost hooks into a CompactGraph. The
+ * build starts from the given nodes and follows edges from them, so it is enough to pass one
+ * node of each connected part of the map. Nodes are numbered in the order they are first seen,
+ * which keeps nearby nodes close together in the arrays.
+ *
+ * The hooks are called only from the thread that calls build, once per node, and the map must
+ * not change while the graph is in use.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public class CompactGraphBuilder<T> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final IPathFinder<T> myFinder;
+
+    /**
+     * @param finder Finder whose hooks define the map
+     */
+    public CompactGraphBuilder (IPathFinder<T> finder) {
+        myFinder = finder;
+    }
+
+    /**
+     * Copies every node reachable from the given ones, and every edge between them.
+     *
+     * @param nodes Nodes to start from
+     * @return The frozen map
+     * @throws InvalidCostException if a cost is negative or not a number
+     */
+    public CompactGraph<T> build (Iterable<T> nodes) throws InvalidCostException {
+        List<T> idNodes = new ArrayList<>();
+        Map<T, Integer> ids = new HashMap<>();
+        for (T node : nodes) {
+            if (!ids.containsKey(node)) {
+                ids.put(node, idNodes.size());
+                idNodes.add(node);
+            }
+        }
+        int[] offsets = new int[Math.max(INITIAL_CAPACITY, idNodes.size() + 1)];
+        int[] targets = new int[INITIAL_CAPACITY];
+        float[] weights = new float[INITIAL_CAPACITY];
+        int edgeCount = 0;
+        for (int id = 0; id < idNodes.size(); id++) {
+            T node = idNodes.get(id);
+            for (T neighbor : myFinder.getNeighbors(node)) {
+                Integer neighborId = ids.get(neighbor);
+                if (neighborId == null) {
+                    neighborId = idNodes.size();
+                    ids.put(neighbor, neighborId);
+                    idNodes.add(neighbor);
+                }
+                float cost = (float) CheckedCosts.getCost(myFinder, node, neighbor);
+                if (edgeCount == targets.length) {
+                    targets = Arrays.copyOf(targets, edgeCount * 2);
+                    weights = Arrays.copyOf(weights, edgeCount * 2);
+                }
+                targets[edgeCount] = neighborId;
+                weights[edgeCount] = cost;
+                edgeCount++;
+            }
+            if (id + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, Math.max(offsets.length * 2, id + 2));
+            }
+            offsets[id + 1] = edgeCount;
+        }
+        return new CompactGraph<>(idNodes, Arrays.copyOf(offsets, idNodes.size() + 1),
+                                  Arrays.copyOf(targets, edgeCount),
+                                  Arrays.copyOf(weights, edgeCount));
+    }
+}
@@ -0,0 +1,178 @@
+package pathfinding.csr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import pathfinding.IPathFinder;
+import pathfinding.IndexedMinHeap;
+
+
+/**
+ * IPathFinder that searches a CompactGraph directly, by node id, without calling any hooks of
+ * the map it was built from. Without a heuristic it runs Dijkstra's algorithm; subclasses can
+ * override getHeuristicValue to turn it into A*. Each thread keeps its own search arrays, sized
+ * to the graph, and reuses them from one query to the next.
+ *
+ * The IPathFinder hooks answer from the graph too, so costs are the graph's float weights.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public class CompactGraphPathFinder<T> implements IPathFinder<T> {
+
+    private static final int NO_PARENT = -1;
+
+    private final CompactGraph<T> myGraph;
+    private final ThreadLocal<Query> myQueries = new ThreadLocal<Query>() {
+        @Override
+        protected Query initialValue () {
+            return new Query(myGraph.getNodeCount());
+        }
+    };
+
+    public CompactGraphPathFinder (CompactGraph<T> graph) {
+        myGraph = graph;
+    }
+
+    public CompactGraph<T> getGraph () {
+        return myGraph;
+    }
+
+    /**
+     * Gets a lower bound on the cost from one node to another, by id. Must be consistent (never
+     * more than an edge's weight plus the value at its target) for paths to be least cost, since
+     * nodes are not reopened. Returns 0 unless overridden.
+     */
+    protected double getHeuristicValue (int id, int destinationId) {
+        return 0;
+    }
+
+    @Override
+    public List<T> findPath (T start, T destination) {
+        int destinationId = myGraph.getId(destination);
+        Query query = myQueries.get();
+        if (!search(query, myGraph.getId(start), destinationId)) { return null; }
+        List<T> path = new ArrayList<>();
+        for (int id = destinationId; id != NO_PARENT; id = query.myParents[id]) {
+            path.add(myGraph.getNode(id));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * @return Least cost from start to destination, or positive infinity if there is no path.
+     */
+    public double getDistance (T start, T destination) {
+        int destinationId = myGraph.getId(destination);
+        Query query = myQueries.get();
+        if (!search(query, myGraph.getId(start), destinationId)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return query.myDistances[destinationId];
+    }
+
+    @Override
+    public Number getCost (T beginningNode, T endingNode) {
+        int edge = myGraph.findEdge(myGraph.getId(beginningNode), myGraph.getId(endingNode));
+        if (edge < 0) {
+            throw new IllegalArgumentException("No edge from " + beginningNode + " to " +
+                                               endingNode);
+        }
+        return myGraph.getWeight(edge);
+    }
+
+    @Override
+    public Iterable<T> getNeighbors (T node) {
+        int id = myGraph.getId(node);
+        List<T> neighbors = new ArrayList<>();
+        for (int edge = myGraph.getFirstEdge(id); edge < myGraph.getFirstEdge(id + 1); edge++) {
+            neighbors.add(myGraph.getNode(myGraph.getTarget(edge)));
+        }
+        return neighbors;
+    }
+
+    @Override
+    public boolean isDestination (T node, T destinationNode) {
+        return node.equals(destinationNode);
+    }
+
+    /**
+     * Orders nodes by id.
+     */
+    @Override
+    public int breakTie (T node, T other) {
+        return Integer.compare(myGraph.getId(node), myGraph.getId(other));
+    }
+
+    /**
+     * A* from start until the destination is settled.
+     *
+     * @return Whether the destination was reached.
+     */
+    private boolean search (Query query, int startId, int destinationId) {
+        query.start();
+        query.discover(startId, 0, NO_PARENT, getHeuristicValue(startId, destinationId));
+        IndexedMinHeap frontier = query.myFrontier;
+        while (!frontier.isEmpty()) {
+            int id = frontier.poll();
+            if (id == destinationId) { return true; }
+            query.myClosed[id] = query.myStamp;
+            double distance = query.myDistances[id];
+            for (int edge = myGraph.getFirstEdge(id); edge < myGraph.getFirstEdge(id + 1);
+                 edge++) {
+                int target = myGraph.getTarget(edge);
+                if (query.myClosed[target] == query.myStamp) {
+                    continue;
+                }
+                double newDistance = distance + myGraph.getWeight(edge);
+                if (newDistance < query.getDistance(target)) {
+                    query.discover(target, newDistance, id,
+                                   newDistance + getHeuristicValue(target, destinationId));
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Per-thread storage for queries. Entries are valid only where the stamp matches the current
+     * query, so starting a query costs nothing in the size of the graph.
+     */
+    private static class Query {
+        private final double[] myDistances;
+        private final int[] myParents;
+        private final int[] myStamps;
+        private final int[] myClosed;
+        private final IndexedMinHeap myFrontier = new IndexedMinHeap();
+        private int myStamp;
+
+        public Query (int nodeCount) {
+            myDistances = new double[nodeCount];
+            myParents = new int[nodeCount];
+            myStamps = new int[nodeCount];
+            myClosed = new int[nodeCount];
+        }
+
+        public void start () {
+            myStamp++;
+            if (myStamp == Integer.MAX_VALUE) {
+                Arrays.fill(myStamps, 0);
+                Arrays.fill(myClosed, 0);
+                myStamp = 1;
+            }
+            myFrontier.clear();
+        }
+
+        public double getDistance (int id) {
+            return myStamps[id] == myStamp ? myDistances[id] : Double.POSITIVE_INFINITY;
+        }
+
+        public void discover (int id, double distance, int parentId, double key) {
+            myStamps[id] = myStamp;
+            myDistances[id] = distance;
+            myParents[id] = parentId;
+            myFrontier.offer(id, key);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package pathfinding.csr;
+
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import pathfinding.example.LinkedNode;
+import pathfinding.example.LinkedNodeAStarFinder;
+
+
+/**
+ * Checks searches over a frozen graph, before and after it is saved and mapped back, against
+ * AStarPathFinder on the linked nodes it was built from.
+ */
+public class CompactGraphTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    public void testSearchesMatchAStar () throws IOException {
+        Random rand = new Random(43);
+        List<LinkedNode> nodes = createMap(40, 40, rand);
+        LinkedNodeAStarFinder finder = new LinkedNodeAStarFinder();
+        CompactGraph<LinkedNode> graph = new CompactGraphBuilder<>(finder).build(nodes);
+        assertEquals(nodes.size(), graph.getNodeCount());
+        Path file = Files.createTempFile("graph", ".csr");
+        try {
+            graph.save(file);
+            CompactGraph<LinkedNode> loaded = CompactGraph.load(file, graph.getNodes());
+            assertEquals(graph.getEdgeCount(), loaded.getEdgeCount());
+            List<CompactGraphPathFinder<LinkedNode>> finders = new ArrayList<>();
+            finders.add(new CompactGraphPathFinder<>(graph));
+            finders.add(new EuclideanFinder(loaded));
+            for (int i = 0; i < 100; i++) {
+                LinkedNode start = nodes.get(rand.nextInt(nodes.size()));
+                LinkedNode destination = nodes.get(rand.nextInt(nodes.size()));
+                List<LinkedNode> expected = finder.findPath(start, destination);
+                for (CompactGraphPathFinder<LinkedNode> graphFinder : finders) {
+                    List<LinkedNode> result = graphFinder.findPath(start, destination);
+                    if (expected == null) {
+                        assertNull(result);
+                        assertEquals(Double.POSITIVE_INFINITY,
+                                     graphFinder.getDistance(start, destination), 0);
+                        continue;
+                    }
+                    assertEquals(start, result.get(0));
+                    assertEquals(destination, result.get(result.size() - 1));
+                    double cost = 0;
+                    for (int j = 1; j < result.size(); j++) {
+                        assertTrue(result.get(j - 1).getNeighbors().contains(result.get(j)));
+                        cost += graphFinder.getCost(result.get(j - 1), result.get(j))
+                                           .doubleValue();
+                    }
+                    assertEquals(expected.size() - 1, cost, TOLERANCE);
+                    assertEquals(cost, graphFinder.getDistance(start, destination), TOLERANCE);
+                }
+            }
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testBuildFollowsEdgesFromStartNodes () {
+        LinkedNode first = new LinkedNode(0, 0);
+        LinkedNode second = new LinkedNode(0, 1);
+        LinkedNode third = new LinkedNode(0, 2);
+        first.addNeighbor(second);
+        second.addNeighbor(third);
+        third.addNeighbor(second);
+        CompactGraph<LinkedNode> graph =
+                new CompactGraphBuilder<>(new LinkedNodeAStarFinder())
+                        .build(Collections.singletonList(second));
+        assertEquals(2, graph.getNodeCount());
+        assertFalse(graph.contains(first));
+        assertEquals(2, graph.getEdgeCount());
+        int edge = graph.findEdge(graph.getId(second), graph.getId(third));
+        assertEquals(graph.getId(third), graph.getTarget(edge));
+        assertEquals(1, graph.getWeight(edge), 0);
+        assertEquals(-1, graph.findEdge(graph.getId(second), graph.getId(second)));
+    }
+
+    /**
+     * Grid of two-way links between adjacent nodes, with some links missing.
+     */
+    private static List<LinkedNode> createMap (int xMax, int yMax, Random rand) {
+        LinkedNode[][] grid = new LinkedNode[xMax][yMax];
+        List<LinkedNode> nodes = new ArrayList<>();
+        for (int i = 0; i < xMax; i++) {
+            for (int j = 0; j < yMax; j++) {
+                grid[i][j] = new LinkedNode(i, j);
+                nodes.add(grid[i][j]);
+            }
+        }
+        for (int i = 0; i < xMax; i++) {
+            for (int j = 0; j < yMax; j++) {
+                if (i + 1 < xMax && rand.nextDouble() < 0.7) {
+                    grid[i][j].addNeighbor(grid[i + 1][j]);
+                    grid[i + 1][j].addNeighbor(grid[i][j]);
+                }
+                if (j + 1 < yMax && rand.nextDouble() < 0.7) {
+                    grid[i][j].addNeighbor(grid[i][j + 1]);
+                    grid[i][j + 1].addNeighbor(grid[i][j]);
+                }
+            }
+        }
+        return nodes;
+    }
+
+    private static class EuclideanFinder extends CompactGraphPathFinder<LinkedNode> {
+        public EuclideanFinder (CompactGraph<LinkedNode> graph) {
+            super(graph);
+        }
+
+        @Override
+        protected double getHeuristicValue (int id, int destinationId) {
+            LinkedNode node = getGraph().getNode(id);
+            LinkedNode destination = getGraph().getNode(destinationId);
+            return Math.hypot(node.getX() - destination.getX(), node.getY() - destination.getY());
+        }
+    }
+}
@@ -6,18 +6,25 @@ import java.util.Collection;
 public class LinkedNode extends UnlinkedNode implements Comparable<LinkedNode> {
 
     Collection<LinkedNode> myNext;
+    Collection<LinkedNode> myPrevious;
     
     public LinkedNode (int x, int y) {
         super(x, y);
         myNext = new ArrayList<LinkedNode>();
+        myPrevious = new ArrayList<LinkedNode>();
     }
 
     public Collection<LinkedNode> getNeighbors(){
         return new ArrayList<>(myNext);
     }
+
+    public Collection<LinkedNode> getPredecessors(){
+        return new ArrayList<>(myPrevious);
+    }
     
     public void addNeighbor(LinkedNode neighbor){
         myNext.add(neighbor);
+        neighbor.myPrevious.add(this);
     }
 
     @Override
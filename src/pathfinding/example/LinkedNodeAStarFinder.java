@@ -18,6 +18,11 @@ public class LinkedNodeAStarFinder extends AStarPathFinder<LinkedNode>{
         return node.getNeighbors();
     }
 
+    @Override
+    public Iterable<LinkedNode> getPredecessors (LinkedNode node) {
+        return node.getPredecessors();
+    }
+
     @Override
     public int breakTie (LinkedNode node, LinkedNode other) {
         return node.compareTo(other);
@@ -0,0 +1,57 @@
+package pathfinding.grid;
+
+/**
+ * Moves allowed between the cells of a GridMap. FOUR allows moving to the cells left, right,
+ * above and below. EIGHT also allows diagonal moves, but only when both cells the move passes
+ * between are passable, so paths never cut the corner of a blocked cell.
+ */
+public enum Connectivity {
+    FOUR(new int[] { -1, 0, 0, 1 }, new int[] { 0, -1, 1, 0 }),
+    EIGHT(new int[] { -1, 0, 0, 1, -1, -1, 1, 1 }, new int[] { 0, -1, 1, 0, -1, 1, -1, 1 });
+
+    private static final double DIAGONAL_STEP = Math.sqrt(2);
+
+    private final int[] myDeltaX;
+    private final int[] myDeltaY;
+
+    private Connectivity (int[] deltaX, int[] deltaY) {
+        myDeltaX = deltaX;
+        myDeltaY = deltaY;
+    }
+
+    public int getDirectionCount () {
+        return myDeltaX.length;
+    }
+
+    public int getDeltaX (int direction) {
+        return myDeltaX[direction];
+    }
+
+    public int getDeltaY (int direction) {
+        return myDeltaY[direction];
+    }
+
+    public boolean isDiagonal (int direction) {
+        return myDeltaX[direction] != 0 && myDeltaY[direction] != 0;
+    }
+
+    /**
+     * @return Length of a single move in the given direction: 1 for straight moves and the square
+     *         root of 2 for diagonal ones.
+     */
+    public double getStepLength (int direction) {
+        return isDiagonal(direction) ? DIAGONAL_STEP : 1;
+    }
+
+    /**
+     * Length of the shortest move sequence covering the given offsets on an empty grid: the
+     * Manhattan distance for FOUR and the octile distance for EIGHT.
+     */
+    public double getDistance (int deltaX, int deltaY) {
+        int absoluteX = Math.abs(deltaX);
+        int absoluteY = Math.abs(deltaY);
+        if (this == FOUR) { return absoluteX + absoluteY; }
+        int diagonalMoves = Math.min(absoluteX, absoluteY);
+        return DIAGONAL_STEP * diagonalMoves + (Math.max(absoluteX, absoluteY) - diagonalMoves);
+    }
+}
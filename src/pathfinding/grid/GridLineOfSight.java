@@ -0,0 +1,103 @@
+package pathfinding.grid;
+
+import pathfinding.IVisibilityTest;
+
+
+/**
+ * Line of sight between cell centers on a GridMap. The straight line between two cells is
+ * traced through every cell it touches; it is clear when each of those cells is clear. A line
+ * that passes exactly through the corner between four cells touches the two cells beside the
+ * corner too, so, like diagonal moves, lines never squeeze between two blocked cells.
+ *
+ * By default a cell is clear when it is passable. Subclasses can override isClear to keep lines
+ * further from walls, for example for larger agents.
+ */
+public class GridLineOfSight {
+
+    private final GridMap myMap;
+
+    public GridLineOfSight (GridMap map) {
+        myMap = map;
+    }
+
+    public GridMap getMap () {
+        return myMap;
+    }
+
+    /**
+     * @return Whether a straight line can be taken through the cell at (x, y), which is on the
+     *         map.
+     */
+    protected boolean isClear (int x, int y) {
+        return myMap.isPassable(x, y);
+    }
+
+    /**
+     * @return Whether the straight line between the centers of two cells is clear.
+     */
+    public boolean isVisible (int fromCell, int toCell) {
+        return getLineCost(fromCell, toCell) != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Cost of moving straight between the centers of two cells: the length of the line times the
+     * highest cost among the cells it enters. Between adjacent cells this is the same as the
+     * cost of a single move.
+     *
+     * @return The cost, or positive infinity if the line is not clear.
+     */
+    public double getLineCost (int fromCell, int toCell) {
+        int x = myMap.getX(fromCell);
+        int y = myMap.getY(fromCell);
+        int deltaX = myMap.getX(toCell) - x;
+        int deltaY = myMap.getY(toCell) - y;
+        int stepsX = Math.abs(deltaX);
+        int stepsY = Math.abs(deltaY);
+        int stepX = Integer.signum(deltaX);
+        int stepY = Integer.signum(deltaY);
+        if (!isClear(x, y)) { return Double.POSITIVE_INFINITY; }
+        float highestCost = 0;
+        int takenX = 0;
+        int takenY = 0;
+        while (takenX < stepsX || takenY < stepsY) {
+            // compare where the line next crosses a vertical and a horizontal cell border
+            long crossX = (1 + 2L * takenX) * stepsY;
+            long crossY = (1 + 2L * takenY) * stepsX;
+            if (crossX == crossY) {
+                if (!isClear(x + stepX, y) || !isClear(x, y + stepY)) {
+                    return Double.POSITIVE_INFINITY;
+                }
+                x += stepX;
+                y += stepY;
+                takenX++;
+                takenY++;
+            }
+            else if (crossX < crossY) {
+                x += stepX;
+                takenX++;
+            }
+            else {
+                y += stepY;
+                takenY++;
+            }
+            if (!isClear(x, y)) { return Double.POSITIVE_INFINITY; }
+            highestCost = Math.max(highestCost, myMap.getCost(x, y));
+        }
+        return Math.hypot(deltaX, deltaY) * highestCost;
+    }
+
+    /**
+     * @return Visibility test for the nodes of a finder over the same map, for PathSmoother.
+     */
+    public <T> IVisibilityTest<T> forNodes (final GridPathFinder<T> finder) {
+        return new IVisibilityTest<T>() {
+            @Override
+            public boolean isVisible (T from, T to) {
+                return GridLineOfSight.this.isVisible(myMap.getCell(finder.getX(from),
+                                                                    finder.getY(from)),
+                                                      myMap.getCell(finder.getX(to),
+                                                                    finder.getY(to)));
+            }
+        };
+    }
+}
@@ -0,0 +1,158 @@
+package pathfinding.grid;
+
+import java.util.Arrays;
+import pathfinding.IMapVersion;
+import pathfinding.InvalidCostException;
+
+
+/**
+ * Width by height grid of cells stored in a single flat array, row by row. Every cell has the
+ * cost of entering it; cells with the cost BLOCKED cannot be entered. Cells are addressed either
+ * by (x, y) or by their index y * width + x, which is what the grid path finders use internally.
+ *
+ * Every change to a cost increments the map version, so anything derived from the map can tell
+ * whether it is out of date.
+ */
+public class GridMap implements IMapVersion {
+
+    public static final float BLOCKED = -1;
+
+    private static final float DEFAULT_COST = 1;
+
+    private final int myWidth;
+    private final int myHeight;
+    private final float[] myCosts;
+    private long myMapVersion;
+    private float myMinimumCost;
+    private boolean myUniformCost;
+    private long myMinimumCostVersion = -1;
+
+    /**
+     * Creates a map where every cell has a cost of 1.
+     */
+    public GridMap (int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Grid dimensions must be positive");
+        }
+        myWidth = width;
+        myHeight = height;
+        myCosts = new float[width * height];
+        Arrays.fill(myCosts, DEFAULT_COST);
+    }
+
+    /**
+     * Creates a map from costs stored row by row, so the cost of (x, y) is costs[y * width + x].
+     */
+    public GridMap (int width, int height, float[] costs) {
+        this(width, height);
+        if (costs.length != myCosts.length) {
+            throw new IllegalArgumentException("Expected " + myCosts.length + " cell costs");
+        }
+        for (float cost : costs) {
+            checkCost(cost);
+        }
+        System.arraycopy(costs, 0, myCosts, 0, costs.length);
+    }
+
+    public int getWidth () {
+        return myWidth;
+    }
+
+    public int getHeight () {
+        return myHeight;
+    }
+
+    public int getCellCount () {
+        return myCosts.length;
+    }
+
+    public boolean contains (int x, int y) {
+        return x >= 0 && x < myWidth && y >= 0 && y < myHeight;
+    }
+
+    public int getCell (int x, int y) {
+        return y * myWidth + x;
+    }
+
+    public int getX (int cell) {
+        return cell % myWidth;
+    }
+
+    public int getY (int cell) {
+        return cell / myWidth;
+    }
+
+    public float getCost (int cell) {
+        return myCosts[cell];
+    }
+
+    public float getCost (int x, int y) {
+        return myCosts[getCell(x, y)];
+    }
+
+    public boolean isPassable (int cell) {
+        return myCosts[cell] != BLOCKED;
+    }
+
+    /**
+     * @return Whether (x, y) is on the map and can be entered.
+     */
+    public boolean isPassable (int x, int y) {
+        return contains(x, y) && myCosts[getCell(x, y)] != BLOCKED;
+    }
+
+    /**
+     * Sets the cost of entering (x, y). Use BLOCKED to make the cell impassable.
+     */
+    public void setCost (int x, int y, float cost) {
+        checkCost(cost);
+        myCosts[getCell(x, y)] = cost;
+        myMapVersion++;
+    }
+
+    /**
+     * @return Number of cost changes made to the map so far.
+     */
+    @Override
+    public long getMapVersion () {
+        return myMapVersion;
+    }
+
+    /**
+     * @return Lowest cost among passable cells, or 0 if every cell is blocked. Multiplying a
+     *         distance by it gives a heuristic that never overestimates.
+     */
+    public synchronized float getMinimumCost () {
+        updateCostSummary();
+        return myMinimumCost;
+    }
+
+    /**
+     * @return Whether every passable cell has the same cost.
+     */
+    public synchronized boolean isUniformCost () {
+        updateCostSummary();
+        return myUniformCost;
+    }
+
+    private void updateCostSummary () {
+        if (myMinimumCostVersion == myMapVersion) { return; }
+        float minimum = Float.POSITIVE_INFINITY;
+        float maximum = 0;
+        for (float cost : myCosts) {
+            if (cost != BLOCKED) {
+                minimum = Math.min(minimum, cost);
+                maximum = Math.max(maximum, cost);
+            }
+        }
+        myMinimumCost = minimum == Float.POSITIVE_INFINITY ? 0 : minimum;
+        myUniformCost = minimum == Float.POSITIVE_INFINITY || minimum == maximum;
+        myMinimumCostVersion = myMapVersion;
+    }
+
+    private void checkCost (float cost) {
+        if (cost != BLOCKED && !(cost >= 0 && cost < Float.POSITIVE_INFINITY)) {
+            throw new InvalidCostException();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package pathfinding.grid;
+
+import java.util.ArrayList;
+import java.util.List;
+import pathfinding.IPathFinder;
+
+
+/**
+ * A* path finder specialized for GridMaps. Instead of hashing nodes, every search works on cell
+ * indexes: whether a cell has been discovered or closed is a generation stamp in an int[], and
+ * the came-from links and g scores are flat int[] and float[] arrays the size of the map. These
+ * arrays live in a GridSearchWorkspace, either passed in by the caller or kept per thread by the
+ * finder, so one finder can serve several threads as long as the map is not changed while they
+ * search.
+ *
+ * Moving into a cell costs the step length (see Connectivity) times the cost of that cell. The
+ * heuristic is the Manhattan or octile distance times the lowest cell cost on the map, so the
+ * paths found are always least cost paths.
+ *
+ * To use with an existing node type, extend this class and define how to convert between nodes
+ * and grid coordinates. Callers that already work with cell indexes can use findCellPath
+ * directly and skip the conversion.
+ *
+ * @param <T> Node type representing a cell of the grid.
+ */
+public abstract class GridPathFinder<T> implements IPathFinder<T> {
+
+    private final GridMap myMap;
+    private final Connectivity myConnectivity;
+    private final ThreadLocal<GridSearchWorkspace> myWorkspaces =
+            new ThreadLocal<GridSearchWorkspace>() {
+                @Override
+                protected GridSearchWorkspace initialValue () {
+                    return new GridSearchWorkspace();
+                }
+            };
+
+    public GridPathFinder (GridMap map, Connectivity connectivity) {
+        myMap = map;
+        myConnectivity = connectivity;
+    }
+
+    /**
+     * @return X coordinate of the cell represented by the node
+     */
+    public abstract int getX (T node);
+
+    /**
+     * @return Y coordinate of the cell represented by the node
+     */
+    public abstract int getY (T node);
+
+    /**
+     * @return Node representing the cell at (x, y)
+     */
+    public abstract T getNode (int x, int y);
+
+    public GridMap getMap () {
+        return myMap;
+    }
+
+    public Connectivity getConnectivity () {
+        return myConnectivity;
+    }
+
+    /**
+     * Cost of moving from beginningNode into the adjacent endingNode: the step length times the
+     * cost of the ending cell.
+     */
+    @Override
+    public Number getCost (T beginningNode, T endingNode) {
+        int deltaX = getX(endingNode) - getX(beginningNode);
+        int deltaY = getY(endingNode) - getY(beginningNode);
+        return myConnectivity.getDistance(deltaX, deltaY) *
+               myMap.getCost(getX(endingNode), getY(endingNode));
+    }
+
+    @Override
+    public List<T> getNeighbors (T node) {
+        int x = getX(node);
+        int y = getY(node);
+        List<T> neighbors = new ArrayList<>();
+        for (int direction = 0; direction < myConnectivity.getDirectionCount(); direction++) {
+            if (canMove(x, y, direction)) {
+                neighbors.add(getNode(x + myConnectivity.getDeltaX(direction),
+                                      y + myConnectivity.getDeltaY(direction)));
+            }
+        }
+        return neighbors;
+    }
+
+    @Override
+    public boolean isDestination (T node, T destinationNode) {
+        return getX(node) == getX(destinationNode) && getY(node) == getY(destinationNode);
+    }
+
+    @Override
+    public int breakTie (T node, T other) {
+        int xCompareValue = Integer.compare(getX(node), getX(other));
+        return xCompareValue == 0 ? Integer.compare(getY(node), getY(other)) : xCompareValue;
+    }
+
+    @Override
+    public List<T> findPath (T start, T destination) {
+        int[] cells = findCellPath(myMap.getCell(getX(start), getY(start)),
+                                   myMap.getCell(getX(destination), getY(destination)));
+        if (cells == null) { return null; }
+        List<T> path = new ArrayList<>(cells.length);
+        for (int cell : cells) {
+            path.add(getNode(myMap.getX(cell), myMap.getY(cell)));
+        }
+        return path;
+    }
+
+    /**
+     * Finds the least cost path between two cells.
+     *
+     * @param startCell Index of the starting cell
+     * @param destinationCell Index of the destination cell
+     * @return Indexes of the cells on the path, starting with startCell and ending with
+     *         destinationCell, or null if the destination cannot be reached.
+     */
+    public int[] findCellPath (int startCell, int destinationCell) {
+        return findCellPath(startCell, destinationCell, myWorkspaces.get());
+    }
+
+    /**
+     * @return Number of cells taken off the frontier during the calling thread's last search.
+     */
+    public int getExpandedCellCount () {
+        return myWorkspaces.get().getExpandedCellCount();
+    }
+
+    /**
+     * @return Number of times a cell was added to the frontier or had its score lowered while on
+     *         it during the calling thread's last search.
+     */
+    public int getFrontierPushCount () {
+        return myWorkspaces.get().getFrontierPushCount();
+    }
+
+    /**
+     * Generates the successors of a cell taken off the frontier by calling relax on the
+     * workspace for each of them. By default the successors are the cells reachable with a
+     * single move.
+     *
+     * @param workspace Workspace of the current search
+     * @param cell Cell being expanded
+     */
+    protected void expand (GridSearchWorkspace workspace, int cell) {
+        int x = myMap.getX(cell);
+        int y = myMap.getY(cell);
+        float scoreSoFar = workspace.getScore(cell);
+        for (int direction = 0; direction < myConnectivity.getDirectionCount(); direction++) {
+            if (canMove(x, y, direction)) {
+                int neighbor = myMap.getCell(x + myConnectivity.getDeltaX(direction),
+                                             y + myConnectivity.getDeltaY(direction));
+                workspace.relax(cell, neighbor, scoreSoFar +
+                                                myConnectivity.getStepLength(direction) *
+                                                myMap.getCost(neighbor));
+            }
+        }
+    }
+
+    /**
+     * Whether successors reported to relax can be any cell, rather than only cells on a straight
+     * or diagonal line from the expanded one. If so, the heuristic is the straight-line distance
+     * and paths are returned as the cells where they turn instead of every cell they cross.
+     * Returns false unless overridden.
+     */
+    protected boolean usesAnyAngleMoves () {
+        return false;
+    }
+
+    /**
+     * Whether a single move in the given direction from (x, y) is allowed: the target cell must
+     * be passable and, for diagonal moves, so must both cells the move passes between.
+     */
+    protected boolean canMove (int x, int y, int direction) {
+        int deltaX = myConnectivity.getDeltaX(direction);
+        int deltaY = myConnectivity.getDeltaY(direction);
+        if (!myMap.isPassable(x + deltaX, y + deltaY)) { return false; }
+        return !myConnectivity.isDiagonal(direction) ||
+               (myMap.isPassable(x + deltaX, y) && myMap.isPassable(x, y + deltaY));
+    }
+
+    /**
+     * Finds the least cost path between two cells using the given workspace for all search
+     * storage.
+     *
+     * @param startCell Index of the starting cell
+     * @param destinationCell Index of the destination cell
+     * @param workspace Workspace not in use by any other search
+     * @return Indexes of the cells on the path, or null if the destination cannot be reached.
+     */
+    public int[] findCellPath (int startCell, int destinationCell, GridSearchWorkspace workspace) {
+        checkCell(startCell);
+        checkCell(destinationCell);
+        boolean anyAngle = usesAnyAngleMoves();
+        workspace.prepare(myMap, myConnectivity, destinationCell, anyAngle);
+        if (!myMap.isPassable(destinationCell)) { return null; }
+
+        workspace.addStart(startCell);
+        while (workspace.hasFrontier()) {
+            int cell = workspace.pollFrontier();
+            if (cell == destinationCell) {
+                return anyAngle ? workspace.buildWaypointPath(cell) : workspace.buildCellPath(cell);
+            }
+            expand(workspace, cell);
+        }
+        return null;
+    }
+
+    private void checkCell (int cell) {
+        if (cell < 0 || cell >= myMap.getCellCount()) {
+            throw new IndexOutOfBoundsException("Cell " + cell + " is not on the map");
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package pathfinding.grid;
+
+import static org.junit.Assert.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import pathfinding.AStarPathFinder;
+import pathfinding.PathSmoother;
+
+
+/**
+ * Checks the grid finder against the generic AStarPathFinder running over the same hooks.
+ */
+public class GridPathFinderTest {
+
+    private static final double TOLERANCE = 1e-2;
+
+    @Test
+    public void testOpenGridPathLength () {
+        int xMax = 50;
+        int yMax = 39;
+        TestGridFinder finder = new TestGridFinder(new GridMap(xMax, yMax), Connectivity.FOUR);
+        Random rand = new Random();
+        for (int i = 0; i < 50; i++) {
+            int startX = rand.nextInt(xMax);
+            int startY = rand.nextInt(yMax);
+            int endX = rand.nextInt(xMax);
+            int endY = rand.nextInt(yMax);
+            List<Cell> result = finder.findPath(new Cell(startX, startY), new Cell(endX, endY));
+            assertEquals(Math.abs(endX - startX) + Math.abs(endY - startY) + 1, result.size());
+        }
+    }
+
+    @Test
+    public void testMatchesGenericFinderWithObstacles () {
+        for (Connectivity connectivity : Connectivity.values()) {
+            Random rand = new Random(7);
+            GridMap map = createRandomMap(60, 45, 0.3, rand);
+            TestGridFinder finder = new TestGridFinder(map, connectivity);
+            ReferenceFinder reference = new ReferenceFinder(finder);
+            for (int i = 0; i < 100; i++) {
+                Cell start = randomPassableCell(map, rand);
+                Cell destination = randomPassableCell(map, rand);
+                List<Cell> expected = reference.findPath(start, destination);
+                List<Cell> result = finder.findPath(start, destination);
+                if (expected == null) {
+                    assertNull(result);
+                }
+                else {
+                    assertEquals(pathCost(finder, expected), pathCost(finder, result), TOLERANCE);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testJumpPointSearchMatchesGridFinder () {
+        Random rand = new Random(11);
+        GridMap map = createRandomMap(80, 60, 0.25, rand);
+        for (int i = 0; i < map.getCellCount(); i++) {
+            if (map.isPassable(i)) {
+                map.setCost(map.getX(i), map.getY(i), 1);
+            }
+        }
+        TestGridFinder finder = new TestGridFinder(map, Connectivity.EIGHT);
+        TestJumpPointFinder jumpFinder = new TestJumpPointFinder(map, false);
+        TestJumpPointFinder tableFinder = new TestJumpPointFinder(map, true);
+        int gridPushes = 0;
+        int jumpPushes = 0;
+        for (int i = 0; i < 200; i++) {
+            Cell start = randomPassableCell(map, rand);
+            Cell destination = randomPassableCell(map, rand);
+            List<Cell> expected = finder.findPath(start, destination);
+            gridPushes += finder.getFrontierPushCount();
+            for (TestJumpPointFinder jumpPointFinder : new TestJumpPointFinder[] { jumpFinder,
+                                                                                  tableFinder }) {
+                List<Cell> result = jumpPointFinder.findPath(start, destination);
+                if (expected == null) {
+                    assertNull(result);
+                    continue;
+                }
+                assertEquals(pathCost(finder, expected), pathCost(finder, result), TOLERANCE);
+                for (int j = 1; j < result.size(); j++) {
+                    assertTrue(finder.getNeighbors(result.get(j - 1)).contains(result.get(j)));
+                }
+            }
+            jumpPushes += jumpFinder.getFrontierPushCount();
+        }
+        assertTrue(jumpPushes < gridPushes);
+    }
+
+    @Test
+    public void testJumpPointWorkspaceOverloadSeesMapChanges () {
+        GridMap map = new GridMap(10, 10);
+        TestJumpPointFinder freshFinder = new TestJumpPointFinder(map, true);
+        GridSearchWorkspace workspace = new GridSearchWorkspace();
+        int start = map.getCell(0, 5);
+        int destination = map.getCell(9, 5);
+        freshFinder.findCellPath(start, destination, workspace);
+        int jumpPushes = workspace.getFrontierPushCount();
+        new TestGridFinder(map, Connectivity.EIGHT).findCellPath(start, destination, workspace);
+        assertTrue(jumpPushes < workspace.getFrontierPushCount());
+
+        TestJumpPointFinder finder = new TestJumpPointFinder(map, true);
+        assertEquals(10, finder.findCellPath(start, destination).length);
+        for (int y = 1; y < 10; y++) {
+            map.setCost(5, y, GridMap.BLOCKED);
+        }
+        int[] result = finder.findCellPath(start, destination, new GridSearchWorkspace());
+        int[] expected = finder.findCellPath(start, destination);
+        assertEquals(expected.length, result.length);
+        for (int cell : result) {
+            assertTrue(map.isPassable(cell));
+        }
+    }
+
+    @Test
+    public void testAnyAnglePathsCutWaypoints () {
+        Random rand = new Random(23);
+        GridMap map = createRandomMap(60, 60, 0.2, rand);
+        for (int i = 0; i < map.getCellCount(); i++) {
+            if (map.isPassable(i)) {
+                map.setCost(map.getX(i), map.getY(i), 1);
+            }
+        }
+        TestGridFinder finder = new TestGridFinder(map, Connectivity.EIGHT);
+        TestThetaStarFinder thetaFinder = new TestThetaStarFinder(map);
+        GridLineOfSight lineOfSight = thetaFinder.getLineOfSight();
+        PathSmoother<Cell> smoother = new PathSmoother<>(lineOfSight.forNodes(finder));
+        int gridWaypoints = 0;
+        int smoothedWaypoints = 0;
+        int thetaWaypoints = 0;
+        double gridCost = 0;
+        double thetaCost = 0;
+        for (int i = 0; i < 100; i++) {
+            Cell start = randomPassableCell(map, rand);
+            Cell destination = randomPassableCell(map, rand);
+            List<Cell> expected = finder.findPath(start, destination);
+            List<Cell> result = thetaFinder.findPath(start, destination);
+            if (expected == null) {
+                assertNull(result);
+                continue;
+            }
+            List<Cell> smoothed = smoother.smooth(expected);
+            for (List<Cell> path : Arrays.asList(result, smoothed)) {
+                assertEquals(start, path.get(0));
+                assertEquals(destination, path.get(path.size() - 1));
+                assertTrue(pathCost(thetaFinder, path) <= pathCost(finder, expected) + TOLERANCE);
+            }
+            gridWaypoints += expected.size();
+            smoothedWaypoints += smoothed.size();
+            thetaWaypoints += result.size();
+            gridCost += pathCost(finder, expected);
+            thetaCost += pathCost(thetaFinder, result);
+        }
+        assertTrue(smoothedWaypoints < gridWaypoints / 2);
+        assertTrue(thetaWaypoints < gridWaypoints / 2);
+        assertTrue(thetaCost < gridCost);
+    }
+
+    static GridMap createRandomMap (int width, int height, double density, Random rand) {
+        float[] costs = new float[width * height];
+        for (int i = 0; i < costs.length; i++) {
+            costs[i] = rand.nextDouble() < density ? GridMap.BLOCKED : 1 + rand.nextInt(3);
+        }
+        return new GridMap(width, height, costs);
+    }
+
+    static Cell randomPassableCell (GridMap map, Random rand) {
+        while (true) {
+            int x = rand.nextInt(map.getWidth());
+            int y = rand.nextInt(map.getHeight());
+            if (map.isPassable(x, y)) { return new Cell(x, y); }
+        }
+    }
+
+    /**
+     * Sums the finder's costs between consecutive nodes, which for an any-angle finder are
+     * infinite unless each pair is in line of sight.
+     */
+    static double pathCost (GridPathFinder<Cell> finder, List<Cell> path) {
+        double cost = 0;
+        for (int i = 1; i < path.size(); i++) {
+            cost += finder.getCost(path.get(i - 1), path.get(i)).doubleValue();
+        }
+        return cost;
+    }
+
+    static class Cell {
+        private int myX;
+        private int myY;
+
+        public Cell (int x, int y) {
+            myX = x;
+            myY = y;
+        }
+
+        @Override
+        public boolean equals (Object other) {
+            if (other == null || !(other instanceof Cell)) { return false; }
+            Cell otherCell = (Cell) other;
+            return myX == otherCell.myX && myY == otherCell.myY;
+        }
+
+        @Override
+        public int hashCode () {
+            return 31 * myX + myY;
+        }
+
+        @Override
+        public String toString () {
+            return myX + ", " + myY;
+        }
+    }
+
+    static class TestGridFinder extends GridPathFinder<Cell> {
+
+        public TestGridFinder (GridMap map, Connectivity connectivity) {
+            super(map, connectivity);
+        }
+
+        @Override
+        public int getX (Cell node) {
+            return node.myX;
+        }
+
+        @Override
+        public int getY (Cell node) {
+            return node.myY;
+        }
+
+        @Override
+        public Cell getNode (int x, int y) {
+            return new Cell(x, y);
+        }
+    }
+
+    static class TestJumpPointFinder extends JumpPointPathFinder<Cell> {
+
+        public TestJumpPointFinder (GridMap map, boolean usePrecomputedJumps) {
+            super(map, usePrecomputedJumps);
+        }
+
+        @Override
+        public int getX (Cell node) {
+            return node.myX;
+        }
+
+        @Override
+        public int getY (Cell node) {
+            return node.myY;
+        }
+
+        @Override
+        public Cell getNode (int x, int y) {
+            return new Cell(x, y);
+        }
+    }
+
+    static class TestThetaStarFinder extends ThetaStarPathFinder<Cell> {
+
+        public TestThetaStarFinder (GridMap map) {
+            super(map, Connectivity.EIGHT);
+        }
+
+        @Override
+        public int getX (Cell node) {
+            return node.myX;
+        }
+
+        @Override
+        public int getY (Cell node) {
+            return node.myY;
+        }
+
+        @Override
+        public Cell getNode (int x, int y) {
+            return new Cell(x, y);
+        }
+    }
+
+    /**
+     * Dijkstra's algorithm over the grid finder's cost and neighbor hooks.
+     */
+    private static class ReferenceFinder extends AStarPathFinder<Cell> {
+
+        private TestGridFinder myGrid;
+
+        public ReferenceFinder (TestGridFinder grid) {
+            myGrid = grid;
+        }
+
+        @Override
+        public Number getCost (Cell beginningNode, Cell endingNode) {
+            return myGrid.getCost(beginningNode, endingNode);
+        }
+
+        @Override
+        public Iterable<Cell> getNeighbors (Cell node) {
+            return myGrid.getNeighbors(node);
+        }
+
+        @Override
+        public int breakTie (Cell node, Cell other) {
+            return myGrid.breakTie(node, other);
+        }
+
+        @Override
+        public Number getHeuristicValue (Cell node, Cell destination) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package pathfinding.grid;
+
+import java.util.Arrays;
+import pathfinding.IndexedMinHeap;
+
+
+/**
+ * Storage for a single grid search: the came-from links, the g scores and the frontier, in
+ * arrays sized to the map. Whether a cell has been discovered or closed is recorded as a
+ * generation stamp per cell, and every search starts a new generation, so starting a search
+ * costs nothing in the size of the map and only the cells a search touches are ever written.
+ * After the first search on a map, searches allocate nothing but the returned path.
+ *
+ * A workspace can be reused for any number of searches but only by one thread at a time.
+ * Callers can pool workspaces and pass them to GridPathFinder.findCellPath; otherwise the finder
+ * keeps one per thread.
+ *
+ * Subclasses of GridPathFinder receive the workspace of the current search in expand and report
+ * successors to it through relax.
+ */
+public class GridSearchWorkspace {
+
+    static final int NO_PARENT = -1;
+
+    private GridMap myMap;
+    private Connectivity myConnectivity;
+    private int[] myStamps;
+    private int myGeneration;
+    private int[] myParents;
+    private float[] myScores;
+    private IndexedMinHeap myFrontier;
+    private int myDestinationCell;
+    private int myDestinationX;
+    private int myDestinationY;
+    private double myHeuristicScale;
+    private boolean myStraightLineHeuristic;
+    private int myExpandedCells;
+    private int myFrontierPushes;
+
+    /**
+     * Records that successor can be reached through cell with the given g score, queueing it if
+     * this is the best way found so far. Successors do not need to be adjacent to cell, but must
+     * lie on a straight or diagonal line from it; the cells in between are filled in when the
+     * path is built. Finders that use any-angle moves can report any cell.
+     */
+    public void relax (int cell, int successor, double gScore) {
+        int stamp = myStamps[successor];
+        if (stamp == myGeneration + 1) { return; }
+        float score = (float) gScore;
+        if (stamp != myGeneration || score < myScores[successor]) {
+            discover(successor, score, cell);
+            myFrontier.offer(successor, score + heuristic(successor));
+            myFrontierPushes++;
+        }
+    }
+
+    /**
+     * @return g score of a cell discovered during the current search
+     */
+    public float getScore (int cell) {
+        return myScores[cell];
+    }
+
+    /**
+     * @return Cell through which a discovered cell was reached, or -1 for the start cell
+     */
+    public int getParent (int cell) {
+        return myParents[cell];
+    }
+
+    public int getDestinationCell () {
+        return myDestinationCell;
+    }
+
+    /**
+     * @return Number of cells taken off the frontier during the last search.
+     */
+    public int getExpandedCellCount () {
+        return myExpandedCells;
+    }
+
+    /**
+     * @return Number of times a cell was added to the frontier or had its score lowered while on
+     *         it during the last search.
+     */
+    public int getFrontierPushCount () {
+        return myFrontierPushes;
+    }
+
+    /**
+     * @param straightLineHeuristic Whether to estimate with the straight-line distance rather
+     *        than the move distance of the connectivity, for searches with any-angle moves
+     */
+    void prepare (GridMap map, Connectivity connectivity, int destinationCell,
+                  boolean straightLineHeuristic) {
+        myMap = map;
+        myConnectivity = connectivity;
+        myStraightLineHeuristic = straightLineHeuristic;
+        myDestinationCell = destinationCell;
+        myDestinationX = map.getX(destinationCell);
+        myDestinationY = map.getY(destinationCell);
+        myHeuristicScale = map.getMinimumCost();
+        myExpandedCells = 0;
+        myFrontierPushes = 0;
+        int cellCount = map.getCellCount();
+        if (myScores == null || myScores.length != cellCount) {
+            myStamps = new int[cellCount];
+            myGeneration = 0;
+            myParents = new int[cellCount];
+            myScores = new float[cellCount];
+            myFrontier = new IndexedMinHeap(4, new IndexedMinHeap.TieBreaker() {
+                @Override
+                public int compare (int cell, int otherCell) {
+                    return Float.compare(myScores[otherCell], myScores[cell]);
+                }
+            });
+        }
+        myFrontier.clear();
+        startGeneration();
+    }
+
+    void addStart (int startCell) {
+        discover(startCell, 0, NO_PARENT);
+        myFrontier.offer(startCell, heuristic(startCell));
+        myFrontierPushes++;
+    }
+
+    boolean hasFrontier () {
+        return !myFrontier.isEmpty();
+    }
+
+    /**
+     * Takes the best cell off the frontier and marks it closed.
+     */
+    int pollFrontier () {
+        int cell = myFrontier.poll();
+        myExpandedCells++;
+        myStamps[cell] = myGeneration + 1;
+        return cell;
+    }
+
+    int[] buildCellPath (int destinationCell) {
+        int length = 1;
+        for (int cell = destinationCell; myParents[cell] != NO_PARENT; cell = myParents[cell]) {
+            length += getSteps(myParents[cell], cell);
+        }
+        int[] path = new int[length];
+        path[--length] = destinationCell;
+        for (int cell = destinationCell; myParents[cell] != NO_PARENT; cell = myParents[cell]) {
+            int parent = myParents[cell];
+            int steps = getSteps(parent, cell);
+            int stepX = Integer.signum(myMap.getX(cell) - myMap.getX(parent));
+            int stepY = Integer.signum(myMap.getY(cell) - myMap.getY(parent));
+            for (int step = steps - 1; step >= 0; step--) {
+                path[--length] = myMap.getCell(myMap.getX(parent) + step * stepX,
+                                               myMap.getY(parent) + step * stepY);
+            }
+        }
+        return path;
+    }
+
+    /**
+     * @return Cells on the chain of came-from links from the start cell to destinationCell,
+     *         without filling in the cells between them.
+     */
+    int[] buildWaypointPath (int destinationCell) {
+        int length = 1;
+        for (int cell = destinationCell; myParents[cell] != NO_PARENT; cell = myParents[cell]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int cell = destinationCell; cell != NO_PARENT; cell = myParents[cell]) {
+            path[--length] = cell;
+        }
+        return path;
+    }
+
+    private int getSteps (int from, int to) {
+        return Math.max(Math.abs(myMap.getX(to) - myMap.getX(from)),
+                        Math.abs(myMap.getY(to) - myMap.getY(from)));
+    }
+
+    private double heuristic (int cell) {
+        int deltaX = myDestinationX - myMap.getX(cell);
+        int deltaY = myDestinationY - myMap.getY(cell);
+        if (myStraightLineHeuristic) { return myHeuristicScale * Math.hypot(deltaX, deltaY); }
+        return myHeuristicScale * myConnectivity.getDistance(deltaX, deltaY);
+    }
+
+    /**
+     * Moves on to a fresh pair of stamps: myGeneration marks discovered cells and
+     * myGeneration + 1 marks closed ones.
+     */
+    private void startGeneration () {
+        myGeneration += 2;
+        if (myGeneration >= Integer.MAX_VALUE - 2) {
+            Arrays.fill(myStamps, 0);
+            myGeneration = 2;
+        }
+    }
+
+    private void discover (int cell, float gScore, int parent) {
+        myStamps[cell] = myGeneration;
+        myScores[cell] = gScore;
+        myParents[cell] = parent;
+    }
+}
@@ -0,0 +1,263 @@
+package pathfinding.grid;
+
+/**
+ * Jump Point Search over an eight-connected GridMap where every passable cell has the same cost.
+ * Rather than queueing every neighbor, each expansion scans along straight and diagonal lines
+ * and only queues the cells where the optimal path could turn (jump points), so open areas are
+ * crossed with a handful of frontier pushes. Paths have the same cost as the ones GridPathFinder
+ * finds with Connectivity.EIGHT, and like GridPathFinder, diagonal moves never cut corners.
+ *
+ * With precomputed jumps enabled (JPS+), the distance from every cell to the next jump point or
+ * wall in each straight direction is stored in a table, so straight scans become single lookups.
+ * The table takes four ints per cell and is rebuilt on the first search after the map changes.
+ *
+ * Maps whose passable cells do not all share one cost are searched with plain A* instead, since
+ * jumping over cells is only valid when every step costs the same.
+ *
+ * @param <T> Node type representing a cell of the grid.
+ */
+public abstract class JumpPointPathFinder<T> extends GridPathFinder<T> {
+
+    private static final int NONE = -1;
+    private static final int EAST = 0;
+    private static final int WEST = 1;
+    private static final int SOUTH = 2;
+    private static final int NORTH = 3;
+
+    private final boolean myUsesJumpTable;
+    private int[][] myJumpTable;
+    private long myJumpTableVersion = -1;
+    private volatile boolean myJumping;
+    private volatile float myStepCost;
+
+    public JumpPointPathFinder (GridMap map) {
+        this(map, false);
+    }
+
+    /**
+     * @param map Map to search
+     * @param usePrecomputedJumps Whether to precompute straight jump distances (JPS+)
+     */
+    public JumpPointPathFinder (GridMap map, boolean usePrecomputedJumps) {
+        super(map, Connectivity.EIGHT);
+        myUsesJumpTable = usePrecomputedJumps;
+    }
+
+    /**
+     * Checks whether the map can be jumped over and brings the jump table up to date before
+     * searching. Every search goes through this overload, including those that pass their own
+     * workspace.
+     */
+    @Override
+    public int[] findCellPath (int startCell, int destinationCell,
+                               GridSearchWorkspace workspace) {
+        GridMap map = getMap();
+        myJumping = map.isUniformCost();
+        if (myJumping) {
+            myStepCost = map.getMinimumCost();
+            if (myUsesJumpTable) {
+                updateJumpTable();
+            }
+        }
+        return super.findCellPath(startCell, destinationCell, workspace);
+    }
+
+    @Override
+    protected void expand (GridSearchWorkspace workspace, int cell) {
+        if (!myJumping) {
+            super.expand(workspace, cell);
+            return;
+        }
+        GridMap map = getMap();
+        int x = map.getX(cell);
+        int y = map.getY(cell);
+        int parent = workspace.getParent(cell);
+        if (parent == NONE) {
+            Connectivity connectivity = getConnectivity();
+            for (int direction = 0; direction < connectivity.getDirectionCount(); direction++) {
+                if (canMove(x, y, direction)) {
+                    jumpFrom(workspace, cell, x, y, connectivity.getDeltaX(direction),
+                             connectivity.getDeltaY(direction));
+                }
+            }
+            return;
+        }
+        int deltaX = Integer.signum(x - map.getX(parent));
+        int deltaY = Integer.signum(y - map.getY(parent));
+        if (deltaX != 0 && deltaY != 0) {
+            boolean verticalOpen = map.isPassable(x, y + deltaY);
+            boolean horizontalOpen = map.isPassable(x + deltaX, y);
+            if (verticalOpen) {
+                jumpFrom(workspace, cell, x, y, 0, deltaY);
+            }
+            if (horizontalOpen) {
+                jumpFrom(workspace, cell, x, y, deltaX, 0);
+            }
+            if (verticalOpen && horizontalOpen) {
+                jumpFrom(workspace, cell, x, y, deltaX, deltaY);
+            }
+        }
+        else if (deltaX != 0) {
+            expandStraight(workspace, cell, x, y, deltaX, 0, map.isPassable(x + deltaX, y),
+                           map.isPassable(x, y + 1), map.isPassable(x, y - 1), 0, 1);
+        }
+        else {
+            expandStraight(workspace, cell, x, y, 0, deltaY, map.isPassable(x, y + deltaY),
+                           map.isPassable(x + 1, y), map.isPassable(x - 1, y), 1, 0);
+        }
+    }
+
+    /**
+     * Expands a cell reached by a straight move along (deltaX, deltaY). Besides continuing
+     * straight, the path may turn towards either side (sideX, sideY) or (-sideX, -sideY), or move
+     * diagonally forward towards an open side.
+     */
+    private void expandStraight (GridSearchWorkspace workspace, int cell, int x, int y,
+                                 int deltaX, int deltaY,
+                                 boolean forwardOpen, boolean sideOpen, boolean otherSideOpen,
+                                 int sideX, int sideY) {
+        if (forwardOpen) {
+            jumpFrom(workspace, cell, x, y, deltaX, deltaY);
+            if (sideOpen) {
+                jumpFrom(workspace, cell, x, y, deltaX + sideX, deltaY + sideY);
+            }
+            if (otherSideOpen) {
+                jumpFrom(workspace, cell, x, y, deltaX - sideX, deltaY - sideY);
+            }
+        }
+        if (sideOpen) {
+            jumpFrom(workspace, cell, x, y, sideX, sideY);
+        }
+        if (otherSideOpen) {
+            jumpFrom(workspace, cell, x, y, -sideX, -sideY);
+        }
+    }
+
+    private void jumpFrom (GridSearchWorkspace workspace, int cell, int x, int y, int deltaX,
+                           int deltaY) {
+        GridMap map = getMap();
+        int destinationX = map.getX(workspace.getDestinationCell());
+        int destinationY = map.getY(workspace.getDestinationCell());
+        int jumpPoint = deltaX != 0 && deltaY != 0
+                ? jumpDiagonal(x, y, deltaX, deltaY, destinationX, destinationY)
+                : jumpStraight(x, y, deltaX, deltaY, destinationX, destinationY);
+        if (jumpPoint == NONE) { return; }
+        double distance = getConnectivity().getDistance(map.getX(jumpPoint) - x,
+                                                        map.getY(jumpPoint) - y);
+        workspace.relax(cell, jumpPoint, workspace.getScore(cell) + distance * myStepCost);
+    }
+
+    /**
+     * Scans diagonally from (x, y), not including (x, y) itself, and returns the first cell that
+     * is the destination or from which a straight scan finds a jump point.
+     */
+    private int jumpDiagonal (int x, int y, int deltaX, int deltaY, int destinationX,
+                              int destinationY) {
+        GridMap map = getMap();
+        while (true) {
+            x += deltaX;
+            y += deltaY;
+            if (!map.isPassable(x, y)) { return NONE; }
+            if (x == destinationX && y == destinationY) { return map.getCell(x, y); }
+            if (jumpStraight(x, y, deltaX, 0, destinationX, destinationY) != NONE ||
+                jumpStraight(x, y, 0, deltaY, destinationX, destinationY) != NONE) {
+                return map.getCell(x, y);
+            }
+            if (!map.isPassable(x + deltaX, y) || !map.isPassable(x, y + deltaY)) { return NONE; }
+        }
+    }
+
+    /**
+     * Scans straight from (x, y), not including (x, y) itself, and returns the first cell that is
+     * the destination or has a forced neighbor, or NONE if a wall comes first.
+     */
+    private int jumpStraight (int x, int y, int deltaX, int deltaY, int destinationX,
+                              int destinationY) {
+        if (myUsesJumpTable) {
+            return lookUpJump(x, y, deltaX, deltaY, destinationX, destinationY);
+        }
+        GridMap map = getMap();
+        while (true) {
+            x += deltaX;
+            y += deltaY;
+            if (!map.isPassable(x, y)) { return NONE; }
+            if (x == destinationX && y == destinationY) { return map.getCell(x, y); }
+            if (hasForcedNeighbor(x, y, deltaX, deltaY)) { return map.getCell(x, y); }
+        }
+    }
+
+    private boolean hasForcedNeighbor (int x, int y, int deltaX, int deltaY) {
+        GridMap map = getMap();
+        if (deltaX != 0) {
+            return (map.isPassable(x, y - 1) && !map.isPassable(x - deltaX, y - 1)) ||
+                   (map.isPassable(x, y + 1) && !map.isPassable(x - deltaX, y + 1));
+        }
+        return (map.isPassable(x - 1, y) && !map.isPassable(x - 1, y - deltaY)) ||
+               (map.isPassable(x + 1, y) && !map.isPassable(x + 1, y - deltaY));
+    }
+
+    /**
+     * Straight scan using the jump table. A positive entry k means the k-th cell in that
+     * direction is a jump point; an entry of -k means k cells are open before a wall. The
+     * destination is found by checking whether it lies within the scanned range.
+     */
+    private int lookUpJump (int x, int y, int deltaX, int deltaY, int destinationX,
+                            int destinationY) {
+        GridMap map = getMap();
+        int entry = myJumpTable[getTableDirection(deltaX, deltaY)][map.getCell(x, y)];
+        int range = Math.abs(entry);
+        int offset = deltaX != 0 ? (destinationX - x) * deltaX : (destinationY - y) * deltaY;
+        boolean onLine = deltaX != 0 ? destinationY == y : destinationX == x;
+        if (onLine && offset >= 1 && offset <= range) {
+            return map.getCell(destinationX, destinationY);
+        }
+        if (entry <= 0) { return NONE; }
+        return map.getCell(x + entry * deltaX, y + entry * deltaY);
+    }
+
+    private int getTableDirection (int deltaX, int deltaY) {
+        if (deltaX > 0) { return EAST; }
+        if (deltaX < 0) { return WEST; }
+        return deltaY > 0 ? SOUTH : NORTH;
+    }
+
+    private synchronized void updateJumpTable () {
+        GridMap map = getMap();
+        if (myJumpTable != null && myJumpTableVersion == map.getMapVersion()) { return; }
+        int width = map.getWidth();
+        int height = map.getHeight();
+        int[][] table = new int[4][map.getCellCount()];
+        for (int y = 0; y < height; y++) {
+            for (int x = width - 1; x >= 0; x--) {
+                table[EAST][map.getCell(x, y)] = nextJumpEntry(table[EAST], x, y, 1, 0);
+            }
+            for (int x = 0; x < width; x++) {
+                table[WEST][map.getCell(x, y)] = nextJumpEntry(table[WEST], x, y, -1, 0);
+            }
+        }
+        for (int x = 0; x < width; x++) {
+            for (int y = height - 1; y >= 0; y--) {
+                table[SOUTH][map.getCell(x, y)] = nextJumpEntry(table[SOUTH], x, y, 0, 1);
+            }
+            for (int y = 0; y < height; y++) {
+                table[NORTH][map.getCell(x, y)] = nextJumpEntry(table[NORTH], x, y, 0, -1);
+            }
+        }
+        myJumpTable = table;
+        myJumpTableVersion = map.getMapVersion();
+    }
+
+    /**
+     * Computes the table entry for (x, y) from the entry of the next cell in the same direction,
+     * which has already been filled in.
+     */
+    private int nextJumpEntry (int[] directionTable, int x, int y, int deltaX, int deltaY) {
+        GridMap map = getMap();
+        int nextX = x + deltaX;
+        int nextY = y + deltaY;
+        if (!map.isPassable(nextX, nextY)) { return 0; }
+        if (hasForcedNeighbor(nextX, nextY, deltaX, deltaY)) { return 1; }
+        int nextEntry = directionTable[map.getCell(nextX, nextY)];
+        return nextEntry > 0 ? nextEntry + 1 : nextEntry - 1;
+    }
+}
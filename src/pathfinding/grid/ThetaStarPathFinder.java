@@ -0,0 +1,85 @@
+package pathfinding.grid;
+
+/**
+ * Any-angle path finder over a GridMap (Theta*). It searches like GridPathFinder, but when a
+ * cell's parent can see a successor, the successor is linked straight to that parent instead of
+ * to the cell, so paths bend only at the corners of obstacles. Paths are returned as waypoints:
+ * the start, the cells where the path bends, and the destination, with consecutive waypoints in
+ * line of sight of each other rather than adjacent.
+ *
+ * A straight move costs its length times the highest cost among the cells it enters (see
+ * GridLineOfSight), so on uniform cost maps the costs are true Euclidean lengths. Paths are
+ * usually close to the shortest any-angle path but are not guaranteed to be.
+ *
+ * The visibility test is pluggable: pass a GridLineOfSight subclass to change which cells lines
+ * may cross.
+ *
+ * @param <T> Node type representing a cell of the grid.
+ */
+public abstract class ThetaStarPathFinder<T> extends GridPathFinder<T> {
+
+    private final GridLineOfSight myLineOfSight;
+
+    public ThetaStarPathFinder (GridMap map, Connectivity connectivity) {
+        this(map, connectivity, new GridLineOfSight(map));
+    }
+
+    /**
+     * @param map Map to search
+     * @param connectivity Moves used to explore the map
+     * @param lineOfSight Test for straight lines between cells of the same map
+     */
+    public ThetaStarPathFinder (GridMap map, Connectivity connectivity,
+                                GridLineOfSight lineOfSight) {
+        super(map, connectivity);
+        if (lineOfSight.getMap() != map) {
+            throw new IllegalArgumentException("Line of sight must be for the searched map");
+        }
+        myLineOfSight = lineOfSight;
+    }
+
+    public GridLineOfSight getLineOfSight () {
+        return myLineOfSight;
+    }
+
+    /**
+     * Cost of moving in a straight line between two cells in line of sight.
+     */
+    @Override
+    public Number getCost (T beginningNode, T endingNode) {
+        GridMap map = getMap();
+        return myLineOfSight.getLineCost(map.getCell(getX(beginningNode), getY(beginningNode)),
+                                         map.getCell(getX(endingNode), getY(endingNode)));
+    }
+
+    @Override
+    protected boolean usesAnyAngleMoves () {
+        return true;
+    }
+
+    @Override
+    protected void expand (GridSearchWorkspace workspace, int cell) {
+        GridMap map = getMap();
+        Connectivity connectivity = getConnectivity();
+        int x = map.getX(cell);
+        int y = map.getY(cell);
+        int parent = workspace.getParent(cell);
+        float scoreSoFar = workspace.getScore(cell);
+        for (int direction = 0; direction < connectivity.getDirectionCount(); direction++) {
+            if (!canMove(x, y, direction)) {
+                continue;
+            }
+            int neighbor = map.getCell(x + connectivity.getDeltaX(direction),
+                                       y + connectivity.getDeltaY(direction));
+            if (parent != GridSearchWorkspace.NO_PARENT) {
+                double lineCost = myLineOfSight.getLineCost(parent, neighbor);
+                if (lineCost != Double.POSITIVE_INFINITY) {
+                    workspace.relax(parent, neighbor, workspace.getScore(parent) + lineCost);
+                    continue;
+                }
+            }
+            workspace.relax(cell, neighbor, scoreSoFar + connectivity.getStepLength(direction) *
+                                                         map.getCost(neighbor));
+        }
+    }
+}
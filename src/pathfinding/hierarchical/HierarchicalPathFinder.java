@@ -0,0 +1,348 @@
+package pathfinding.hierarchical;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import pathfinding.AStarPathFinder;
+import pathfinding.ISearchListener;
+import pathfinding.IndexedMinHeap;
+import pathfinding.InvalidCostException;
+import pathfinding.NodeIndexer;
+import pathfinding.SearchWorkspace;
+
+
+/**
+ * Hierarchical A* (HPA*) path finder. Nodes are partitioned into clusters, for example square
+ * blocks of tiles, and every node with a neighbor in another cluster becomes an entrance. A query
+ * first searches the abstract graph made of the start, the destination and the entrances, whose
+ * edges are the least cost paths between entrances of the same cluster plus the edges that cross
+ * between clusters. The resulting route is then refined into a full path with small searches
+ * that never leave a cluster. Because every entrance is kept, the abstract graph preserves all
+ * least cost paths, and the refined path costs the same as the one AStarPathFinder would find.
+ *
+ * To use, extend this class, define the same hooks as for AStarPathFinder plus getClusterKey, and
+ * call build with every node of the map. When the costs or neighbors of a node change, call
+ * nodeChanged with it; only its cluster and the clusters next to it are rebuilt, lazily, on the
+ * next query. Distances between the entrances of a cluster are computed the first time a query
+ * needs them and kept until the cluster changes.
+ *
+ * The neighbor relation must be symmetric (if b is a neighbor of a, a is a neighbor of b), though
+ * costs may differ by direction. Queries and updates are synchronized on the finder.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public abstract class HierarchicalPathFinder<T> extends AStarPathFinder<T> {
+
+    private final Map<Object, Cluster<T>> myClusters = new HashMap<>();
+    private final Set<Object> myDirtyClusterKeys = new LinkedHashSet<>();
+    private final SearchWorkspace<T> myAbstractSearch = new SearchWorkspace<>();
+    private final SearchWorkspace<T> myLocalSearch = new SearchWorkspace<>();
+    private int myExpandedNodes;
+    private int myGeneratedNodes;
+    private int myPeakFrontierSize;
+
+    /**
+     * Gets the key of the cluster a node belongs to. Nodes with equal keys are in the same
+     * cluster. For a tile map, a key made from the tile coordinates divided by the cluster size
+     * gives square clusters.
+     *
+     * @param node Node in question
+     * @return Key of the node's cluster
+     */
+    public abstract Object getClusterKey (T node);
+
+    /**
+     * Partitions the given nodes into clusters, replacing any previous partition.
+     *
+     * @param nodes Every node that queries may visit
+     */
+    public synchronized void build (Iterable<T> nodes) {
+        myClusters.clear();
+        myDirtyClusterKeys.clear();
+        for (T node : nodes) {
+            Object key = getClusterKey(node);
+            Cluster<T> cluster = myClusters.get(key);
+            if (cluster == null) {
+                cluster = new Cluster<>(key);
+                myClusters.put(key, cluster);
+                myDirtyClusterKeys.add(key);
+            }
+            cluster.myNodes.add(node);
+        }
+        rebuildDirtyClusters();
+    }
+
+    /**
+     * Marks the cluster of a node, and every cluster next to it, for rebuilding before the next
+     * query. Call after the cost of moving to or from the node, or its neighbors, changed.
+     *
+     * @param node Node that changed
+     */
+    public synchronized void nodeChanged (T node) {
+        Cluster<T> cluster = getCluster(node);
+        myDirtyClusterKeys.add(cluster.myKey);
+        myDirtyClusterKeys.addAll(cluster.myAdjacentKeys);
+        for (T neighbor : getNeighbors(node)) {
+            myDirtyClusterKeys.add(getClusterKey(neighbor));
+        }
+    }
+
+    /**
+     * @return Number of entrances in the abstract graph.
+     */
+    public synchronized int getEntranceCount () {
+        rebuildDirtyClusters();
+        int count = 0;
+        for (Cluster<T> cluster : myClusters.values()) {
+            count += cluster.myEntrances.size();
+        }
+        return count;
+    }
+
+    @Override
+    public synchronized List<T> findPath (T start, T destination) throws InvalidCostException {
+        ISearchListener listener = getSearchListener();
+        long startTime = listener == null ? 0 : System.nanoTime();
+        myExpandedNodes = 0;
+        myGeneratedNodes = 0;
+        myPeakFrontierSize = 0;
+        if (!canReach(start, destination)) {
+            return reportSearch(listener, startTime, null, 0, 0, 0, 0);
+        }
+        rebuildDirtyClusters();
+        List<T> route = findAbstractRoute(start, destination);
+        if (route == null) { return report(listener, startTime, null); }
+        List<T> path = new ArrayList<>();
+        path.add(start);
+        for (int i = 1; i < route.size(); i++) {
+            T from = route.get(i - 1);
+            T to = route.get(i);
+            Object key = getClusterKey(from);
+            if (!key.equals(getClusterKey(to))) {
+                path.add(to);
+                continue;
+            }
+            searchCluster(from, key, to);
+            List<T> segment = myLocalSearch.buildPath(myLocalSearch.findId(to));
+            path.addAll(segment.subList(1, segment.size()));
+        }
+        return report(listener, startTime, path);
+    }
+
+    /**
+     * A* over the abstract graph. Returns the start, the entrances passed through and the
+     * destination, or null if the destination cannot be reached.
+     */
+    private List<T> findAbstractRoute (T start, T destination) {
+        Cluster<T> startCluster = getCluster(start);
+        Cluster<T> destinationCluster = getCluster(destination);
+        List<T> startEdges = new ArrayList<>();
+        List<Double> startCosts = new ArrayList<>();
+        searchCluster(start, startCluster.myKey, null);
+        for (T entrance : startCluster.myEntrances) {
+            addLocalEdge(entrance, startEdges, startCosts);
+        }
+        if (startCluster == destinationCluster) {
+            addLocalEdge(destination, startEdges, startCosts);
+        }
+
+        SearchWorkspace<T> search = myAbstractSearch;
+        search.reset(this);
+        IndexedMinHeap frontier = search.getFrontier();
+        int startId = search.getId(start);
+        search.discover(startId, 0, SearchWorkspace.NO_PARENT);
+        frontier.offer(startId, getCheckedHeuristicValue(start, destination));
+        countGeneration(frontier);
+        while (!frontier.isEmpty()) {
+            int id = frontier.poll();
+            T node = search.getNode(id);
+            if (isDestination(node, destination)) { return search.buildPath(id); }
+            search.close(id);
+            myExpandedNodes++;
+            double score = search.getScore(id);
+            Cluster<T> cluster = getCluster(node);
+            Integer entranceIndex = cluster.myEntranceIndexes.get(node);
+            if (id == startId) {
+                for (int i = 0; i < startEdges.size(); i++) {
+                    relax(id, startEdges.get(i), score + startCosts.get(i), destination);
+                }
+            }
+            else if (entranceIndex != null) {
+                double[] distances = getEntranceDistances(cluster, entranceIndex);
+                for (int i = 0; i < distances.length; i++) {
+                    if (i != entranceIndex && distances[i] < Double.POSITIVE_INFINITY) {
+                        relax(id, cluster.myEntrances.get(i), score + distances[i], destination);
+                    }
+                }
+                if (cluster == destinationCluster) {
+                    searchCluster(node, cluster.myKey, destination);
+                    int destinationId = myLocalSearch.findId(destination);
+                    if (destinationId != NodeIndexer.ABSENT &&
+                        myLocalSearch.isClosed(destinationId)) {
+                        relax(id, destination, score + myLocalSearch.getScore(destinationId),
+                              destination);
+                    }
+                }
+            }
+            if (entranceIndex != null) {
+                for (T neighbor : getNeighbors(node)) {
+                    if (!cluster.myKey.equals(getClusterKey(neighbor))) {
+                        relax(id, neighbor, score + getCheckedCost(node, neighbor), destination);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private void relax (int parentId, T node, double gScore, T destination) {
+        SearchWorkspace<T> search = myAbstractSearch;
+        int id = search.getId(node);
+        if (search.isClosed(id)) { return; }
+        if (!search.isDiscovered(id) || gScore < search.getScore(id)) {
+            search.discover(id, gScore, parentId);
+            double hScore = getCheckedHeuristicValue(node, destination);
+            search.getFrontier().offer(id, gScore + hScore);
+            countGeneration(search.getFrontier());
+        }
+    }
+
+    /**
+     * Adds an edge to the node if the last local search reached it.
+     */
+    private void addLocalEdge (T node, List<T> edges, List<Double> costs) {
+        int id = myLocalSearch.findId(node);
+        if (id != NodeIndexer.ABSENT && myLocalSearch.isClosed(id)) {
+            edges.add(node);
+            costs.add(myLocalSearch.getScore(id));
+        }
+    }
+
+    /**
+     * Gets the least costs from one entrance of a cluster to all the others without leaving the
+     * cluster, computing and caching them on first use.
+     */
+    private double[] getEntranceDistances (Cluster<T> cluster, int entranceIndex) {
+        double[] distances = cluster.myDistances[entranceIndex];
+        if (distances != null) { return distances; }
+        searchCluster(cluster.myEntrances.get(entranceIndex), cluster.myKey, null);
+        distances = new double[cluster.myEntrances.size()];
+        for (int i = 0; i < distances.length; i++) {
+            int id = myLocalSearch.findId(cluster.myEntrances.get(i));
+            distances[i] = id != NodeIndexer.ABSENT && myLocalSearch.isClosed(id)
+                    ? myLocalSearch.getScore(id) : Double.POSITIVE_INFINITY;
+        }
+        cluster.myDistances[entranceIndex] = distances;
+        return distances;
+    }
+
+    /**
+     * Searches from source without leaving the cluster with the given key, using the local
+     * workspace. With a target, runs A* and stops once the target is reached; without one, runs
+     * Dijkstra's algorithm over the whole cluster.
+     */
+    private void searchCluster (T source, Object key, T target) {
+        SearchWorkspace<T> search = myLocalSearch;
+        search.reset(this);
+        IndexedMinHeap frontier = search.getFrontier();
+        int sourceId = search.getId(source);
+        search.discover(sourceId, 0, SearchWorkspace.NO_PARENT);
+        frontier.offer(sourceId, 0);
+        countGeneration(frontier);
+        while (!frontier.isEmpty()) {
+            int id = frontier.poll();
+            T node = search.getNode(id);
+            search.close(id);
+            myExpandedNodes++;
+            if (target != null && isDestination(node, target)) { return; }
+            double score = search.getScore(id);
+            for (T neighbor : getNeighbors(node)) {
+                if (!key.equals(getClusterKey(neighbor))) {
+                    continue;
+                }
+                int neighborId = search.getId(neighbor);
+                if (search.isClosed(neighborId)) {
+                    continue;
+                }
+                double gScore = score + getCheckedCost(node, neighbor);
+                if (!search.isDiscovered(neighborId) || gScore < search.getScore(neighborId)) {
+                    search.discover(neighborId, gScore, id);
+                    double hScore = target == null ? 0
+                            : getCheckedHeuristicValue(neighbor, target);
+                    frontier.offer(neighborId, gScore + hScore);
+                    countGeneration(frontier);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts a node added to one of the frontiers or given a lower score on it. Both the abstract
+     * and the local searches count towards the statistics reported for a query.
+     */
+    private void countGeneration (IndexedMinHeap frontier) {
+        myGeneratedNodes++;
+        myPeakFrontierSize = Math.max(myPeakFrontierSize, frontier.size());
+    }
+
+    private List<T> report (ISearchListener listener, long startTime, List<T> path) {
+        return reportSearch(listener, startTime, path, myExpandedNodes, myGeneratedNodes,
+                            myPeakFrontierSize, 0);
+    }
+
+    private void rebuildDirtyClusters () {
+        for (Object key : myDirtyClusterKeys) {
+            Cluster<T> cluster = myClusters.get(key);
+            if (cluster != null) {
+                rebuildCluster(cluster);
+            }
+        }
+        myDirtyClusterKeys.clear();
+    }
+
+    private void rebuildCluster (Cluster<T> cluster) {
+        cluster.myEntrances.clear();
+        cluster.myEntranceIndexes.clear();
+        cluster.myAdjacentKeys.clear();
+        for (T node : cluster.myNodes) {
+            boolean entrance = false;
+            for (T neighbor : getNeighbors(node)) {
+                Object neighborKey = getClusterKey(neighbor);
+                if (!cluster.myKey.equals(neighborKey)) {
+                    entrance = true;
+                    cluster.myAdjacentKeys.add(neighborKey);
+                }
+            }
+            if (entrance) {
+                cluster.myEntranceIndexes.put(node, cluster.myEntrances.size());
+                cluster.myEntrances.add(node);
+            }
+        }
+        cluster.myDistances = new double[cluster.myEntrances.size()][];
+    }
+
+    private Cluster<T> getCluster (T node) {
+        Cluster<T> cluster = myClusters.get(getClusterKey(node));
+        if (cluster == null) {
+            throw new IllegalArgumentException("Node " + node + " was not part of the build");
+        }
+        return cluster;
+    }
+
+    private static class Cluster<T> {
+        private final Object myKey;
+        private final List<T> myNodes = new ArrayList<>();
+        private final List<T> myEntrances = new ArrayList<>();
+        private final Map<T, Integer> myEntranceIndexes = new HashMap<>();
+        private final Set<Object> myAdjacentKeys = new HashSet<>();
+        private double[][] myDistances = new double[0][];
+
+        public Cluster (Object key) {
+            myKey = key;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package pathfinding.hierarchical;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import pathfinding.AStarPathFinder;
+import pathfinding.SearchStatisticsAggregator;
+import pathfinding.grid.GridMap;
+
+
+/**
+ * Checks that hierarchical paths cost the same as the ones found by searching the whole map.
+ */
+public class HierarchicalPathFinderTest {
+
+    private static final double TOLERANCE = 1e-6;
+    private static final int CLUSTER_SIZE = 8;
+
+    @Test
+    public void testMatchesFlatSearch () {
+        Random rand = new Random(3);
+        GridMap map = createRandomMap(50, 40, 0.25, rand);
+        TestHierarchicalFinder finder = new TestHierarchicalFinder(map);
+        finder.build(finder.getAllTiles());
+        ReferenceFinder reference = new ReferenceFinder(finder);
+        SearchStatisticsAggregator statistics = new SearchStatisticsAggregator();
+        finder.setSearchListener(statistics);
+        for (int i = 0; i < 100; i++) {
+            checkQuery(finder, reference, randomPassableTile(map, rand),
+                       randomPassableTile(map, rand));
+        }
+        assertEquals(100, statistics.getSearchCount());
+        assertTrue(statistics.getExpandedNodes().getMaximum() > 0);
+    }
+
+    @Test
+    public void testNodeChangedRebuildsClusters () {
+        Random rand = new Random(5);
+        GridMap map = createRandomMap(40, 40, 0.2, rand);
+        TestHierarchicalFinder finder = new TestHierarchicalFinder(map);
+        finder.build(finder.getAllTiles());
+        ReferenceFinder reference = new ReferenceFinder(finder);
+        for (int i = 0; i < 60; i++) {
+            Tile start = randomPassableTile(map, rand);
+            Tile destination = randomPassableTile(map, rand);
+            checkQuery(finder, reference, start, destination);
+            List<Tile> path = finder.findPath(start, destination);
+            if (path != null && path.size() > 2) {
+                Tile changed = path.get(path.size() / 2);
+                map.setCost(changed.myX, changed.myY, rand.nextBoolean() ? GridMap.BLOCKED : 9);
+                finder.nodeChanged(changed);
+                checkQuery(finder, reference, start, destination);
+            }
+        }
+    }
+
+    private void checkQuery (TestHierarchicalFinder finder, ReferenceFinder reference, Tile start,
+                             Tile destination) {
+        List<Tile> expected = reference.findPath(start, destination);
+        List<Tile> result = finder.findPath(start, destination);
+        if (expected == null) {
+            assertNull(result);
+            return;
+        }
+        assertEquals(start, result.get(0));
+        assertEquals(destination, result.get(result.size() - 1));
+        for (int i = 1; i < result.size(); i++) {
+            assertTrue(finder.getNeighbors(result.get(i - 1)).contains(result.get(i)));
+        }
+        assertEquals(pathCost(finder, expected), pathCost(finder, result), TOLERANCE);
+    }
+
+    private static GridMap createRandomMap (int width, int height, double density, Random rand) {
+        float[] costs = new float[width * height];
+        for (int i = 0; i < costs.length; i++) {
+            costs[i] = rand.nextDouble() < density ? GridMap.BLOCKED : 1 + rand.nextInt(3);
+        }
+        return new GridMap(width, height, costs);
+    }
+
+    private static Tile randomPassableTile (GridMap map, Random rand) {
+        while (true) {
+            int x = rand.nextInt(map.getWidth());
+            int y = rand.nextInt(map.getHeight());
+            if (map.isPassable(x, y)) { return new Tile(x, y); }
+        }
+    }
+
+    private static double pathCost (TestHierarchicalFinder finder, List<Tile> path) {
+        double cost = 0;
+        for (int i = 1; i < path.size(); i++) {
+            cost += finder.getCost(path.get(i - 1), path.get(i)).doubleValue();
+        }
+        return cost;
+    }
+
+    private static class Tile {
+        private int myX;
+        private int myY;
+
+        public Tile (int x, int y) {
+            myX = x;
+            myY = y;
+        }
+
+        @Override
+        public boolean equals (Object other) {
+            if (other == null || !(other instanceof Tile)) { return false; }
+            Tile otherTile = (Tile) other;
+            return myX == otherTile.myX && myY == otherTile.myY;
+        }
+
+        @Override
+        public int hashCode () {
+            return 31 * myX + myY;
+        }
+
+        @Override
+        public String toString () {
+            return myX + ", " + myY;
+        }
+    }
+
+    /**
+     * Four-connected moves between passable tiles, costing the cost of the tile entered.
+     */
+    private static class TestHierarchicalFinder extends HierarchicalPathFinder<Tile> {
+
+        private static final int[][] MOVES = { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 } };
+
+        private GridMap myMap;
+
+        public TestHierarchicalFinder (GridMap map) {
+            myMap = map;
+        }
+
+        public List<Tile> getAllTiles () {
+            List<Tile> tiles = new ArrayList<>();
+            for (int x = 0; x < myMap.getWidth(); x++) {
+                for (int y = 0; y < myMap.getHeight(); y++) {
+                    tiles.add(new Tile(x, y));
+                }
+            }
+            return tiles;
+        }
+
+        @Override
+        public Object getClusterKey (Tile node) {
+            return (node.myX / CLUSTER_SIZE) * 1000 + node.myY / CLUSTER_SIZE;
+        }
+
+        @Override
+        public Number getCost (Tile beginningNode, Tile endingNode) {
+            return myMap.getCost(myMap.getCell(endingNode.myX, endingNode.myY));
+        }
+
+        @Override
+        public List<Tile> getNeighbors (Tile node) {
+            List<Tile> neighbors = new ArrayList<>();
+            if (!myMap.isPassable(node.myX, node.myY)) { return neighbors; }
+            for (int[] move : MOVES) {
+                int x = node.myX + move[0];
+                int y = node.myY + move[1];
+                if (myMap.isPassable(x, y)) {
+                    neighbors.add(new Tile(x, y));
+                }
+            }
+            return neighbors;
+        }
+
+        @Override
+        public int breakTie (Tile node, Tile other) {
+            return node.myX != other.myX ? node.myX - other.myX : node.myY - other.myY;
+        }
+
+        @Override
+        public Number getHeuristicValue (Tile node, Tile destination) {
+            return Math.abs(node.myX - destination.myX) + Math.abs(node.myY - destination.myY);
+        }
+    }
+
+    /**
+     * Plain A* over the same hooks.
+     */
+    private static class ReferenceFinder extends AStarPathFinder<Tile> {
+
+        private TestHierarchicalFinder myFinder;
+
+        public ReferenceFinder (TestHierarchicalFinder finder) {
+            myFinder = finder;
+        }
+
+        @Override
+        public Number getCost (Tile beginningNode, Tile endingNode) {
+            return myFinder.getCost(beginningNode, endingNode);
+        }
+
+        @Override
+        public Iterable<Tile> getNeighbors (Tile node) {
+            return myFinder.getNeighbors(node);
+        }
+
+        @Override
+        public int breakTie (Tile node, Tile other) {
+            return myFinder.breakTie(node, other);
+        }
+
+        @Override
+        public Number getHeuristicValue (Tile node, Tile destination) {
+            return myFinder.getHeuristicValue(node, destination);
+        }
+    }
+}
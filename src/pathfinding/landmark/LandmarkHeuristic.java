@@ -0,0 +1,155 @@
+package pathfinding.landmark;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Heuristic for maps without a useful geometric one, built by LandmarkHeuristicBuilder (the ALT
+ * technique). For a few landmark nodes it knows the least cost from each landmark to every node
+ * and from every node to each landmark. By the triangle inequality, the cost from a node to a
+ * destination is at least the cost from a landmark to the destination minus the cost from the
+ * landmark to the node, and at least the cost from the node to a landmark minus the cost from
+ * the destination to it; the heuristic is the largest of these bounds. It never overestimates
+ * and is consistent, so A* still finds least cost paths, usually after far fewer expansions.
+ *
+ * To use it, return getHeuristicValue from a finder's getHeuristicValue hook. A heuristic is
+ * immutable and can be read by any number of threads at once. It can be saved to a stream and
+ * loaded back with the node list in the order getNodes returned it.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public class LandmarkHeuristic<T> {
+
+    private static final int FILE_MAGIC = 0x414c5431;
+
+    private final List<T> myNodes;
+    private final Map<T, Integer> myIds;
+    private final int[] myLandmarks;
+    private final double[][] myDistancesFrom;
+    private final double[][] myDistancesTo;
+
+    /**
+     * @param landmarks Ids of the landmarks
+     * @param distancesFrom Least cost from each landmark to each node, by landmark and node id
+     * @param distancesTo Least cost from each node to each landmark, by landmark and node id
+     */
+    LandmarkHeuristic (List<T> nodes, int[] landmarks, double[][] distancesFrom,
+                       double[][] distancesTo) {
+        myNodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+        myIds = new HashMap<>();
+        for (int id = 0; id < nodes.size(); id++) {
+            myIds.put(nodes.get(id), id);
+        }
+        myLandmarks = landmarks;
+        myDistancesFrom = distancesFrom;
+        myDistancesTo = distancesTo;
+    }
+
+    /**
+     * Loads a heuristic written by save.
+     *
+     * @param input Stream to read from
+     * @param nodes Nodes of the heuristic in the order getNodes returned them when it was saved
+     */
+    public static <T> LandmarkHeuristic<T> load (InputStream input, List<T> nodes)
+            throws IOException {
+        DataInputStream data = new DataInputStream(input);
+        if (data.readInt() != FILE_MAGIC) { throw new IOException("Not a landmark heuristic"); }
+        int nodeCount = data.readInt();
+        if (nodeCount != nodes.size()) {
+            throw new IOException("Heuristic has " + nodeCount + " nodes but " + nodes.size() +
+                                  " were given");
+        }
+        int landmarkCount = data.readInt();
+        int[] landmarks = new int[landmarkCount];
+        double[][] distancesFrom = new double[landmarkCount][nodeCount];
+        double[][] distancesTo = new double[landmarkCount][nodeCount];
+        for (int i = 0; i < landmarkCount; i++) {
+            landmarks[i] = data.readInt();
+            if (landmarks[i] < 0 || landmarks[i] >= nodeCount) {
+                throw new IOException("Corrupt landmark id " + landmarks[i]);
+            }
+            for (int id = 0; id < nodeCount; id++) {
+                distancesFrom[i][id] = data.readDouble();
+            }
+            for (int id = 0; id < nodeCount; id++) {
+                distancesTo[i][id] = data.readDouble();
+            }
+        }
+        return new LandmarkHeuristic<>(nodes, landmarks, distancesFrom, distancesTo);
+    }
+
+    /**
+     * Writes the heuristic to a stream. The nodes themselves are not written; keep the list from
+     * getNodes to load it again.
+     */
+    public void save (OutputStream output) throws IOException {
+        DataOutputStream data = new DataOutputStream(output);
+        data.writeInt(FILE_MAGIC);
+        data.writeInt(myNodes.size());
+        data.writeInt(myLandmarks.length);
+        for (int i = 0; i < myLandmarks.length; i++) {
+            data.writeInt(myLandmarks[i]);
+            for (double distance : myDistancesFrom[i]) {
+                data.writeDouble(distance);
+            }
+            for (double distance : myDistancesTo[i]) {
+                data.writeDouble(distance);
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * @return Nodes of the heuristic, in the order load expects them.
+     */
+    public List<T> getNodes () {
+        return myNodes;
+    }
+
+    public List<T> getLandmarks () {
+        List<T> landmarks = new ArrayList<>();
+        for (int id : myLandmarks) {
+            landmarks.add(myNodes.get(id));
+        }
+        return landmarks;
+    }
+
+    /**
+     * @return Lower bound on the least cost from node to destination; 0 if either is not one of
+     *         the heuristic's nodes, and positive infinity if a landmark shows that the
+     *         destination cannot be reached.
+     */
+    public double getHeuristicValue (T node, T destination) {
+        Integer id = myIds.get(node);
+        Integer destinationId = myIds.get(destination);
+        if (id == null || destinationId == null) { return 0; }
+        double best = 0;
+        for (int i = 0; i < myLandmarks.length; i++) {
+            best = Math.max(best, getBound(myDistancesFrom[i][destinationId],
+                                           myDistancesFrom[i][id]));
+            best = Math.max(best, getBound(myDistancesTo[i][id],
+                                           myDistancesTo[i][destinationId]));
+        }
+        return best;
+    }
+
+    /**
+     * @return Lower bound from the triangle inequality: the cost of a path that could have gone
+     *         through the node, minus the part that could not. Nothing is known when the
+     *         subtracted cost is infinite.
+     */
+    private static double getBound (double longerCost, double shorterCost) {
+        if (shorterCost == Double.POSITIVE_INFINITY) { return 0; }
+        return longerCost - shorterCost;
+    }
+}
@@ -0,0 +1,260 @@
+package pathfinding.landmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import pathfinding.CheckedCosts;
+import pathfinding.IPathFinder;
+import pathfinding.IndexedMinHeap;
+import pathfinding.InvalidCostException;
+
+
+/**
+ * Builds a LandmarkHeuristic from the getNeighbors and getCost hooks of a path finder. The map
+ * is first copied into compressed arrays, forwards and reversed. Landmarks are then either given
+ * or picked by farthest selection: each new landmark is the node farthest from all those picked
+ * so far, so landmarks end up on the edges of the map, behind the nodes they are meant to bound.
+ * Nodes that none of the picked landmarks can reach are farthest of all, so every part of a
+ * disconnected map gets a landmark once there are enough of them.
+ *
+ * Picking a landmark needs the distances from the ones before it, so those searches run one
+ * after another; every other table is computed in parallel on an executor, one Dijkstra search
+ * per table. The hooks are called only from the thread that calls build, and the map must not
+ * change while the heuristic is in use.
+ *
+ * @param <T> Any object type that implements equals and hashCode consistently.
+ */
+public class LandmarkHeuristicBuilder<T> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final IPathFinder<T> myFinder;
+    private final ExecutorService myExecutor;
+
+    /**
+     * Creates a builder that runs on the common ForkJoinPool.
+     */
+    public LandmarkHeuristicBuilder (IPathFinder<T> finder) {
+        this(finder, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param finder Finder whose hooks define the map
+     * @param executor Executor to compute the tables on
+     */
+    public LandmarkHeuristicBuilder (IPathFinder<T> finder, ExecutorService executor) {
+        myFinder = finder;
+        myExecutor = executor;
+    }
+
+    /**
+     * Picks landmarks by farthest selection and computes their tables.
+     *
+     * @param nodes Every node of the map. The neighbors of every node must be among them.
+     * @param landmarkCount Number of landmarks to pick; more give tighter bounds but cost more
+     *        memory and time per heuristic value
+     * @throws CancellationException If the calling thread is interrupted while waiting
+     */
+    public LandmarkHeuristic<T> build (Iterable<T> nodes, int landmarkCount)
+            throws InvalidCostException {
+        if (landmarkCount < 1) {
+            throw new IllegalArgumentException("Must pick at least one landmark");
+        }
+        Graph graph = new Graph(nodes);
+        int count = Math.min(landmarkCount, graph.myNodes.size());
+        int[] landmarks = new int[count];
+        double[][] distancesFrom = new double[count][];
+        double[] closest = new double[graph.myNodes.size()];
+        Arrays.fill(closest, Double.POSITIVE_INFINITY);
+        if (count > 0) {
+            landmarks[0] = getFarthest(graph.search(0, true), closest);
+        }
+        for (int i = 0; i < count; i++) {
+            distancesFrom[i] = graph.search(landmarks[i], true);
+            for (int id = 0; id < closest.length; id++) {
+                closest[id] = Math.min(closest[id], distancesFrom[i][id]);
+            }
+            if (i + 1 < count) {
+                landmarks[i + 1] = getFarthest(closest, closest);
+            }
+        }
+        return new LandmarkHeuristic<>(graph.myNodes, landmarks, distancesFrom,
+                                       computeTables(graph, landmarks, false));
+    }
+
+    /**
+     * Computes the tables of the given landmarks.
+     *
+     * @param nodes Every node of the map. The neighbors of every node must be among them.
+     * @param landmarks Nodes to use as landmarks, each among the nodes
+     * @throws CancellationException If the calling thread is interrupted while waiting
+     */
+    public LandmarkHeuristic<T> build (Iterable<T> nodes, List<T> landmarks)
+            throws InvalidCostException {
+        Graph graph = new Graph(nodes);
+        int[] landmarkIds = new int[landmarks.size()];
+        for (int i = 0; i < landmarkIds.length; i++) {
+            Integer id = graph.myIds.get(landmarks.get(i));
+            if (id == null) {
+                throw new IllegalArgumentException("Landmark " + landmarks.get(i) +
+                                                   " is not among the nodes");
+            }
+            landmarkIds[i] = id;
+        }
+        return new LandmarkHeuristic<>(graph.myNodes, landmarkIds,
+                                       computeTables(graph, landmarkIds, true),
+                                       computeTables(graph, landmarkIds, false));
+    }
+
+    /**
+     * @return Id of the node with the greatest distance, skipping nodes no farther than 0 from a
+     *         landmark. Unreachable nodes count as farthest.
+     */
+    private static int getFarthest (double[] distances, double[] closest) {
+        int farthest = -1;
+        for (int id = 0; id < distances.length; id++) {
+            if (closest[id] > 0 && (farthest == -1 || distances[id] > distances[farthest])) {
+                farthest = id;
+            }
+        }
+        return farthest == -1 ? 0 : farthest;
+    }
+
+    private double[][] computeTables (final Graph graph, int[] landmarks, final boolean forward) {
+        final double[][] tables = new double[landmarks.length][];
+        List<Callable<Void>> searches = new ArrayList<>();
+        for (int i = 0; i < landmarks.length; i++) {
+            final int index = i;
+            final int landmark = landmarks[i];
+            searches.add(new Callable<Void>() {
+                @Override
+                public Void call () {
+                    tables[index] = graph.search(landmark, forward);
+                    return null;
+                }
+            });
+        }
+        try {
+            for (Future<Void> future : myExecutor.invokeAll(searches)) {
+                future.get();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while computing landmark tables");
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) { throw (RuntimeException) e.getCause(); }
+            throw new IllegalStateException(e.getCause());
+        }
+        return tables;
+    }
+
+    /**
+     * The map in compressed arrays, with every edge stored under its source and, reversed, under
+     * its target. Read-only once built, so searches can share it.
+     */
+    private class Graph {
+        private final List<T> myNodes = new ArrayList<>();
+        private final Map<T, Integer> myIds = new HashMap<>();
+        private final int[] myOffsets;
+        private final int[] myTargets;
+        private final double[] myWeights;
+        private final int[] myReverseOffsets;
+        private final int[] myReverseTargets;
+        private final double[] myReverseWeights;
+
+        public Graph (Iterable<T> nodes) {
+            for (T node : nodes) {
+                if (!myIds.containsKey(node)) {
+                    myIds.put(node, myNodes.size());
+                    myNodes.add(node);
+                }
+            }
+            int nodeCount = myNodes.size();
+            myOffsets = new int[nodeCount + 1];
+            int[] targets = new int[INITIAL_CAPACITY];
+            double[] weights = new double[INITIAL_CAPACITY];
+            int edgeCount = 0;
+            for (int id = 0; id < nodeCount; id++) {
+                T node = myNodes.get(id);
+                for (T neighbor : myFinder.getNeighbors(node)) {
+                    Integer neighborId = myIds.get(neighbor);
+                    if (neighborId == null) {
+                        throw new IllegalArgumentException("Neighbor " + neighbor + " of " + node +
+                                                           " is not among the nodes");
+                    }
+                    double cost = CheckedCosts.getCost(myFinder, node, neighbor);
+                    if (edgeCount == targets.length) {
+                        targets = Arrays.copyOf(targets, edgeCount * 2);
+                        weights = Arrays.copyOf(weights, edgeCount * 2);
+                    }
+                    targets[edgeCount] = neighborId;
+                    weights[edgeCount] = cost;
+                    edgeCount++;
+                }
+                myOffsets[id + 1] = edgeCount;
+            }
+            myTargets = Arrays.copyOf(targets, edgeCount);
+            myWeights = Arrays.copyOf(weights, edgeCount);
+            myReverseOffsets = new int[nodeCount + 1];
+            for (int edge = 0; edge < edgeCount; edge++) {
+                myReverseOffsets[myTargets[edge] + 1]++;
+            }
+            for (int id = 0; id < nodeCount; id++) {
+                myReverseOffsets[id + 1] += myReverseOffsets[id];
+            }
+            myReverseTargets = new int[edgeCount];
+            myReverseWeights = new double[edgeCount];
+            int[] next = Arrays.copyOf(myReverseOffsets, nodeCount);
+            for (int id = 0; id < nodeCount; id++) {
+                for (int edge = myOffsets[id]; edge < myOffsets[id + 1]; edge++) {
+                    int slot = next[myTargets[edge]]++;
+                    myReverseTargets[slot] = id;
+                    myReverseWeights[slot] = myWeights[edge];
+                }
+            }
+        }
+
+        /**
+         * Dijkstra's algorithm over the whole map.
+         *
+         * @param forward Whether to follow edges forwards, giving costs from the source, or
+         *        backwards, giving costs to it
+         * @return Least cost between the source and every node, by id; positive infinity where
+         *         there is no path.
+         */
+        public double[] search (int sourceId, boolean forward) {
+            int[] offsets = forward ? myOffsets : myReverseOffsets;
+            int[] targets = forward ? myTargets : myReverseTargets;
+            double[] weights = forward ? myWeights : myReverseWeights;
+            double[] distances = new double[myNodes.size()];
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+            boolean[] settled = new boolean[myNodes.size()];
+            IndexedMinHeap frontier = new IndexedMinHeap();
+            distances[sourceId] = 0;
+            frontier.offer(sourceId, 0);
+            while (!frontier.isEmpty()) {
+                int id = frontier.poll();
+                settled[id] = true;
+                for (int edge = offsets[id]; edge < offsets[id + 1]; edge++) {
+                    int target = targets[edge];
+                    double distance = distances[id] + weights[edge];
+                    if (!settled[target] && distance < distances[target]) {
+                        distances[target] = distance;
+                        frontier.offer(target, distance);
+                    }
+                }
+            }
+            return distances;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package pathfinding.landmark;
+
+import static org.junit.Assert.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import pathfinding.ISearchListener;
+import pathfinding.SearchStatistics;
+import pathfinding.example.LinkedNode;
+import pathfinding.example.LinkedNodeAStarFinder;
+
+
+/**
+ * Checks landmark heuristics on a maze of one- and two-way links against Dijkstra's algorithm.
+ */
+public class LandmarkHeuristicTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    public void testPathsStayLeastCostWithFewerExpansions () {
+        Random rand = new Random(17);
+        List<LinkedNode> nodes = createMap(30, 30, rand);
+        LandmarkHeuristic<LinkedNode> heuristic =
+                new LandmarkHeuristicBuilder<>(new LinkedNodeAStarFinder()).build(nodes, 6);
+        assertEquals(6, heuristic.getLandmarks().size());
+        LandmarkFinder dijkstra = new LandmarkFinder(null);
+        LandmarkFinder landmarks = new LandmarkFinder(heuristic);
+        ExpansionCounter dijkstraExpansions = new ExpansionCounter();
+        ExpansionCounter landmarkExpansions = new ExpansionCounter();
+        dijkstra.setSearchListener(dijkstraExpansions);
+        landmarks.setSearchListener(landmarkExpansions);
+        for (int i = 0; i < 100; i++) {
+            LinkedNode start = nodes.get(rand.nextInt(nodes.size()));
+            LinkedNode destination = nodes.get(rand.nextInt(nodes.size()));
+            List<LinkedNode> expected = dijkstra.findPath(start, destination);
+            List<LinkedNode> result = landmarks.findPath(start, destination);
+            if (expected == null) {
+                assertNull(result);
+                continue;
+            }
+            assertEquals(getCost(expected), getCost(result), TOLERANCE);
+            assertTrue(heuristic.getHeuristicValue(start, destination) <=
+                       getCost(expected) + TOLERANCE);
+        }
+        assertTrue(landmarkExpansions.myCount < dijkstraExpansions.myCount);
+    }
+
+    @Test
+    public void testSaveAndLoad () throws IOException {
+        Random rand = new Random(5);
+        List<LinkedNode> nodes = createMap(12, 12, rand);
+        List<LinkedNode> chosen = Arrays.asList(nodes.get(0), nodes.get(nodes.size() - 1));
+        LandmarkHeuristic<LinkedNode> heuristic =
+                new LandmarkHeuristicBuilder<>(new LinkedNodeAStarFinder()).build(nodes, chosen);
+        assertEquals(chosen, heuristic.getLandmarks());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        heuristic.save(output);
+        LandmarkHeuristic<LinkedNode> loaded =
+                LandmarkHeuristic.load(new ByteArrayInputStream(output.toByteArray()),
+                                       heuristic.getNodes());
+        assertEquals(chosen, loaded.getLandmarks());
+        for (LinkedNode node : nodes) {
+            for (LinkedNode destination : nodes) {
+                assertEquals(heuristic.getHeuristicValue(node, destination),
+                             loaded.getHeuristicValue(node, destination), 0);
+            }
+        }
+        try {
+            LandmarkHeuristic.load(new ByteArrayInputStream(output.toByteArray()),
+                                   nodes.subList(1, nodes.size()));
+            fail("Loaded with the wrong number of nodes");
+        }
+        catch (IOException e) {
+            // expected
+        }
+    }
+
+    private static double getCost (List<LinkedNode> path) {
+        LinkedNodeAStarFinder finder = new LinkedNodeAStarFinder();
+        double cost = 0;
+        for (int i = 1; i < path.size(); i++) {
+            assertTrue(path.get(i - 1).getNeighbors().contains(path.get(i)));
+            cost += finder.getCost(path.get(i - 1), path.get(i)).doubleValue();
+        }
+        return cost;
+    }
+
+    /**
+     * Grid of links between adjacent nodes, some missing and some one way.
+     */
+    private static List<LinkedNode> createMap (int xMax, int yMax, Random rand) {
+        LinkedNode[][] grid = new LinkedNode[xMax][yMax];
+        List<LinkedNode> nodes = new ArrayList<>();
+        for (int i = 0; i < xMax; i++) {
+            for (int j = 0; j < yMax; j++) {
+                grid[i][j] = new LinkedNode(i, j);
+                nodes.add(grid[i][j]);
+            }
+        }
+        for (int i = 0; i < xMax; i++) {
+            for (int j = 0; j < yMax; j++) {
+                if (i + 1 < xMax) {
+                    link(grid[i][j], grid[i + 1][j], rand);
+                }
+                if (j + 1 < yMax) {
+                    link(grid[i][j], grid[i][j + 1], rand);
+                }
+            }
+        }
+        return nodes;
+    }
+
+    private static void link (LinkedNode node, LinkedNode other, Random rand) {
+        double roll = rand.nextDouble();
+        if (roll < 0.75) {
+            node.addNeighbor(other);
+        }
+        if (roll < 0.6 || roll >= 0.9) {
+            other.addNeighbor(node);
+        }
+    }
+
+    /**
+     * Searches with the landmark heuristic, or with none if it is null.
+     */
+    private static class LandmarkFinder extends LinkedNodeAStarFinder {
+        private final LandmarkHeuristic<LinkedNode> myHeuristic;
+
+        public LandmarkFinder (LandmarkHeuristic<LinkedNode> heuristic) {
+            myHeuristic = heuristic;
+        }
+
+        @Override
+        public Number getHeuristicValue (LinkedNode node, LinkedNode destination) {
+            return myHeuristic == null ? 0 : myHeuristic.getHeuristicValue(node, destination);
+        }
+    }
+
+    private static class ExpansionCounter implements ISearchListener {
+        private long myCount;
+
+        @Override
+        public void searchFinished (SearchStatistics statistics) {
+            myCount += statistics.getExpandedNodes();
+        }
+    }
+}